@@ -127,7 +127,9 @@ ALTER TABLE `track`
 --
 ALTER TABLE `user`
   ADD PRIMARY KEY (`id`),
-  ADD UNIQUE KEY `email` (`email`);
+  ADD UNIQUE KEY `email` (`email`),
+  ADD UNIQUE KEY `uk_user_username` (`username`),
+  ADD KEY `idx_user_status` (`status`);
 
 --
 -- AUTO_INCREMENT pour les tables déchargées
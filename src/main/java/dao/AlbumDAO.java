@@ -0,0 +1,151 @@
+package dao;
+
+import model.Album;
+import model.Track;
+import model.TrackStatus;
+import model.User;
+import utils.DBConnection;
+
+import java.sql.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Table album : un album par (artiste, titre), référencé par track.album_id.
+ * Le nombre de titres approuvés et leur durée totale sont stockés dans la table et recalculés
+ * par TrackDAO, pour les seuls albums qu'une écriture de track modifie ; les lectures les
+ * renvoient tels quels, par les index de la migration 1 (voir SchemaMigrations).
+ */
+public class AlbumDAO implements AlbumRepository {
+
+    static final String ENSURE_ALBUM_SQL = "INSERT IGNORE INTO album (artist_id, title) VALUES (?, ?)";
+
+    // Agrégats d'un album lus par l'index sur track.album_id, sans regroupement de tout l'artiste
+    private static final String AGGREGATES =
+            "track_count = (SELECT COUNT(*) FROM track t WHERE t.album_id = album.id AND t.status = 'APPROVED'), " +
+            "total_duration = (SELECT COALESCE(SUM(t.duration), 0) FROM track t WHERE t.album_id = album.id AND t.status = 'APPROVED')";
+    // Tous les albums : migration 1, lors de la création des agrégats
+    static final String REFRESH_ALL_SQL = "UPDATE album SET " + AGGREGATES;
+    private static final String REFRESH_BY_ID_SQL = "UPDATE album SET " + AGGREGATES + " WHERE id = ?";
+    private static final String REFRESH_BY_KEY_SQL = "UPDATE album SET " + AGGREGATES + " WHERE artist_id = ? AND title = ?";
+
+    private static final String SELECT_ALBUMS = "SELECT a.id, a.title, a.track_count, a.total_duration, " +
+            "u.id AS artist_id, u.username AS artist_username, u.email AS artist_email, " +
+            "u.password_hash AS artist_password_hash, u.role AS artist_role, u.status AS artist_status " +
+            "FROM album a INNER JOIN user u ON u.id = a.artist_id";
+
+    // Par la clé unique uk_album_artist_title (artist_id, title)
+    @Override
+    public List<Album> findByArtist(User artist) {
+        String sql = SELECT_ALBUMS + " WHERE a.artist_id = ? ORDER BY a.title";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, artist.getId());
+            return mapAlbums(stmt);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de la récupération des albums de l'artiste", e);
+        }
+    }
+
+    // Par la clé unique uk_album_artist_title (artist_id, title)
+    @Override
+    public Optional<Album> findByArtistAndTitle(User artist, String title) {
+        String sql = SELECT_ALBUMS + " WHERE a.artist_id = ? AND a.title = ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, artist.getId());
+            stmt.setString(2, title);
+            return mapAlbums(stmt).stream().findFirst();
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de la récupération de l'album", e);
+        }
+    }
+
+    // idx_album_popularity parcouru à rebours (l'index secondaire se termine par l'id) : LIMIT lignes lues
+    @Override
+    public List<Album> findMostPopular(int limit) {
+        String sql = SELECT_ALBUMS + " WHERE a.track_count > 0 ORDER BY a.track_count DESC, a.id DESC LIMIT ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, limit);
+            return mapAlbums(stmt);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de la récupération des albums populaires", e);
+        }
+    }
+
+    private static List<Album> mapAlbums(PreparedStatement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            List<Album> albums = new ArrayList<>();
+            while (rs.next()) {
+                albums.add(new Album(
+                    rs.getInt("id"),
+                    rs.getString("title"),
+                    TrackRowMapper.mapUser(rs, TrackRowMapper.ARTIST_PREFIX),
+                    rs.getInt("track_count"),
+                    // Colonne FLOAT, en secondes comme track.duration
+                    Duration.ofMillis(Math.round(rs.getDouble("total_duration") * 1000))
+                ));
+            }
+            return albums;
+        }
+    }
+
+    /**
+     * Crée les albums manquants des tracks donnés (les tracks sans album n'en ont pas).
+     */
+    static void ensureAlbums(Connection conn, Collection<Track> tracks) throws SQLException {
+        List<Track> withAlbum = new ArrayList<>();
+        for (Track track : tracks) {
+            if (hasAlbum(track)) {
+                withAlbum.add(track);
+            }
+        }
+        Transactions.executeBatched(conn, ENSURE_ALBUM_SQL, withAlbum, (stmt, track) -> {
+            stmt.setInt(1, track.getArtist().getId());
+            stmt.setString(2, track.getAlbum());
+        });
+    }
+
+    /**
+     * Recalcule les agrégats des albums donnés par id (albums quittés ou vidés).
+     */
+    static void refreshAggregates(Connection conn, Collection<Integer> albumIds) throws SQLException {
+        Set<Integer> distinct = new LinkedHashSet<>(albumIds);
+        Transactions.executeBatched(conn, REFRESH_BY_ID_SQL, distinct, (stmt, albumId) -> stmt.setInt(1, albumId));
+    }
+
+    /**
+     * Recalcule les agrégats des albums rejoints par les tracks donnés, s'ils y comptent (approuvés).
+     */
+    static void refreshJoinedAlbums(Connection conn, Collection<Track> tracks) throws SQLException {
+        Set<AlbumKey> keys = new LinkedHashSet<>();
+        for (Track track : tracks) {
+            if (hasAlbum(track) && track.getStatus() == TrackStatus.APPROVED) {
+                keys.add(new AlbumKey(track.getArtist().getId(), track.getAlbum()));
+            }
+        }
+        Transactions.executeBatched(conn, REFRESH_BY_KEY_SQL, keys, (stmt, key) -> {
+            stmt.setInt(1, key.artistId());
+            stmt.setString(2, key.title());
+        });
+    }
+
+    static boolean hasAlbum(Track track) {
+        return track.getAlbum() != null && !track.getAlbum().isBlank();
+    }
+
+    private record AlbumKey(int artistId, String title) {
+    }
+}
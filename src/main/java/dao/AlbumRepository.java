@@ -0,0 +1,27 @@
+package dao;
+
+import model.Album;
+import model.User;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Lecture des albums et de leurs agrégats (titres approuvés et durée totale). Implémenté par
+ * {@link AlbumDAO} (MySQL) et par le stockage en mémoire. Les albums sont créés et leurs agrégats
+ * tenus à jour par les écritures de tracks.
+ */
+public interface AlbumRepository {
+
+    /**
+     * Albums de l'artiste, par titre, y compris ceux qui n'ont plus de titre approuvé.
+     */
+    List<Album> findByArtist(User artist);
+
+    Optional<Album> findByArtistAndTitle(User artist, String title);
+
+    /**
+     * Les {@code limit} albums qui ont le plus de titres approuvés (les plus récents d'abord à égalité).
+     */
+    List<Album> findMostPopular(int limit);
+}
@@ -0,0 +1,248 @@
+package dao;
+
+import model.Role;
+import model.Track;
+import model.TrackStatus;
+import model.User;
+import model.UserStatus;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Copie locale du catalogue (utilisateurs et tracks) pour afficher l'application sans attendre la base.
+ * <p>
+ * Format binaire compact, relu par projection mémoire : en-tête (magie, version, date d'écriture),
+ * utilisateurs puis tracks, chaînes en UTF-8 préfixées par leur longueur. Ni mots de passe ni emails
+ * ne sont écrits : les utilisateurs relus sont provisoires et complétés par la ligne lue en base
+ * (voir {@link EntityCache}). Le fichier est rangé dans {@code ~/.soundhub}, lisible par son seul
+ * propriétaire.
+ */
+public final class CatalogSnapshot {
+
+    private static final int MAGIC = 0x53484353; // "SHCS"
+    private static final int VERSION = 3;
+    private static final Path DEFAULT_PATH = Paths.get(System.getProperty("user.home"), ".soundhub", "catalog.snapshot");
+    private static final Set<PosixFilePermission> OWNER_DIRECTORY = PosixFilePermissions.fromString("rwx------");
+    private static final Set<PosixFilePermission> OWNER_FILE = PosixFilePermissions.fromString("rw-------");
+
+    private static final Role[] ROLES = Role.values();
+    private static final UserStatus[] USER_STATUSES = UserStatus.values();
+    private static final TrackStatus[] TRACK_STATUSES = TrackStatus.values();
+
+    private final LocalDateTime writtenAt;
+    private final List<User> users;
+    private final List<Track> tracks;
+
+    private CatalogSnapshot(LocalDateTime writtenAt, List<User> users, List<Track> tracks) {
+        this.writtenAt = writtenAt;
+        this.users = users;
+        this.tracks = tracks;
+    }
+
+    public LocalDateTime getWrittenAt() {
+        return writtenAt;
+    }
+
+    public List<User> getUsers() {
+        return users;
+    }
+
+    public List<Track> getTracks() {
+        return tracks;
+    }
+
+    public static Optional<CatalogSnapshot> read() {
+        return read(DEFAULT_PATH);
+    }
+
+    /**
+     * Relit un instantané ; vide s'il n'existe pas ou s'il est illisible (l'appelant charge alors depuis la base).
+     */
+    public static Optional<CatalogSnapshot> read(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                System.err.println("Instantané du catalogue ignoré : format inconnu (" + path + ")");
+                return Optional.empty();
+            }
+            LocalDateTime writtenAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong()), ZoneId.systemDefault());
+
+            int userCount = buffer.getInt();
+            List<User> users = new ArrayList<>(userCount);
+            Map<Integer, User> usersById = new HashMap<>(userCount * 2);
+            for (int i = 0; i < userCount; i++) {
+                int id = buffer.getInt();
+                String username = readString(buffer);
+                Role role = ROLES[buffer.get()];
+                UserStatus status = USER_STATUSES[buffer.get()];
+                // Une instance déjà chargée depuis la base prime sur l'instantané
+                User user = EntityCache.users().putIfAbsent(id, new User(id, username, null, null, role, status));
+                users.add(user);
+                usersById.put(id, user);
+            }
+
+            int trackCount = buffer.getInt();
+            List<Track> tracks = new ArrayList<>(trackCount);
+            for (int i = 0; i < trackCount; i++) {
+                int id = buffer.getInt();
+                String title = readString(buffer);
+                User artist = usersById.get(buffer.getInt());
+                String album = readString(buffer);
+                Duration duration = Duration.ofMillis(buffer.getLong());
+                String filePath = readString(buffer);
+                TrackStatus status = TRACK_STATUSES[buffer.get()];
+                LocalDateTime uploadDate = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+                if (artist == null) {
+                    throw new IOException("artiste inconnu pour le track " + id);
+                }
+                tracks.add(EntityCache.tracks().putIfAbsent(id,
+                        new Track(id, title, artist, album, duration, filePath, status, uploadDate)));
+            }
+            return Optional.of(new CatalogSnapshot(writtenAt, users, tracks));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Instantané du catalogue illisible, chargement depuis la base: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Valeurs d'un instantané, copiées des entités sur le thread qui les modifie (le thread JavaFX
+     * dans l'application) : l'écriture peut ensuite se faire depuis n'importe quel thread.
+     */
+    public record Content(List<UserRow> users, List<TrackRow> tracks) {
+
+        public static Content capture(Collection<User> users, Collection<Track> tracks) {
+            List<UserRow> userRows = new ArrayList<>(users.size());
+            for (User user : users) {
+                userRows.add(new UserRow(user.getId(), user.getUsername(), user.getRole(), user.getStatus()));
+            }
+            List<TrackRow> trackRows = new ArrayList<>(tracks.size());
+            for (Track track : tracks) {
+                trackRows.add(new TrackRow(track.getId(), track.getTitle(), track.getArtist().getId(), track.getAlbum(),
+                        track.getDuration(), track.getFilePath(), track.getStatus(), track.getUploadDate()));
+            }
+            return new Content(List.copyOf(userRows), List.copyOf(trackRows));
+        }
+
+        public boolean isEmpty() {
+            return users.isEmpty() && tracks.isEmpty();
+        }
+    }
+
+    public record UserRow(int id, String username, Role role, UserStatus status) {
+    }
+
+    public record TrackRow(int id, String title, int artistId, String album, Duration duration, String filePath,
+                           TrackStatus status, LocalDateTime uploadDate) {
+    }
+
+    public static void write(Content content) {
+        write(DEFAULT_PATH, content);
+    }
+
+    /**
+     * Copie puis écrit les entités ; à appeler depuis le thread qui les modifie.
+     */
+    public static void write(Path path, Collection<User> users, Collection<Track> tracks) {
+        write(path, Content.capture(users, tracks));
+    }
+
+    /**
+     * Écrit l'instantané dans un fichier temporaire puis le substitue d'un coup à l'ancien :
+     * un lecteur ne voit jamais un fichier à moitié écrit.
+     */
+    public static void write(Path path, Content content) {
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            boolean posix = directory.getFileSystem().supportedFileAttributeViews().contains("posix");
+            if (posix) {
+                Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_DIRECTORY));
+                Files.setPosixFilePermissions(directory, OWNER_DIRECTORY);
+            } else {
+                Files.createDirectories(directory);
+            }
+            Path temporary = posix
+                    ? Files.createTempFile(directory, "catalog", ".tmp", PosixFilePermissions.asFileAttribute(OWNER_FILE))
+                    : Files.createTempFile(directory, "catalog", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(System.currentTimeMillis());
+
+                out.writeInt(content.users().size());
+                for (UserRow user : content.users()) {
+                    out.writeInt(user.id());
+                    writeString(out, user.username());
+                    out.writeByte(user.role().ordinal());
+                    out.writeByte(user.status().ordinal());
+                }
+
+                out.writeInt(content.tracks().size());
+                for (TrackRow track : content.tracks()) {
+                    out.writeInt(track.id());
+                    writeString(out, track.title());
+                    out.writeInt(track.artistId());
+                    writeString(out, track.album());
+                    out.writeLong(track.duration().toMillis());
+                    writeString(out, track.filePath());
+                    out.writeByte(track.status().ordinal());
+                    out.writeLong(track.uploadDate().toEpochSecond(ZoneOffset.UTC));
+                    out.writeInt(track.uploadDate().getNano());
+                }
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temporary);
+                throw e;
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Impossible d'écrire l'instantané du catalogue: " + e.getMessage());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,104 @@
+package dao;
+
+import model.Track;
+import model.User;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * Cache de premier niveau partagé par tous les DAOs : un seul objet User et un seul objet Track
+ * par id, quel que soit le DAO ou le service qui l'a chargé. Un changement de statut fait sur
+ * une instance est ainsi visible des playlists, favoris et listes des services.
+ * <p>
+ * Une ligne relue qui diffère de l'instance en mémoire est recopiée sur le thread propriétaire
+ * (voir {@link IdentityMap#merge}) ; TrackService et UserService remplacent alors l'élément dans
+ * leur liste pour que les FilteredList et les index suivent.
+ */
+public final class EntityCache {
+
+    private static final IdentityMap<User> USERS = new IdentityMap<>(new UserRefresher());
+    private static final IdentityMap<Track> TRACKS = new IdentityMap<>(new TrackRefresher());
+
+    private EntityCache() {
+    }
+
+    public static IdentityMap<User> users() {
+        return USERS;
+    }
+
+    public static IdentityMap<Track> tracks() {
+        return TRACKS;
+    }
+
+    /**
+     * Oublie toutes les instances : les prochaines lectures recréeront des objets neufs.
+     */
+    public static void invalidateAll() {
+        USERS.clear();
+        TRACKS.clear();
+    }
+
+    /**
+     * Exécuteur des mises à jour d'instances existantes (Platform::runLater dans l'application).
+     */
+    public static void setRefreshExecutor(Executor executor) {
+        USERS.setRefreshExecutor(executor);
+        TRACKS.setRefreshExecutor(executor);
+    }
+
+    private static final class UserRefresher implements IdentityMap.Refresher<User> {
+
+        @Override
+        public boolean sameState(User current, User fresh) {
+            return Objects.equals(current.getUsername(), fresh.getUsername())
+                    && Objects.equals(current.getEmail(), fresh.getEmail())
+                    && current.getRole() == fresh.getRole()
+                    && current.getStatus() == fresh.getStatus();
+        }
+
+        @Override
+        public boolean canRefresh(User current, User fresh) {
+            return true;
+        }
+
+        @Override
+        public void adoptHidden(User current, User fresh) {
+            // Utilisateur provisoire relu depuis l'instantané local (sans mot de passe ni email) : l'instance
+            // affichée est conservée et reçoit l'empreinte lue en base avant qu'une connexion ne la vérifie.
+            // L'email complété, un utilisateur inchangé depuis l'instantané n'a pas de recopie à planifier
+            current.adoptPasswordHash(fresh.getPasswordHash());
+            current.adoptEmail(fresh.getEmail());
+        }
+
+        @Override
+        public void refresh(User current, User fresh) {
+            current.refreshFrom(fresh);
+        }
+    }
+
+    private static final class TrackRefresher implements IdentityMap.Refresher<Track> {
+
+        @Override
+        public boolean sameState(Track current, Track fresh) {
+            return current.getArtist() == fresh.getArtist()
+                    && Objects.equals(current.getTitle(), fresh.getTitle())
+                    && Objects.equals(current.getAlbum(), fresh.getAlbum())
+                    && Objects.equals(current.getDuration(), fresh.getDuration())
+                    && Objects.equals(current.getFilePath(), fresh.getFilePath())
+                    && current.getStatus() == fresh.getStatus()
+                    && Objects.equals(current.getUploadDate(), fresh.getUploadDate());
+        }
+
+        @Override
+        public boolean canRefresh(Track current, Track fresh) {
+            // L'artiste est lui-même canonique, une comparaison d'identité suffit
+            return current.getArtist() == fresh.getArtist();
+        }
+
+        @Override
+        public void refresh(Track current, Track fresh) {
+            current.refreshFrom(fresh);
+        }
+    }
+}
@@ -8,21 +8,14 @@ import utils.DBConnection;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
-public class FavoriteDAO {
-
-    private final UserDAO userDAO;
-    private final TrackDAO trackDAO;
-
-    public FavoriteDAO(UserDAO userDAO, TrackDAO trackDAO) {
-        this.userDAO = userDAO;
-        this.trackDAO = trackDAO;
-    }
+public class FavoriteDAO implements FavoriteRepository {
 
     public List<Favorite> findByUser(User user) {
-        String sql = "SELECT f.*, t.* FROM favorite f " +
-                    "INNER JOIN track t ON f.track_id = t.id " +
+        String sql = TrackRowMapper.SELECT_TRACKS + " " +
+                    "INNER JOIN favorite f ON f.track_id = t.id " +
                     "WHERE f.user_id = ?";
         
         try (Connection conn = DBConnection.getConnection();
@@ -100,31 +93,32 @@ public class FavoriteDAO {
         }
     }
 
-    public void toggleFavorite(User user, Track track) {
-        if (isFavorite(user, track)) {
-            removeFavorite(user, track);
-        } else {
-            addFavorite(user, track);
+    /**
+     * Applique un lot de changements de favoris dans une seule transaction, par lots JDBC.
+     */
+    public void applyChanges(Collection<FavoriteChange> changes) {
+        String insertSql = "INSERT IGNORE INTO favorite (user_id, track_id) VALUES (?, ?)";
+        String deleteSql = "DELETE FROM favorite WHERE user_id = ? AND track_id = ?";
+        List<FavoriteChange> added = changes.stream().filter(FavoriteChange::favorite).toList();
+        List<FavoriteChange> removed = changes.stream().filter(change -> !change.favorite()).toList();
+
+        try {
+            Transactions.inTransaction(conn -> {
+                Transactions.Binder<FavoriteChange> binder = (stmt, change) -> {
+                    stmt.setInt(1, change.userId());
+                    stmt.setInt(2, change.trackId());
+                };
+                Transactions.executeBatched(conn, deleteSql, removed, binder);
+                Transactions.executeBatched(conn, insertSql, added, binder);
+                return null;
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de l'enregistrement des favoris", e);
         }
     }
 
     private Favorite mapResultSetToFavorite(ResultSet rs, User user) throws SQLException {
-        // Récupérer les données du track depuis le ResultSet
-        int artistId = rs.getInt("artist_id");
-        User artist = userDAO.findById(artistId)
-            .orElseThrow(() -> new RuntimeException("Artiste non trouvé pour le track"));
-        
-        Track track = new Track(
-            rs.getInt("id"),
-            rs.getString("title"),
-            artist,
-            rs.getString("album"),
-            java.time.Duration.ofSeconds(rs.getLong("duration")),
-            rs.getString("file_path"),
-            model.TrackStatus.valueOf(rs.getString("status")),
-            rs.getTimestamp("upload_date").toLocalDateTime()
-        );
-        
+        Track track = TrackRowMapper.mapTrack(rs);
         return new Favorite(user, track, LocalDateTime.now());
     }
 }
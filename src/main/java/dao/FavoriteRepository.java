@@ -0,0 +1,30 @@
+package dao;
+
+import model.Favorite;
+import model.Track;
+import model.User;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stockage des favoris. Implémenté par {@link FavoriteDAO} (MySQL) et par le stockage en mémoire.
+ */
+public interface FavoriteRepository {
+
+    List<Favorite> findByUser(User user);
+
+    boolean isFavorite(User user, Track track);
+
+    void addFavorite(User user, Track track);
+
+    void removeFavorite(User user, Track track);
+
+    /**
+     * Applique un lot de changements de favoris d'un seul tenant.
+     */
+    void applyChanges(Collection<FavoriteChange> changes);
+
+    record FavoriteChange(int userId, int trackId, boolean favorite) {
+    }
+}
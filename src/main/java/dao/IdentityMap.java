@@ -0,0 +1,180 @@
+package dao;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Table d'identité : au plus une instance vivante par id.
+ * <p>
+ * Les entrées sont retenues par références faibles : une entité que plus personne ne référence
+ * (service, playlist, favori...) est libérée par le GC puis purgée de la table.
+ * <p>
+ * Les lectures en base se font hors du thread JavaFX alors que les instances canoniques sont
+ * affichées : une ligne qui diffère de l'instance existante n'est jamais recopiée sur le thread
+ * du DAO. La recopie part sur l'exécuteur de rafraîchissement (le thread JavaFX dans l'application),
+ * suivie de l'avis aux écouteurs qui émettent un remplacement dans leurs listes.
+ */
+public final class IdentityMap<T> {
+
+    private final Map<Integer, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final ReferenceQueue<T> collected = new ReferenceQueue<>();
+    private final Refresher<T> refresher;
+    private final List<Consumer<T>> refreshListeners = new CopyOnWriteArrayList<>();
+    private volatile Executor refreshExecutor = Runnable::run;
+
+    public IdentityMap(Refresher<T> refresher) {
+        this.refresher = refresher;
+    }
+
+    /**
+     * Thread propriétaire des instances : les recopies et les avis aux écouteurs y sont exécutés
+     * (exécution directe par défaut, sans interface graphique).
+     */
+    public void setRefreshExecutor(Executor executor) {
+        this.refreshExecutor = executor;
+    }
+
+    /**
+     * Appelé sur l'exécuteur de rafraîchissement avec l'instance canonique, après sa mise à jour
+     * ou son remplacement par une ligne plus récente.
+     */
+    public void addRefreshListener(Consumer<T> listener) {
+        refreshListeners.add(listener);
+    }
+
+    /**
+     * Retourne l'instance canonique pour cet id. Si la ligne lue en base diffère, l'instance est
+     * mise à jour plus tard sur l'exécuteur de rafraîchissement (voir {@link #setRefreshExecutor}).
+     */
+    public T merge(int id, T fresh) {
+        purge();
+        while (true) {
+            Entry<T> existing = entries.get(id);
+            T current = existing == null ? null : existing.get();
+            if (current != null) {
+                if (current != fresh) {
+                    refresher.adoptHidden(current, fresh);
+                }
+                if (current == fresh || refresher.sameState(current, fresh)) {
+                    return current;
+                }
+                if (refresher.canRefresh(current, fresh)) {
+                    refreshExecutor.execute(() -> {
+                        refresher.refresh(current, fresh);
+                        notifyRefreshed(current);
+                    });
+                    return current;
+                }
+            }
+            Entry<T> replacement = new Entry<>(id, fresh, collected);
+            boolean stored = existing == null
+                    ? entries.putIfAbsent(id, replacement) == null
+                    : entries.replace(id, existing, replacement);
+            if (stored) {
+                if (current != null) {
+                    // Instance remplacée : ses détenteurs doivent passer à la nouvelle
+                    refreshExecutor.execute(() -> notifyRefreshed(fresh));
+                }
+                return fresh;
+            }
+        }
+    }
+
+    /**
+     * Retourne l'instance vivante pour cet id, ou enregistre {@code candidate} s'il n'y en a pas.
+     * Contrairement à {@link #merge}, l'état de l'instance existante n'est pas modifié.
+     */
+    public T putIfAbsent(int id, T candidate) {
+        purge();
+        while (true) {
+            Entry<T> existing = entries.get(id);
+            T current = existing == null ? null : existing.get();
+            if (current != null) {
+                return current;
+            }
+            Entry<T> replacement = new Entry<>(id, candidate, collected);
+            boolean stored = existing == null
+                    ? entries.putIfAbsent(id, replacement) == null
+                    : entries.replace(id, existing, replacement);
+            if (stored) {
+                return candidate;
+            }
+        }
+    }
+
+    public Optional<T> get(int id) {
+        Entry<T> entry = entries.get(id);
+        return Optional.ofNullable(entry == null ? null : entry.get());
+    }
+
+    public void invalidate(int id) {
+        entries.remove(id);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        purge();
+        return entries.size();
+    }
+
+    private void notifyRefreshed(T instance) {
+        for (Consumer<T> listener : refreshListeners) {
+            listener.accept(instance);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void purge() {
+        Entry<T> entry;
+        while ((entry = (Entry<T>) collected.poll()) != null) {
+            entries.remove(entry.id, entry);
+        }
+    }
+
+    /**
+     * Compare et recopie l'état d'une ligne lue en base dans l'instance canonique.
+     */
+    public interface Refresher<T> {
+
+        /**
+         * true si la ligne ne change rien à l'instance (cas courant : aucune mise à jour à planifier).
+         */
+        boolean sameState(T current, T fresh);
+
+        /**
+         * false si l'instance ne peut pas être mise à jour et doit être remplacée.
+         */
+        boolean canRefresh(T current, T fresh);
+
+        /**
+         * Recopie tout de suite, sur le thread appelant, l'état que l'interface n'affiche pas et dont
+         * l'appelant peut avoir besoin aussitôt ; n'entre pas dans {@link #sameState}.
+         */
+        default void adoptHidden(T current, T fresh) {
+        }
+
+        /**
+         * Recopie l'état de {@code fresh} dans {@code current} (sur l'exécuteur de rafraîchissement).
+         */
+        void refresh(T current, T fresh);
+    }
+
+    private static final class Entry<T> extends WeakReference<T> {
+        private final int id;
+
+        private Entry(int id, T referent, ReferenceQueue<T> queue) {
+            super(referent, queue);
+            this.id = id;
+        }
+    }
+}
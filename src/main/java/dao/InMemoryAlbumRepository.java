@@ -0,0 +1,80 @@
+package dao;
+
+import model.Album;
+import model.Track;
+import model.TrackStatus;
+import model.User;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Albums du stockage en mémoire (voir {@link InMemoryStore}). Les agrégats que MySQL stocke dans
+ * la table album sont recalculés ici à chaque lecture, d'un seul parcours des tracks.
+ */
+public class InMemoryAlbumRepository implements AlbumRepository {
+
+    private final InMemoryStore store;
+
+    public InMemoryAlbumRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<Album> findByArtist(User artist) {
+        synchronized (store) {
+            Map<Integer, Aggregate> aggregates = aggregates();
+            return store.albums.values().stream()
+                    .filter(row -> row.artist().getId() == artist.getId())
+                    .sorted(Comparator.comparing(row -> InMemoryStore.uniqueKey(row.title())))
+                    .map(row -> toAlbum(row, aggregates))
+                    .toList();
+        }
+    }
+
+    @Override
+    public Optional<Album> findByArtistAndTitle(User artist, String title) {
+        synchronized (store) {
+            return Optional.ofNullable(store.albumIdsByKey.get(InMemoryStore.AlbumKey.of(artist.getId(), title)))
+                    .map(id -> toAlbum(store.albums.get(id), aggregates()));
+        }
+    }
+
+    @Override
+    public List<Album> findMostPopular(int limit) {
+        synchronized (store) {
+            Map<Integer, Aggregate> aggregates = aggregates();
+            return aggregates.keySet().stream()
+                    .map(id -> toAlbum(store.albums.get(id), aggregates))
+                    .sorted(Comparator.comparingInt(Album::getTrackCount).thenComparingInt(Album::getId).reversed())
+                    .limit(limit)
+                    .toList();
+        }
+    }
+
+    // Titres approuvés par album
+    private Map<Integer, Aggregate> aggregates() {
+        Map<Integer, Aggregate> aggregates = new HashMap<>();
+        for (Track track : store.tracks.values()) {
+            if (track.getStatus() != TrackStatus.APPROVED || !AlbumDAO.hasAlbum(track)) {
+                continue;
+            }
+            Integer albumId = store.albumIdsByKey.get(InMemoryStore.AlbumKey.of(track.getArtist().getId(), track.getAlbum()));
+            aggregates.merge(albumId, new Aggregate(1, track.getDuration()),
+                    (a, b) -> new Aggregate(a.count() + b.count(), a.duration().plus(b.duration())));
+        }
+        return aggregates;
+    }
+
+    private static Album toAlbum(InMemoryStore.AlbumRow row, Map<Integer, Aggregate> aggregates) {
+        Aggregate aggregate = aggregates.getOrDefault(row.id(), new Aggregate(0, Duration.ZERO));
+        return new Album(row.id(), row.title(), row.artist(), aggregate.count(), aggregate.duration());
+    }
+
+    private record Aggregate(int count, Duration duration) {
+    }
+}
@@ -0,0 +1,95 @@
+package dao;
+
+import model.Favorite;
+import model.Track;
+import model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Favoris du stockage en mémoire (voir {@link InMemoryStore}).
+ */
+public class InMemoryFavoriteRepository implements FavoriteRepository {
+
+    private final InMemoryStore store;
+
+    public InMemoryFavoriteRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<Favorite> findByUser(User user) {
+        synchronized (store) {
+            List<Favorite> favorites = new ArrayList<>();
+            store.favorites.getOrDefault(user.getId(), Map.of()).forEach((trackId, addedAt) ->
+                    favorites.add(new Favorite(user, store.tracks.get(trackId), addedAt)));
+            return favorites;
+        }
+    }
+
+    @Override
+    public boolean isFavorite(User user, Track track) {
+        synchronized (store) {
+            return store.favorites.getOrDefault(user.getId(), Map.of()).containsKey(track.getId());
+        }
+    }
+
+    @Override
+    public void addFavorite(User user, Track track) {
+        if (user == null || track == null) {
+            System.out.println("Utilisateur ou track null");
+            return;
+        }
+        try {
+            synchronized (store) {
+                set(user.getId(), track.getId(), true);
+            }
+        } catch (IllegalStateException e) {
+            // Même comportement que FavoriteDAO : l'échec est signalé sans être propagé
+            System.err.println("Erreur lors de l'ajout du favori : " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void removeFavorite(User user, Track track) {
+        synchronized (store) {
+            set(user.getId(), track.getId(), false);
+        }
+    }
+
+    @Override
+    public void applyChanges(Collection<FavoriteChange> changes) {
+        synchronized (store) {
+            for (FavoriteChange change : changes) {
+                if (change.favorite()) {
+                    store.requireUser(change.userId());
+                    store.requireTrack(change.trackId());
+                }
+            }
+            for (FavoriteChange change : changes) {
+                if (!change.favorite()) {
+                    set(change.userId(), change.trackId(), false);
+                }
+            }
+            for (FavoriteChange change : changes) {
+                if (change.favorite()) {
+                    set(change.userId(), change.trackId(), true);
+                }
+            }
+        }
+    }
+
+    private void set(int userId, int trackId, boolean favorite) {
+        if (favorite) {
+            store.requireUser(userId);
+            store.requireTrack(trackId);
+            store.favoritesOf(userId).putIfAbsent(trackId, LocalDateTime.now());
+        } else if (store.favorites.containsKey(userId)) {
+            store.favorites.get(userId).remove(trackId);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package dao;
+
+import model.Playlist;
+import model.Track;
+import model.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Playlists du stockage en mémoire (voir {@link InMemoryStore}).
+ * Comme PlaylistDAO, chaque lecture construit de nouveaux objets Playlist.
+ */
+public class InMemoryPlaylistRepository implements PlaylistRepository {
+
+    private final InMemoryStore store;
+
+    public InMemoryPlaylistRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<Playlist> findAll() {
+        synchronized (store) {
+            return store.playlists.values().stream().map(this::toPlaylist).toList();
+        }
+    }
+
+    @Override
+    public List<Playlist> findPage(int afterId, int limit) {
+        synchronized (store) {
+            return store.playlists.tailMap(afterId, false).values().stream().limit(limit).map(this::toPlaylist).toList();
+        }
+    }
+
+    @Override
+    public Optional<Playlist> findById(int id) {
+        synchronized (store) {
+            return Optional.ofNullable(store.playlists.get(id)).map(this::toPlaylist);
+        }
+    }
+
+    @Override
+    public List<Playlist> findByUser(User user) {
+        synchronized (store) {
+            List<Playlist> playlists = new ArrayList<>();
+            for (InMemoryStore.PlaylistRow row : store.playlists.values()) {
+                if (row.owner().getId() == user.getId()) {
+                    Playlist playlist = new Playlist(row.id(), row.name(), user);
+                    playlist.setTracks(tracksOf(row.id()));
+                    playlists.add(playlist);
+                }
+            }
+            return playlists;
+        }
+    }
+
+    @Override
+    public Playlist save(Playlist playlist) {
+        synchronized (store) {
+            if (playlist.getId() == 0) {
+                store.requireUser(playlist.getOwner().getId());
+                int id = store.nextPlaylistId();
+                store.playlists.put(id, new InMemoryStore.PlaylistRow(id, playlist.getName(), playlist.getOwner()));
+                return new Playlist(id, playlist.getName(), playlist.getOwner());
+            }
+            rename(playlist.getId(), playlist.getName());
+            return playlist;
+        }
+    }
+
+    @Override
+    public void delete(int id) {
+        synchronized (store) {
+            store.deletePlaylist(id);
+        }
+    }
+
+    @Override
+    public void addTrackToPlaylist(int playlistId, int trackId) {
+        addTracksToPlaylist(playlistId, List.of(trackId));
+    }
+
+    @Override
+    public void addTracksToPlaylist(int playlistId, Collection<Integer> trackIds) {
+        synchronized (store) {
+            store.requirePlaylist(playlistId);
+            trackIds.forEach(store::requireTrack);
+            store.tracksOf(playlistId).addAll(trackIds);
+        }
+    }
+
+    @Override
+    public void applyChanges(Collection<TrackChange> trackChanges, Map<Integer, String> names) {
+        synchronized (store) {
+            for (TrackChange change : trackChanges) {
+                if (change.present()) {
+                    store.requirePlaylist(change.playlistId());
+                    store.requireTrack(change.trackId());
+                }
+            }
+            for (TrackChange change : trackChanges) {
+                if (!change.present()) {
+                    store.tracksOf(change.playlistId()).remove(change.trackId());
+                }
+            }
+            for (TrackChange change : trackChanges) {
+                if (change.present()) {
+                    store.tracksOf(change.playlistId()).add(change.trackId());
+                }
+            }
+            // Comme l'UPDATE de PlaylistDAO, renommer une playlist supprimée est sans effet
+            names.forEach((id, name) -> {
+                if (store.playlists.containsKey(id)) {
+                    rename(id, name);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void removeTrackFromPlaylist(int playlistId, int trackId) {
+        synchronized (store) {
+            Optional.ofNullable(store.playlistTracks.get(playlistId)).ifPresent(trackIds -> trackIds.remove(trackId));
+        }
+    }
+
+    @Override
+    public List<Track> getPlaylistTracks(int playlistId) {
+        synchronized (store) {
+            return tracksOf(playlistId);
+        }
+    }
+
+    private void rename(int id, String name) {
+        InMemoryStore.PlaylistRow row = store.playlists.get(id);
+        if (row == null) {
+            throw new RuntimeException("Playlist non trouvée pour la mise à jour");
+        }
+        store.playlists.put(id, new InMemoryStore.PlaylistRow(id, name, row.owner()));
+    }
+
+    private List<Track> tracksOf(int playlistId) {
+        List<Track> tracks = new ArrayList<>();
+        for (int trackId : store.playlistTracks.getOrDefault(playlistId, Set.of())) {
+            tracks.add(store.tracks.get(trackId));
+        }
+        return tracks;
+    }
+
+    private Playlist toPlaylist(InMemoryStore.PlaylistRow row) {
+        return new Playlist(row.id(), row.name(), row.owner());
+    }
+}
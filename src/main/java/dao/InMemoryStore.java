@@ -0,0 +1,153 @@
+package dao;
+
+import model.Track;
+import model.User;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Données du stockage en mémoire, partagées par les dépôts InMemory*.
+ * <p>
+ * Reproduit les contraintes du schéma MySQL : ids auto-incrémentés, unicité de l'email et du nom
+ * d'utilisateur (sans tenir compte de la casse, comme la collation utf8mb4_general_ci), albums
+ * créés par les écritures de tracks et suppressions en cascade. Les dépôts synchronisent chaque
+ * opération sur cet objet.
+ */
+public final class InMemoryStore {
+
+    final NavigableMap<Integer, User> users = new TreeMap<>();
+    final Map<String, Integer> userIdsByEmail = new HashMap<>();
+    final Map<String, Integer> userIdsByUsername = new HashMap<>();
+    final NavigableMap<Integer, Track> tracks = new TreeMap<>();
+    final NavigableMap<Integer, PlaylistRow> playlists = new TreeMap<>();
+    // playlist -> tracks dans l'ordre d'ajout
+    final Map<Integer, Set<Integer>> playlistTracks = new HashMap<>();
+    // utilisateur -> (track -> date d'ajout)
+    final Map<Integer, Map<Integer, LocalDateTime>> favorites = new HashMap<>();
+    // Lignes de la table album (sans agrégats, recalculés à la lecture) et leur clé unique (artiste, titre)
+    final NavigableMap<Integer, AlbumRow> albums = new TreeMap<>();
+    final Map<AlbumKey, Integer> albumIdsByKey = new HashMap<>();
+
+    private int nextUserId = 1;
+    private int nextTrackId = 1;
+    private int nextPlaylistId = 1;
+    private int nextAlbumId = 1;
+
+    int nextUserId() {
+        return nextUserId++;
+    }
+
+    int nextTrackId() {
+        return nextTrackId++;
+    }
+
+    int nextPlaylistId() {
+        return nextPlaylistId++;
+    }
+
+    static String uniqueKey(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Comme l'INSERT IGNORE d'AlbumDAO : crée l'album du track s'il n'existe pas encore.
+     */
+    void ensureAlbum(Track track) {
+        if (AlbumDAO.hasAlbum(track)) {
+            albumIdsByKey.computeIfAbsent(AlbumKey.of(track.getArtist().getId(), track.getAlbum()), key -> {
+                int id = nextAlbumId++;
+                albums.put(id, new AlbumRow(id, track.getAlbum(), track.getArtist()));
+                return id;
+            });
+        }
+    }
+
+    Set<Integer> tracksOf(int playlistId) {
+        return playlistTracks.computeIfAbsent(playlistId, id -> new LinkedHashSet<>());
+    }
+
+    Map<Integer, LocalDateTime> favoritesOf(int userId) {
+        return favorites.computeIfAbsent(userId, id -> new LinkedHashMap<>());
+    }
+
+    void deleteUser(int userId) {
+        User removed = users.remove(userId);
+        if (removed == null) {
+            return;
+        }
+        userIdsByEmail.remove(uniqueKey(removed.getEmail()), userId);
+        userIdsByUsername.remove(uniqueKey(removed.getUsername()), userId);
+        // ON DELETE CASCADE : tracks de l'artiste, playlists et favoris de l'utilisateur
+        tracks.values().stream()
+                .filter(track -> track.getArtist().getId() == userId)
+                .map(Track::getId)
+                .toList()
+                .forEach(this::deleteTrack);
+        playlists.values().stream()
+                .filter(playlist -> playlist.owner().getId() == userId)
+                .map(PlaylistRow::id)
+                .toList()
+                .forEach(this::deletePlaylist);
+        favorites.remove(userId);
+        albums.values().removeIf(album -> album.artist().getId() == userId);
+        albumIdsByKey.keySet().removeIf(key -> key.artistId() == userId);
+    }
+
+    void deleteTrack(int trackId) {
+        if (tracks.remove(trackId) == null) {
+            return;
+        }
+        playlistTracks.values().forEach(trackIds -> trackIds.remove(trackId));
+        favorites.values().forEach(addedAtByTrack -> addedAtByTrack.remove(trackId));
+    }
+
+    void deletePlaylist(int playlistId) {
+        playlists.remove(playlistId);
+        playlistTracks.remove(playlistId);
+    }
+
+    void requireUser(int userId) {
+        if (!users.containsKey(userId)) {
+            throw new IllegalStateException("Utilisateur " + userId + " inexistant");
+        }
+    }
+
+    void requireTrack(int trackId) {
+        if (!tracks.containsKey(trackId)) {
+            throw new IllegalStateException("Track " + trackId + " inexistant");
+        }
+    }
+
+    void requirePlaylist(int playlistId) {
+        if (!playlists.containsKey(playlistId)) {
+            throw new IllegalStateException("Playlist " + playlistId + " inexistante");
+        }
+    }
+
+    /**
+     * Ligne de la table playlist : les morceaux sont dans {@link #playlistTracks}.
+     */
+    record PlaylistRow(int id, String name, User owner) {
+    }
+
+    record AlbumRow(int id, String title, User artist) {
+    }
+
+    /**
+     * Clé unique (artiste, titre) d'un album, sans tenir compte de la casse comme uk_album_artist_title.
+     */
+    record AlbumKey(int artistId, String title) {
+
+        static AlbumKey of(int artistId, String title) {
+            return new AlbumKey(artistId, uniqueKey(title));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package dao;
+
+import model.Track;
+import model.TrackStatus;
+import model.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Tracks du stockage en mémoire (voir {@link InMemoryStore}).
+ */
+public class InMemoryTrackRepository implements TrackRepository {
+
+    private final InMemoryStore store;
+
+    public InMemoryTrackRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<Track> findAll() {
+        synchronized (store) {
+            return new ArrayList<>(store.tracks.values());
+        }
+    }
+
+    @Override
+    public List<Track> findPage(int afterId, int limit) {
+        synchronized (store) {
+            return store.tracks.tailMap(afterId, false).values().stream().limit(limit).toList();
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<Track> action) {
+        findAll().forEach(action);
+    }
+
+    // Copie prise sous le verrou : le flux ne bloque pas les écritures pendant qu'il est parcouru
+    @Override
+    public Stream<Track> streamAll() {
+        return findAll().stream();
+    }
+
+    @Override
+    public Optional<Track> findById(int id) {
+        synchronized (store) {
+            return Optional.ofNullable(store.tracks.get(id));
+        }
+    }
+
+    @Override
+    public List<Track> findByStatus(TrackStatus status) {
+        synchronized (store) {
+            return store.tracks.values().stream().filter(track -> track.getStatus() == status).toList();
+        }
+    }
+
+    @Override
+    public List<Track> findByArtist(User artist) {
+        synchronized (store) {
+            return store.tracks.values().stream().filter(track -> track.getArtist().getId() == artist.getId()).toList();
+        }
+    }
+
+    @Override
+    public Track save(Track track) {
+        synchronized (store) {
+            return track.getId() == 0 ? insert(track) : update(track);
+        }
+    }
+
+    @Override
+    public List<Track> saveAll(Collection<Track> tracks) {
+        synchronized (store) {
+            // Tout ou rien : les références sont vérifiées avant d'écrire
+            for (Track track : tracks) {
+                store.requireUser(track.getArtist().getId());
+                if (track.getId() != 0) {
+                    store.requireTrack(track.getId());
+                }
+            }
+            List<Track> saved = new ArrayList<>(tracks.size());
+            for (Track track : tracks) {
+                saved.add(track.getId() == 0 ? insert(track) : update(track));
+            }
+            return saved;
+        }
+    }
+
+    @Override
+    public void delete(int id) {
+        synchronized (store) {
+            store.deleteTrack(id);
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<Integer> ids) {
+        synchronized (store) {
+            ids.forEach(store::deleteTrack);
+        }
+    }
+
+    private Track insert(Track track) {
+        store.requireUser(track.getArtist().getId());
+        int id = store.nextTrackId();
+        Track saved = new Track(id, track.getTitle(), track.getArtist(), track.getAlbum(),
+                track.getDuration(), track.getFilePath(), track.getStatus(), track.getUploadDate());
+        store.tracks.put(id, saved);
+        store.ensureAlbum(saved);
+        return saved;
+    }
+
+    private Track update(Track track) {
+        if (!store.tracks.containsKey(track.getId())) {
+            throw new RuntimeException("Track non trouvé pour la mise à jour");
+        }
+        store.tracks.put(track.getId(), track);
+        store.ensureAlbum(track);
+        return track;
+    }
+}
@@ -0,0 +1,132 @@
+package dao;
+
+import model.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Utilisateurs du stockage en mémoire (voir {@link InMemoryStore}).
+ */
+public class InMemoryUserRepository implements UserRepository {
+
+    private final InMemoryStore store;
+
+    public InMemoryUserRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<User> findAll() {
+        synchronized (store) {
+            return new ArrayList<>(store.users.values());
+        }
+    }
+
+    @Override
+    public List<User> findPage(int afterId, int limit) {
+        synchronized (store) {
+            return store.users.tailMap(afterId, false).values().stream().limit(limit).toList();
+        }
+    }
+
+    @Override
+    public Optional<User> findById(int id) {
+        synchronized (store) {
+            return Optional.ofNullable(store.users.get(id));
+        }
+    }
+
+    @Override
+    public Optional<User> findByEmailOrUsername(String login) {
+        synchronized (store) {
+            Integer id = store.userIdsByEmail.get(InMemoryStore.uniqueKey(login));
+            if (id == null) {
+                id = store.userIdsByUsername.get(InMemoryStore.uniqueKey(login));
+            }
+            return id == null ? Optional.empty() : Optional.ofNullable(store.users.get(id));
+        }
+    }
+
+    @Override
+    public User save(User user) {
+        synchronized (store) {
+            return user.getId() == 0 ? insert(user) : update(user);
+        }
+    }
+
+    @Override
+    public List<User> saveAll(Collection<User> users) {
+        synchronized (store) {
+            // Tout ou rien, comme la transaction de UserDAO : les doublons sont vérifiés avant d'écrire
+            List<String> emails = new ArrayList<>();
+            List<String> usernames = new ArrayList<>();
+            for (User user : users) {
+                checkUnique(user, emails, usernames);
+                emails.add(InMemoryStore.uniqueKey(user.getEmail()));
+                usernames.add(InMemoryStore.uniqueKey(user.getUsername()));
+            }
+            List<User> saved = new ArrayList<>(users.size());
+            for (User user : users) {
+                saved.add(user.getId() == 0 ? insert(user) : update(user));
+            }
+            return saved;
+        }
+    }
+
+    @Override
+    public void delete(int id) {
+        synchronized (store) {
+            store.deleteUser(id);
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<Integer> ids) {
+        synchronized (store) {
+            ids.forEach(store::deleteUser);
+        }
+    }
+
+    private User insert(User user) {
+        checkUnique(user, List.of(), List.of());
+        int id = store.nextUserId();
+        User saved = new User(id, user.getUsername(), user.getEmail(),
+                user.getPasswordHash(), user.getRole(), user.getStatus());
+        index(saved);
+        return saved;
+    }
+
+    private User update(User user) {
+        User previous = store.users.get(user.getId());
+        if (previous == null) {
+            throw new RuntimeException("Utilisateur non trouvé pour la mise à jour");
+        }
+        checkUnique(user, List.of(), List.of());
+        store.userIdsByEmail.remove(InMemoryStore.uniqueKey(previous.getEmail()), previous.getId());
+        store.userIdsByUsername.remove(InMemoryStore.uniqueKey(previous.getUsername()), previous.getId());
+        index(user);
+        return user;
+    }
+
+    private void index(User user) {
+        store.users.put(user.getId(), user);
+        store.userIdsByEmail.put(InMemoryStore.uniqueKey(user.getEmail()), user.getId());
+        store.userIdsByUsername.put(InMemoryStore.uniqueKey(user.getUsername()), user.getId());
+    }
+
+    private void checkUnique(User user, List<String> pendingEmails, List<String> pendingUsernames) {
+        String email = InMemoryStore.uniqueKey(user.getEmail());
+        Integer owner = store.userIdsByEmail.get(email);
+        if ((owner != null && owner != user.getId()) || pendingEmails.contains(email)) {
+            throw new DuplicateUserException(DuplicateUserException.Field.EMAIL, null);
+        }
+        String username = InMemoryStore.uniqueKey(user.getUsername());
+        owner = store.userIdsByUsername.get(username);
+        if ((owner != null && owner != user.getId()) || pendingUsernames.contains(username)) {
+            throw new DuplicateUserException(DuplicateUserException.Field.USERNAME, null);
+        }
+    }
+}
@@ -7,22 +7,25 @@ import utils.DBConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
-public class PlaylistDAO {
+public class PlaylistDAO implements PlaylistRepository {
 
-    private final UserDAO userDAO;
-    private final TrackDAO trackDAO;
-
-    public PlaylistDAO(UserDAO userDAO, TrackDAO trackDAO) {
-        this.userDAO = userDAO;
-        this.trackDAO = trackDAO;
-    }
+    private static final String OWNER_PREFIX = "owner_";
+    private static final String SELECT_PLAYLISTS =
+            "SELECT p.id, p.name, " +
+            "u.id AS owner_id, u.username AS owner_username, u.email AS owner_email, " +
+            "u.password_hash AS owner_password_hash, u.role AS owner_role, u.status AS owner_status " +
+            "FROM playlist p INNER JOIN user u ON u.id = p.user_id";
 
     public List<Playlist> findAll() {
         List<Playlist> playlists = new ArrayList<>();
-        String sql = "SELECT * FROM playlist";
+        String sql = SELECT_PLAYLISTS;
         
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
@@ -38,8 +41,31 @@ public class PlaylistDAO {
         return playlists;
     }
 
+    /**
+     * Page de playlists triées par id, strictement après {@code afterId} (0 pour la première page).
+     */
+    public List<Playlist> findPage(int afterId, int limit) {
+        String sql = SELECT_PLAYLISTS + " WHERE p.id > ? ORDER BY p.id LIMIT ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<Playlist> playlists = new ArrayList<>(limit);
+                while (rs.next()) {
+                    playlists.add(mapResultSetToPlaylist(rs));
+                }
+                return playlists;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de la récupération d'une page de playlists", e);
+        }
+    }
+
     public Optional<Playlist> findById(int id) {
-        String sql = "SELECT * FROM playlist WHERE id = ?";
+        String sql = SELECT_PLAYLISTS + " WHERE p.id = ?";
         
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -57,20 +83,43 @@ public class PlaylistDAO {
         return Optional.empty();
     }
 
+    /**
+     * Playlists d'un utilisateur avec tous leurs morceaux, en une seule requête ensembliste.
+     */
     public List<Playlist> findByUser(User user) {
-        String sql = "SELECT * FROM playlist WHERE user_id = ?";
-        
+        String sql = "SELECT p.id AS playlist_id, p.name AS playlist_name, " + TrackRowMapper.TRACK_COLUMNS + " " +
+                    "FROM playlist p " +
+                    "LEFT JOIN playlisttrack pt ON pt.playlist_id = p.id " +
+                    "LEFT JOIN track t ON t.id = pt.track_id " +
+                    "LEFT JOIN user u ON u.id = t.artist_id " +
+                    "WHERE p.user_id = ? ORDER BY p.id";
+
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
+
             stmt.setInt(1, user.getId());
-            ResultSet rs = stmt.executeQuery();
-            
-            List<Playlist> playlists = new ArrayList<>();
-            while (rs.next()) {
-                playlists.add(mapResultSetToPlaylist(rs));
+            try (ResultSet rs = stmt.executeQuery()) {
+                Map<Integer, Playlist> playlists = new LinkedHashMap<>();
+                Map<Integer, List<Track>> tracksByPlaylist = new HashMap<>();
+                while (rs.next()) {
+                    int playlistId = rs.getInt("playlist_id");
+                    playlists.computeIfAbsent(playlistId, id -> {
+                        try {
+                            return new Playlist(id, rs.getString("playlist_name"), user);
+                        } catch (SQLException e) {
+                            throw new RuntimeException(e);
+                        }
+                    });
+                    List<Track> tracks = tracksByPlaylist.computeIfAbsent(playlistId, id -> new ArrayList<>());
+                    // Playlist vide : la jointure externe renvoie une ligne sans track
+                    rs.getInt("id");
+                    if (!rs.wasNull()) {
+                        tracks.add(TrackRowMapper.mapTrack(rs));
+                    }
+                }
+                playlists.forEach((id, playlist) -> playlist.setTracks(tracksByPlaylist.get(id)));
+                return new ArrayList<>(playlists.values());
             }
-            return playlists;
         } catch (SQLException e) {
             throw new RuntimeException("Erreur lors de la récupération des playlists par utilisateur", e);
         }
@@ -165,6 +214,54 @@ public class PlaylistDAO {
         }
     }
 
+    /**
+     * Ajoute plusieurs tracks à une playlist en lots JDBC dans une seule transaction.
+     */
+    public void addTracksToPlaylist(int playlistId, Collection<Integer> trackIds) {
+        String sql = "INSERT IGNORE INTO playlisttrack (playlist_id, track_id) VALUES (?, ?)";
+
+        try {
+            Transactions.inTransaction(conn -> {
+                Transactions.executeBatched(conn, sql, trackIds, (stmt, trackId) -> {
+                    stmt.setInt(1, playlistId);
+                    stmt.setInt(2, trackId);
+                });
+                return null;
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de l'ajout des tracks à la playlist", e);
+        }
+    }
+
+    /**
+     * Applique un lot d'ajouts/retraits de tracks et de renommages dans une seule transaction.
+     */
+    public void applyChanges(Collection<TrackChange> trackChanges, Map<Integer, String> names) {
+        String insertSql = "INSERT IGNORE INTO playlisttrack (playlist_id, track_id) VALUES (?, ?)";
+        String deleteSql = "DELETE FROM playlisttrack WHERE playlist_id = ? AND track_id = ?";
+        String renameSql = "UPDATE playlist SET name = ? WHERE id = ?";
+        List<TrackChange> added = trackChanges.stream().filter(TrackChange::present).toList();
+        List<TrackChange> removed = trackChanges.stream().filter(change -> !change.present()).toList();
+
+        try {
+            Transactions.inTransaction(conn -> {
+                Transactions.Binder<TrackChange> binder = (stmt, change) -> {
+                    stmt.setInt(1, change.playlistId());
+                    stmt.setInt(2, change.trackId());
+                };
+                Transactions.executeBatched(conn, deleteSql, removed, binder);
+                Transactions.executeBatched(conn, insertSql, added, binder);
+                Transactions.executeBatched(conn, renameSql, names.entrySet(), (stmt, entry) -> {
+                    stmt.setString(1, entry.getValue());
+                    stmt.setInt(2, entry.getKey());
+                });
+                return null;
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de l'enregistrement des playlists", e);
+        }
+    }
+
     public void removeTrackFromPlaylist(int playlistId, int trackId) {
         String sql = "DELETE FROM playlisttrack WHERE playlist_id = ? AND track_id = ?";
         
@@ -180,7 +277,7 @@ public class PlaylistDAO {
     }
 
     public List<Track> getPlaylistTracks(int playlistId) {
-        String sql = "SELECT t.* FROM track t " +
+        String sql = TrackRowMapper.SELECT_TRACKS + " " +
                     "INNER JOIN playlisttrack pt ON t.id = pt.track_id " +
                     "WHERE pt.playlist_id = ?";
         
@@ -192,7 +289,7 @@ public class PlaylistDAO {
             
             List<Track> tracks = new ArrayList<>();
             while (rs.next()) {
-                tracks.add(mapResultSetToTrack(rs));
+                tracks.add(TrackRowMapper.mapTrack(rs));
             }
             return tracks;
         } catch (SQLException e) {
@@ -201,31 +298,12 @@ public class PlaylistDAO {
     }
 
     private Playlist mapResultSetToPlaylist(ResultSet rs) throws SQLException {
-        int userId = rs.getInt("user_id");
-        User user = userDAO.findById(userId)
-            .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé pour la playlist"));
-        
+        User user = TrackRowMapper.mapUser(rs, OWNER_PREFIX);
+
         return new Playlist(
             rs.getInt("id"),
             rs.getString("name"),
             user
         );
     }
-
-    private Track mapResultSetToTrack(ResultSet rs) throws SQLException {
-        int artistId = rs.getInt("artist_id");
-        User artist = userDAO.findById(artistId)
-            .orElseThrow(() -> new RuntimeException("Artiste non trouvé pour le track"));
-        
-        return new Track(
-            rs.getInt("id"),
-            rs.getString("title"),
-            artist,
-            rs.getString("album"),
-            java.time.Duration.ofSeconds(rs.getLong("duration")),
-            rs.getString("file_path"),
-            model.TrackStatus.valueOf(rs.getString("status")),
-            rs.getTimestamp("upload_date").toLocalDateTime()
-        );
-    }
 }
@@ -0,0 +1,54 @@
+package dao;
+
+import model.Playlist;
+import model.Track;
+import model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Stockage des playlists et de leur contenu. Implémenté par {@link PlaylistDAO} (MySQL) et par le
+ * stockage en mémoire.
+ */
+public interface PlaylistRepository {
+
+    List<Playlist> findAll();
+
+    /**
+     * Page de playlists triées par id, strictement après {@code afterId} (0 pour la première page).
+     */
+    List<Playlist> findPage(int afterId, int limit);
+
+    Optional<Playlist> findById(int id);
+
+    /**
+     * Playlists d'un utilisateur avec tous leurs morceaux.
+     */
+    List<Playlist> findByUser(User user);
+
+    /**
+     * Insère (id 0) ou renomme la playlist.
+     */
+    Playlist save(Playlist playlist);
+
+    void delete(int id);
+
+    void addTrackToPlaylist(int playlistId, int trackId);
+
+    void addTracksToPlaylist(int playlistId, Collection<Integer> trackIds);
+
+    /**
+     * Applique un lot d'ajouts/retraits de tracks et de renommages d'un seul tenant.
+     */
+    void applyChanges(Collection<TrackChange> trackChanges, Map<Integer, String> names);
+
+    void removeTrackFromPlaylist(int playlistId, int trackId);
+
+    List<Track> getPlaylistTracks(int playlistId);
+
+    record TrackChange(int playlistId, int trackId, boolean present) {
+    }
+}
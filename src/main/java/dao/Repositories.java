@@ -0,0 +1,35 @@
+package dao;
+
+import java.util.Locale;
+
+/**
+ * Les dépôts utilisés par l'application, choisis par la propriété {@code soundhub.storage} :
+ * {@code mysql} (par défaut) ou {@code memory}, stockage en mémoire du processus, vide au
+ * démarrage et sans serveur (tests, mesures, catalogue hors ligne).
+ */
+public record Repositories(UserRepository users,
+                           TrackRepository tracks,
+                           AlbumRepository albums,
+                           PlaylistRepository playlists,
+                           FavoriteRepository favorites,
+                           boolean embedded) {
+
+    public static Repositories fromConfiguration() {
+        String storage = System.getProperty("soundhub.storage", "mysql");
+        return switch (storage.toLowerCase(Locale.ROOT)) {
+            case "mysql" -> mysql();
+            case "memory" -> memory(new InMemoryStore());
+            default -> throw new IllegalArgumentException("Stockage inconnu : " + storage + " (mysql ou memory)");
+        };
+    }
+
+    public static Repositories mysql() {
+        return new Repositories(new UserDAO(), new TrackDAO(), new AlbumDAO(), new PlaylistDAO(), new FavoriteDAO(), false);
+    }
+
+    public static Repositories memory(InMemoryStore store) {
+        return new Repositories(new InMemoryUserRepository(store), new InMemoryTrackRepository(store),
+                new InMemoryAlbumRepository(store),
+                new InMemoryPlaylistRepository(store), new InMemoryFavoriteRepository(store), true);
+    }
+}
@@ -0,0 +1,236 @@
+package dao;
+
+import utils.DBConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Migrations du schéma, appliquées au démarrage dans l'ordre de leur version.
+ * <p>
+ * La table schema_version garde une ligne par migration appliquée. Un verrou nommé MySQL
+ * empêche deux instances de migrer en même temps. Le DDL MySQL valide implicitement : chaque
+ * migration vérifie ce qui existe déjà avant de le créer, pour pouvoir être rejouée après une
+ * interruption.
+ */
+public class SchemaMigrations {
+
+    private static final String LOCK_NAME = "soundhub_schema";
+    private static final int LOCK_TIMEOUT_SECONDS = 30;
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "table album et track.album_id", SchemaMigrations::createAlbums),
+            new Migration(2, "index des requêtes et unicité du nom d'utilisateur", SchemaMigrations::addIndexes)
+    );
+
+    /**
+     * Applique les migrations manquantes.
+     *
+     * @return les versions appliquées par cet appel (vide si le schéma était à jour)
+     */
+    public List<Integer> migrate() {
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INT(11) NOT NULL, " +
+                    "description VARCHAR(200) NOT NULL, " +
+                    "applied_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                    "PRIMARY KEY (version)" +
+                    ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci");
+
+            if (currentVersion(stmt) >= latestVersion()) {
+                return List.of();
+            }
+            acquireLock(conn);
+            try {
+                // Relu sous verrou : une autre instance a pu migrer entre-temps
+                int current = currentVersion(stmt);
+                List<Integer> applied = new ArrayList<>();
+                for (Migration migration : MIGRATIONS) {
+                    if (migration.version() <= current) {
+                        continue;
+                    }
+                    migration.step().apply(conn, stmt);
+                    try (PreparedStatement record = conn.prepareStatement(
+                            "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                        record.setInt(1, migration.version());
+                        record.setString(2, migration.description());
+                        record.executeUpdate();
+                    }
+                    System.out.println("Migration " + migration.version() + " appliquée : " + migration.description());
+                    applied.add(migration.version());
+                }
+                return applied;
+            } finally {
+                releaseLock(conn);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de la migration du schéma", e);
+        }
+    }
+
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+    }
+
+    private static int currentVersion(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Verrou de migration indisponible après " + LOCK_TIMEOUT_SECONDS + " s");
+                }
+            }
+        }
+    }
+
+    private static void releaseLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        }
+    }
+
+    /**
+     * V1 : albums de première classe (voir AlbumDAO), puis rattachement des tracks existants.
+     */
+    private static void createAlbums(Connection conn, Statement stmt) throws SQLException {
+        stmt.execute("CREATE TABLE IF NOT EXISTS album (" +
+                "id INT(11) NOT NULL AUTO_INCREMENT, " +
+                "artist_id INT(11) NOT NULL, " +
+                "title VARCHAR(100) NOT NULL, " +
+                "track_count INT(11) NOT NULL DEFAULT 0, " +
+                "total_duration FLOAT NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (id), " +
+                "UNIQUE KEY uk_album_artist_title (artist_id, title), " +
+                "KEY idx_album_title (title), " +
+                "KEY idx_album_popularity (track_count), " +
+                "CONSTRAINT fk_album_artist FOREIGN KEY (artist_id) REFERENCES user (id) ON DELETE CASCADE" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci");
+
+        // Une modification par ALTER et des UPDATE sans jointure : la migration passe aussi sur H2 (tests)
+        if (!hasColumn(conn, "track", "album_id")) {
+            stmt.execute("ALTER TABLE track ADD COLUMN album_id INT(11) NULL AFTER album");
+        }
+        addIndex(conn, stmt, "track", "idx_track_album", "KEY idx_track_album (album_id)");
+        if (!hasForeignKey(conn, "track", "fk_track_album")) {
+            stmt.execute("ALTER TABLE track ADD CONSTRAINT fk_track_album FOREIGN KEY (album_id) REFERENCES album (id) ON DELETE SET NULL");
+        }
+
+        stmt.executeUpdate("INSERT IGNORE INTO album (artist_id, title) " +
+                "SELECT DISTINCT artist_id, album FROM track WHERE album IS NOT NULL AND album <> ''");
+        stmt.executeUpdate("UPDATE track SET album_id = " +
+                "(SELECT a.id FROM album a WHERE a.artist_id = track.artist_id AND a.title = track.album) " +
+                "WHERE album_id IS NULL AND album IS NOT NULL AND album <> ''");
+        stmt.executeUpdate(AlbumDAO.REFRESH_ALL_SQL);
+    }
+
+    /**
+     * V2 : index calqués sur les requêtes des DAOs, et unicité en base du nom d'utilisateur ; l'email
+     * est déjà unique (clé {@code email} de soundhub.sql). L'inscription devient une simple insertion,
+     * voir UserDAO.insert.
+     */
+    private static void addIndexes(Connection conn, Statement stmt) throws SQLException {
+        // findByStatus (file de modération), dans l'ordre d'envoi
+        addIndex(conn, stmt, "track", "idx_track_status_upload", "KEY idx_track_status_upload (status, upload_date)");
+        // findByArtist et file d'un artiste par statut
+        addIndex(conn, stmt, "track", "idx_track_artist_status", "KEY idx_track_artist_status (artist_id, status, album_id, duration)");
+        // Tris et filtres par date d'envoi, tous statuts confondus
+        addIndex(conn, stmt, "track", "idx_track_upload_date", "KEY idx_track_upload_date (upload_date)");
+        // Comptage des comptes en attente
+        addIndex(conn, stmt, "user", "idx_user_status", "KEY idx_user_status (status)");
+
+        // findByEmailOrUsername : union des deux index uniques au lieu d'un parcours de la table.
+        // Déjà présents dans soundhub.sql : ajoutés seulement aux bases créées par un dump plus ancien
+        addUniqueKey(conn, stmt, "email", "email");
+        addUniqueKey(conn, stmt, "username", "uk_user_username");
+    }
+
+    // Les noms de clés sont ceux que UserDAO reconnaît dans les erreurs de doublon
+    private static void addUniqueKey(Connection conn, Statement stmt, String column, String key) throws SQLException {
+        if (!hasUniqueIndexOn(conn, "user", column)) {
+            requireNoDuplicates(stmt, column);
+            stmt.execute("ALTER TABLE user ADD UNIQUE KEY " + key + " (" + column + ")");
+        }
+    }
+
+    private static void addIndex(Connection conn, Statement stmt, String table, String index, String definition) throws SQLException {
+        if (!hasIndex(conn, table, index)) {
+            stmt.execute("ALTER TABLE " + table + " ADD " + definition);
+        }
+    }
+
+    private static void requireNoDuplicates(Statement stmt, String column) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT " + column + ", COUNT(*) FROM user " +
+                "GROUP BY " + column + " HAVING COUNT(*) > 1 LIMIT 5")) {
+            List<String> duplicates = new ArrayList<>();
+            while (rs.next()) {
+                duplicates.add(rs.getString(1) + " (" + rs.getInt(2) + ")");
+            }
+            if (!duplicates.isEmpty()) {
+                throw new SQLException("Doublons de user." + column + " à corriger avant la migration : " + duplicates);
+            }
+        }
+    }
+
+    private static boolean hasColumn(Connection conn, String table, String column) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, table, column)) {
+            return rs.next();
+        }
+    }
+
+    private static boolean hasForeignKey(Connection conn, String table, String name) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getImportedKeys(conn.getCatalog(), null, table)) {
+            while (rs.next()) {
+                if (name.equalsIgnoreCase(rs.getString("FK_NAME"))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Index unique portant sur cette seule colonne, quel que soit son nom
+    private static boolean hasUniqueIndexOn(Connection conn, String table, String column) throws SQLException {
+        Map<String, List<String>> columnsByIndex = new HashMap<>();
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(conn.getCatalog(), null, table, true, true)) {
+            while (rs.next()) {
+                if (rs.getString("INDEX_NAME") != null) {
+                    columnsByIndex.computeIfAbsent(rs.getString("INDEX_NAME"), name -> new ArrayList<>()).add(rs.getString("COLUMN_NAME"));
+                }
+            }
+        }
+        return columnsByIndex.values().stream()
+                .anyMatch(columns -> columns.size() == 1 && column.equalsIgnoreCase(columns.get(0)));
+    }
+
+    private static boolean hasIndex(Connection conn, String table, String index) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(conn.getCatalog(), null, table, false, true)) {
+            while (rs.next()) {
+                if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private record Migration(int version, String description, Step step) {
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void apply(Connection conn, Statement stmt) throws SQLException;
+    }
+}
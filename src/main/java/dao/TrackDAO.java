@@ -6,30 +6,43 @@ import model.User;
 import utils.DBConnection;
 
 import java.sql.*;
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class TrackDAO {
+public class TrackDAO implements TrackRepository {
 
-    private final UserDAO userDAO;
-
-    public TrackDAO(UserDAO userDAO) {
-        this.userDAO = userDAO;
-    }
+    // album_id est résolu en base depuis (artiste, titre d'album) : AlbumDAO.ensureAlbums crée l'album avant
+    private static final String INSERT_SQL = "INSERT INTO track (title, artist_id, album, album_id, duration, file_path, status, upload_date) " +
+            "VALUES (?, ?, ?, (SELECT id FROM album WHERE artist_id = ? AND title = ?), ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE track SET title = ?, album = ?, status = ?, " +
+            "album_id = (SELECT a.id FROM album a WHERE a.artist_id = track.artist_id AND a.title = ?) WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM track WHERE id = ?";
+    // Connector/J ne lit en flux (une ligne à la fois) qu'avec Integer.MIN_VALUE ; les autres pilotes
+    // (H2 dans les tests) refusent une taille négative et lisent par lots de cette taille
+    private static final int MYSQL_STREAM_FETCH_SIZE = Integer.MIN_VALUE;
+    private static final int STREAM_FETCH_SIZE = 1_000;
 
     public List<Track> findAll() {
         List<Track> tracks = new ArrayList<>();
-        String sql = "SELECT * FROM track";
+        String sql = TrackRowMapper.SELECT_TRACKS;
         
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
-                tracks.add(mapResultSetToTrack(rs));
+                tracks.add(TrackRowMapper.mapTrack(rs));
             }
         } catch (SQLException e) {
             throw new RuntimeException("Erreur lors de la récupération des tracks", e);
@@ -38,8 +51,94 @@ public class TrackDAO {
         return tracks;
     }
 
+    /**
+     * Page de tracks triés par id, strictement après {@code afterId} (0 pour la première page).
+     * La pagination par clé reste en temps constant quelle que soit la profondeur de la page.
+     */
+    public List<Track> findPage(int afterId, int limit) {
+        String sql = TrackRowMapper.SELECT_TRACKS + " WHERE t.id > ? ORDER BY t.id LIMIT ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<Track> tracks = new ArrayList<>(limit);
+                while (rs.next()) {
+                    tracks.add(TrackRowMapper.mapTrack(rs));
+                }
+                return tracks;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de la récupération d'une page de tracks", e);
+        }
+    }
+
+    /**
+     * Parcourt tout le catalogue ligne par ligne sans le charger en mémoire.
+     */
+    public void forEach(Consumer<Track> action) {
+        try (Stream<Track> stream = streamAll()) {
+            stream.forEach(action);
+        }
+    }
+
+    /**
+     * Flux de tous les tracks adossé à un ResultSet en lecture seule et avance seule.
+     * Le flux garde une connexion empruntée : il doit être fermé (try-with-resources).
+     */
+    public Stream<Track> streamAll() {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = DBConnection.getConnection();
+            stmt = conn.prepareStatement(TrackRowMapper.SELECT_TRACKS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize("MySQL".equals(conn.getMetaData().getDatabaseProductName())
+                    ? MYSQL_STREAM_FETCH_SIZE : STREAM_FETCH_SIZE);
+            rs = stmt.executeQuery();
+        } catch (SQLException e) {
+            closeQuietly(rs, stmt, conn);
+            throw new RuntimeException("Erreur lors de l'ouverture du flux de tracks", e);
+        }
+
+        ResultSet cursor = rs;
+        Spliterator<Track> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Track> action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    action.accept(TrackRowMapper.mapTrack(cursor));
+                    return true;
+                } catch (SQLException e) {
+                    throw new RuntimeException("Erreur lors de la lecture du flux de tracks", e);
+                }
+            }
+        };
+        AutoCloseable[] resources = {rs, stmt, conn};
+        return StreamSupport.stream(spliterator, false).onClose(() -> closeQuietly(resources));
+    }
+
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                System.err.println("Erreur lors de la fermeture du flux de tracks: " + e.getMessage());
+            }
+        }
+    }
+
     public Optional<Track> findById(int id) {
-        String sql = "SELECT * FROM track WHERE id = ?";
+        String sql = TrackRowMapper.SELECT_TRACKS + " WHERE t.id = ?";
         
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -48,7 +147,7 @@ public class TrackDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return Optional.of(mapResultSetToTrack(rs));
+                return Optional.of(TrackRowMapper.mapTrack(rs));
             }
         } catch (SQLException e) {
             throw new RuntimeException("Erreur lors de la récupération du track", e);
@@ -58,7 +157,7 @@ public class TrackDAO {
     }
 
     public List<Track> findByStatus(TrackStatus status) {
-        String sql = "SELECT * FROM track WHERE status = ?";
+        String sql = TrackRowMapper.SELECT_TRACKS + " WHERE t.status = ?";
         
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -68,7 +167,7 @@ public class TrackDAO {
             
             List<Track> tracks = new ArrayList<>();
             while (rs.next()) {
-                tracks.add(mapResultSetToTrack(rs));
+                tracks.add(TrackRowMapper.mapTrack(rs));
             }
             return tracks;
         } catch (SQLException e) {
@@ -77,7 +176,7 @@ public class TrackDAO {
     }
 
     public List<Track> findByArtist(User artist) {
-        String sql = "SELECT * FROM track WHERE artist_id = ?";
+        String sql = TrackRowMapper.SELECT_TRACKS + " WHERE t.artist_id = ?";
         
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -87,7 +186,7 @@ public class TrackDAO {
             
             List<Track> tracks = new ArrayList<>();
             while (rs.next()) {
-                tracks.add(mapResultSetToTrack(rs));
+                tracks.add(TrackRowMapper.mapTrack(rs));
             }
             return tracks;
         } catch (SQLException e) {
@@ -103,88 +202,251 @@ public class TrackDAO {
         }
     }
 
-    private Track insert(Track track) {
-        String sql = "INSERT INTO track (title, artist_id, album, duration, file_path, status, upload_date) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            stmt.setString(1, track.getTitle());
-            stmt.setInt(2, track.getArtist().getId());
-            stmt.setString(3, track.getAlbum());
-            stmt.setLong(4, track.getDuration().toSeconds());
-            stmt.setString(5, track.getFilePath());
-            stmt.setString(6, track.getStatus().name());
-            stmt.setTimestamp(7, Timestamp.valueOf(track.getUploadDate()));
-            
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Échec de la création du track");
-            }
-            
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    int id = generatedKeys.getInt(1);
-                    return new Track(id, track.getTitle(), track.getArtist(), track.getAlbum(),
-                                   track.getDuration(), track.getFilePath(), track.getStatus(), track.getUploadDate());
-                } else {
+    /**
+     * Insère ou met à jour plusieurs tracks en lots JDBC dans une seule transaction.
+     * La liste retournée suit l'ordre d'entrée, les nouveaux tracks portant leur id généré.
+     */
+    public List<Track> saveAll(Collection<Track> tracks) {
+        List<Track> input = new ArrayList<>(tracks);
+        Track[] saved = new Track[input.size()];
+        List<Track> inserts = new ArrayList<>();
+        List<Track> updates = new ArrayList<>();
+        for (Track track : input) {
+            (track.getId() == 0 ? inserts : updates).add(track);
+        }
+
+        try {
+            Transactions.inTransaction(conn -> {
+                AlbumDAO.ensureAlbums(conn, input);
+                Map<Integer, StoredAlbum> before = storedAlbums(conn, trackIds(updates));
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    List<Integer> pending = new ArrayList<>();
+                    for (int i = 0; i < input.size(); i++) {
+                        Track track = input.get(i);
+                        if (track.getId() != 0) {
+                            saved[i] = track;
+                            continue;
+                        }
+                        bindInsert(stmt, track);
+                        stmt.addBatch();
+                        pending.add(i);
+                        if (pending.size() == Transactions.BATCH_SIZE) {
+                            flushInserts(stmt, input, pending, saved);
+                        }
+                    }
+                    flushInserts(stmt, input, pending, saved);
+                }
+                Transactions.executeBatched(conn, UPDATE_SQL, updates, this::bindUpdate);
+                AlbumDAO.refreshJoinedAlbums(conn, inserts);
+                refreshChangedAlbums(conn, before, updates);
+                return null;
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de l'enregistrement des tracks", e);
+        }
+
+        List<Track> result = new ArrayList<>(saved.length);
+        for (Track track : saved) {
+            result.add(EntityCache.tracks().merge(track.getId(), track));
+        }
+        return result;
+    }
+
+    private void flushInserts(PreparedStatement stmt, List<Track> input, List<Integer> pending, Track[] saved) throws SQLException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        stmt.executeBatch();
+        // Les clés générées sont renvoyées dans l'ordre des lignes du lot
+        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+            for (int index : pending) {
+                if (!generatedKeys.next()) {
                     throw new SQLException("Échec de la création du track, aucun ID généré");
                 }
+                Track track = input.get(index);
+                int id = generatedKeys.getInt(1);
+                saved[index] = new Track(id, track.getTitle(), track.getArtist(), track.getAlbum(),
+                        track.getDuration(), track.getFilePath(), track.getStatus(), track.getUploadDate());
             }
+        }
+        pending.clear();
+    }
+
+    private Track insert(Track track) {
+        try {
+            int id = Transactions.inTransaction(conn -> {
+                AlbumDAO.ensureAlbums(conn, List.of(track));
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+
+                    bindInsert(stmt, track);
+
+                    int affectedRows = stmt.executeUpdate();
+                    if (affectedRows == 0) {
+                        throw new SQLException("Échec de la création du track");
+                    }
+
+                    try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                        if (!generatedKeys.next()) {
+                            throw new SQLException("Échec de la création du track, aucun ID généré");
+                        }
+                        AlbumDAO.refreshJoinedAlbums(conn, List.of(track));
+                        return generatedKeys.getInt(1);
+                    }
+                }
+            });
+            return EntityCache.tracks().merge(id, new Track(id, track.getTitle(), track.getArtist(), track.getAlbum(),
+                           track.getDuration(), track.getFilePath(), track.getStatus(), track.getUploadDate()));
         } catch (SQLException e) {
             throw new RuntimeException("Erreur lors de la création du track", e);
         }
     }
 
     private Track update(Track track) {
-        String sql = "UPDATE track SET title = ?, album = ?, status = ? WHERE id = ?";
-        
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, track.getTitle());
-            stmt.setString(2, track.getAlbum());
-            stmt.setString(3, track.getStatus().name());
-            stmt.setInt(4, track.getId());
-            
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Track non trouvé pour la mise à jour");
-            }
-            
-            return track;
+        try {
+            Transactions.inTransaction(conn -> {
+                AlbumDAO.ensureAlbums(conn, List.of(track));
+                Map<Integer, StoredAlbum> before = storedAlbums(conn, List.of(track.getId()));
+                try (PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+
+                    bindUpdate(stmt, track);
+
+                    int affectedRows = stmt.executeUpdate();
+                    if (affectedRows == 0) {
+                        throw new SQLException("Track non trouvé pour la mise à jour");
+                    }
+                }
+                refreshChangedAlbums(conn, before, List.of(track));
+                return null;
+            });
+            return EntityCache.tracks().merge(track.getId(), track);
         } catch (SQLException e) {
             throw new RuntimeException("Erreur lors de la mise à jour du track", e);
         }
     }
 
+    private void bindInsert(PreparedStatement stmt, Track track) throws SQLException {
+        stmt.setString(1, track.getTitle());
+        stmt.setInt(2, track.getArtist().getId());
+        stmt.setString(3, track.getAlbum());
+        stmt.setInt(4, track.getArtist().getId());
+        stmt.setString(5, track.getAlbum());
+        stmt.setDouble(6, track.getDuration().toMillis() / 1000d);
+        stmt.setString(7, track.getFilePath());
+        stmt.setString(8, track.getStatus().name());
+        stmt.setTimestamp(9, Timestamp.valueOf(track.getUploadDate()));
+    }
+
+    private void bindUpdate(PreparedStatement stmt, Track track) throws SQLException {
+        stmt.setString(1, track.getTitle());
+        stmt.setString(2, track.getAlbum());
+        stmt.setString(3, track.getStatus().name());
+        stmt.setString(4, track.getAlbum());
+        stmt.setInt(5, track.getId());
+    }
+
     public void delete(int id) {
-        String sql = "DELETE FROM track WHERE id = ?";
-        
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
+        deleteAll(List.of(id));
+    }
+
+    public void deleteAll(Collection<Integer> ids) {
+        try {
+            Transactions.inTransaction(conn -> {
+                // Albums relevés avant suppression pour recalculer ensuite ceux qui perdent un titre approuvé
+                List<Integer> albumIds = new ArrayList<>();
+                for (List<Integer> chunk : chunks(ids)) {
+                    try (PreparedStatement stmt = conn.prepareStatement("SELECT DISTINCT album_id FROM track WHERE id IN ("
+                            + placeholders(chunk.size()) + ") AND status = 'APPROVED' AND album_id IS NOT NULL")) {
+                        bindIds(stmt, chunk);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                albumIds.add(rs.getInt(1));
+                            }
+                        }
+                    }
+                }
+                Transactions.executeBatched(conn, DELETE_SQL, ids, (stmt, id) -> stmt.setInt(1, id));
+                AlbumDAO.refreshAggregates(conn, albumIds);
+                return null;
+            });
         } catch (SQLException e) {
-            throw new RuntimeException("Erreur lors de la suppression du track", e);
+            throw new RuntimeException("Erreur lors de la suppression des tracks", e);
         }
+        ids.forEach(EntityCache.tracks()::invalidate);
     }
 
-    private Track mapResultSetToTrack(ResultSet rs) throws SQLException {
-        int artistId = rs.getInt("artist_id");
-        User artist = userDAO.findById(artistId)
-            .orElseThrow(() -> new RuntimeException("Artiste non trouvé pour le track"));
-        
-        return new Track(
-            rs.getInt("id"),
-            rs.getString("title"),
-            artist,
-            rs.getString("album"),
-            Duration.ofSeconds(rs.getLong("duration")),
-            rs.getString("file_path"),
-            TrackStatus.valueOf(rs.getString("status")),
-            rs.getTimestamp("upload_date").toLocalDateTime()
-        );
+    // Album et statut en base de tracks sur le point d'être modifiés
+    private static Map<Integer, StoredAlbum> storedAlbums(Connection conn, Collection<Integer> ids) throws SQLException {
+        Map<Integer, StoredAlbum> stored = new HashMap<>();
+        for (List<Integer> chunk : chunks(ids)) {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT id, album_id, album, status FROM track WHERE id IN ("
+                    + placeholders(chunk.size()) + ")")) {
+                bindIds(stmt, chunk);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        int albumId = rs.getInt("album_id");
+                        stored.put(rs.getInt("id"), new StoredAlbum(rs.wasNull() ? null : albumId,
+                                rs.getString("album"), TrackStatus.valueOf(rs.getString("status"))));
+                    }
+                }
+            }
+        }
+        return stored;
+    }
+
+    // Seuls un changement d'album ou de statut touchent les agrégats : l'album quitté et l'album rejoint
+    private static void refreshChangedAlbums(Connection conn, Map<Integer, StoredAlbum> before, Collection<Track> updated) throws SQLException {
+        List<Integer> left = new ArrayList<>();
+        List<Track> joined = new ArrayList<>();
+        for (Track track : updated) {
+            StoredAlbum previous = before.get(track.getId());
+            if (previous == null) {
+                continue;
+            }
+            boolean albumChanged = !Objects.equals(previous.album(), track.getAlbum());
+            if (!albumChanged && previous.status() == track.getStatus()) {
+                continue;
+            }
+            if (previous.albumId() != null && (!albumChanged || previous.status() == TrackStatus.APPROVED)) {
+                left.add(previous.albumId());
+            }
+            if (albumChanged) {
+                joined.add(track);
+            }
+        }
+        AlbumDAO.refreshAggregates(conn, left);
+        AlbumDAO.refreshJoinedAlbums(conn, joined);
+    }
+
+    private static List<List<Integer>> chunks(Collection<Integer> ids) {
+        List<Integer> all = new ArrayList<>(ids);
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += Transactions.BATCH_SIZE) {
+            chunks.add(all.subList(from, Math.min(from + Transactions.BATCH_SIZE, all.size())));
+        }
+        return chunks;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static void bindIds(PreparedStatement stmt, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            stmt.setInt(i + 1, ids.get(i));
+        }
+    }
+
+    private static List<Integer> trackIds(Collection<Track> tracks) {
+        List<Integer> ids = new ArrayList<>(tracks.size());
+        for (Track track : tracks) {
+            ids.add(track.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * album_id, titre d'album et statut d'un track tels qu'en base avant une mise à jour.
+     */
+    private record StoredAlbum(Integer albumId, String album, TrackStatus status) {
     }
 }
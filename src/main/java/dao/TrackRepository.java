@@ -0,0 +1,55 @@
+package dao;
+
+import model.Track;
+import model.TrackStatus;
+import model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Stockage des tracks. Implémenté par {@link TrackDAO} (MySQL) et par le stockage en mémoire.
+ */
+public interface TrackRepository {
+
+    List<Track> findAll();
+
+    /**
+     * Page de tracks triés par id, strictement après {@code afterId} (0 pour la première page).
+     */
+    List<Track> findPage(int afterId, int limit);
+
+    /**
+     * Parcourt tout le catalogue sans le charger en mémoire.
+     */
+    void forEach(Consumer<Track> action);
+
+    /**
+     * Flux de tous les tracks ; il doit être fermé (try-with-resources).
+     */
+    Stream<Track> streamAll();
+
+    Optional<Track> findById(int id);
+
+    List<Track> findByStatus(TrackStatus status);
+
+    List<Track> findByArtist(User artist);
+
+    /**
+     * Insère (id 0) ou met à jour le track.
+     */
+    Track save(Track track);
+
+    /**
+     * Insère ou met à jour plusieurs tracks d'un coup.
+     * La liste retournée suit l'ordre d'entrée, les nouveaux tracks portant leur id généré.
+     */
+    List<Track> saveAll(Collection<Track> tracks);
+
+    void delete(int id);
+
+    void deleteAll(Collection<Integer> ids);
+}
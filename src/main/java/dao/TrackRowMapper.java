@@ -0,0 +1,67 @@
+package dao;
+
+import model.Role;
+import model.Track;
+import model.TrackStatus;
+import model.User;
+import model.UserStatus;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Construit un Track et son artiste à partir d'une seule ligne de résultat.
+ * Les requêtes de chargement partent de {@link #SELECT_TRACKS} pour ramener l'artiste par jointure
+ * au lieu d'un findById par ligne. Les entités passent par {@link EntityCache} pour partager
+ * une seule instance par id.
+ */
+final class TrackRowMapper {
+
+    static final String ARTIST_PREFIX = "artist_";
+
+    /**
+     * Colonnes lues par {@link #mapTrack}, le track étant aliasé "t" et son artiste "u".
+     */
+    static final String TRACK_COLUMNS =
+            "t.id, t.title, t.album, t.duration, t.file_path, t.status, t.upload_date, " +
+            "u.id AS artist_id, u.username AS artist_username, u.email AS artist_email, " +
+            "u.password_hash AS artist_password_hash, u.role AS artist_role, u.status AS artist_status";
+
+    static final String SELECT_TRACKS =
+            "SELECT " + TRACK_COLUMNS + " FROM track t INNER JOIN user u ON u.id = t.artist_id";
+
+    private TrackRowMapper() {
+    }
+
+    static Track mapTrack(ResultSet rs) throws SQLException {
+        User artist = mapUser(rs, ARTIST_PREFIX);
+        Track track = new Track(
+            rs.getInt("id"),
+            rs.getString("title"),
+            artist,
+            rs.getString("album"),
+            // Colonne FLOAT : les fractions de seconde mesurées à l'envoi (voir AudioProbe) sont conservées
+            Duration.ofMillis(Math.round(rs.getDouble("duration") * 1000)),
+            rs.getString("file_path"),
+            TrackStatus.valueOf(rs.getString("status")),
+            rs.getTimestamp("upload_date").toLocalDateTime()
+        );
+        return EntityCache.tracks().merge(track.getId(), track);
+    }
+
+    /**
+     * Lit les colonnes d'un utilisateur, éventuellement aliasées avec un préfixe (ex. "artist_id").
+     */
+    static User mapUser(ResultSet rs, String prefix) throws SQLException {
+        User user = new User(
+            rs.getInt(prefix + "id"),
+            rs.getString(prefix + "username"),
+            rs.getString(prefix + "email"),
+            rs.getString(prefix + "password_hash"),
+            Role.valueOf(rs.getString(prefix + "role")),
+            UserStatus.valueOf(rs.getString(prefix + "status"))
+        );
+        return EntityCache.users().merge(user.getId(), user);
+    }
+}
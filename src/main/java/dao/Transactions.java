@@ -0,0 +1,67 @@
+package dao;
+
+import utils.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Exécute plusieurs instructions sur une même connexion dans une seule transaction.
+ */
+final class Transactions {
+
+    /**
+     * Nombre de lignes envoyées par executeBatch() ; le driver réécrit chaque lot en requêtes multi-lignes.
+     */
+    static final int BATCH_SIZE = 1000;
+
+    private Transactions() {
+    }
+
+    static <T> T inTransaction(Work<T> work) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                T result = work.run(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Exécute la même instruction pour chaque élément, par lots de {@link #BATCH_SIZE}.
+     */
+    static <T> void executeBatched(Connection conn, String sql, Iterable<T> rows, Binder<T> binder) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int pending = 0;
+            for (T row : rows) {
+                binder.bind(stmt, row);
+                stmt.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    stmt.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                stmt.executeBatch();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface Binder<T> {
+        void bind(PreparedStatement stmt, T row) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface Work<T> {
+        T run(Connection conn) throws SQLException;
+    }
+}
@@ -1,16 +1,30 @@
 package dao;
 
-import model.Role;
 import model.User;
-import model.UserStatus;
 import utils.DBConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
-public class UserDAO {
+public class UserDAO implements UserRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO user (username, email, password_hash, role, status) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE user SET username = ?, email = ?, role = ?, status = ? WHERE id = ?";
+
+    // Index uniques de la table user (soundhub.sql et migration 2)
+    private static final String EMAIL_KEY = "email";
+    private static final String USERNAME_KEY = "uk_user_username";
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+    private static final String UNIQUE_VIOLATION_STATE = "23505";
+    // MySQL : "Duplicate entry '...' for key 'user.email'" (ou 'email' avant 8.0.19)
+    private static final Pattern MYSQL_KEY = Pattern.compile("for key '(?:[^']*\\.)?([^'.]+)'");
+    // H2 (tests) : "public.email_INDEX_3 ON public.user(...)"
+    private static final Pattern STANDARD_KEY = Pattern.compile("\"(?:\\w+\\.)?(\\w+?)(?:_INDEX_\\w+)? ON ");
 
     public List<User> findAll() {
         List<User> users = new ArrayList<>();
@@ -30,6 +44,29 @@ public class UserDAO {
         return users;
     }
 
+    /**
+     * Page d'utilisateurs triés par id, strictement après {@code afterId} (0 pour la première page).
+     */
+    public List<User> findPage(int afterId, int limit) {
+        String sql = "SELECT * FROM user WHERE id > ? ORDER BY id LIMIT ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<User> users = new ArrayList<>(limit);
+                while (rs.next()) {
+                    users.add(mapResultSetToUser(rs));
+                }
+                return users;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de la récupération d'une page d'utilisateurs", e);
+        }
+    }
+
     public Optional<User> findById(int id) {
         String sql = "SELECT * FROM user WHERE id = ?";
         
@@ -49,23 +86,27 @@ public class UserDAO {
         return Optional.empty();
     }
 
+    /**
+     * Union de deux lectures par index unique (email, nom d'utilisateur) : un OR sur deux colonnes
+     * ferait parcourir toute la table.
+     */
     public Optional<User> findByEmailOrUsername(String login) {
-        String sql = "SELECT * FROM user WHERE email = ? OR username = ?";
-        
+        String sql = "SELECT * FROM user WHERE email = ? UNION SELECT * FROM user WHERE username = ?";
+
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
+
             stmt.setString(1, login);
             stmt.setString(2, login);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                return Optional.of(mapResultSetToUser(rs));
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapResultSetToUser(rs));
+                }
             }
         } catch (SQLException e) {
             throw new RuntimeException("Erreur lors de la recherche de l'utilisateur", e);
         }
-        
+
         return Optional.empty();
     }
 
@@ -77,17 +118,74 @@ public class UserDAO {
         }
     }
 
+    /**
+     * Insère ou met à jour plusieurs utilisateurs en lots JDBC dans une seule transaction.
+     * La liste retournée suit l'ordre d'entrée, les nouveaux utilisateurs portant leur id généré.
+     */
+    public List<User> saveAll(Collection<User> users) {
+        List<User> input = new ArrayList<>(users);
+        User[] saved = new User[input.size()];
+        List<User> updates = new ArrayList<>();
+
+        try {
+            Transactions.inTransaction(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    List<Integer> pending = new ArrayList<>();
+                    for (int i = 0; i < input.size(); i++) {
+                        User user = input.get(i);
+                        if (user.getId() != 0) {
+                            updates.add(user);
+                            saved[i] = user;
+                            continue;
+                        }
+                        bindInsert(stmt, user);
+                        stmt.addBatch();
+                        pending.add(i);
+                        if (pending.size() == Transactions.BATCH_SIZE) {
+                            flushInserts(stmt, input, pending, saved);
+                        }
+                    }
+                    flushInserts(stmt, input, pending, saved);
+                }
+                Transactions.executeBatched(conn, UPDATE_SQL, updates, this::bindUpdate);
+                return null;
+            });
+        } catch (SQLException e) {
+            throw duplicateOr(e, "Erreur lors de l'enregistrement des utilisateurs");
+        }
+
+        List<User> result = new ArrayList<>(saved.length);
+        for (User user : saved) {
+            result.add(EntityCache.users().merge(user.getId(), user));
+        }
+        return result;
+    }
+
+    private void flushInserts(PreparedStatement stmt, List<User> input, List<Integer> pending, User[] saved) throws SQLException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        stmt.executeBatch();
+        // Les clés générées sont renvoyées dans l'ordre des lignes du lot
+        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+            for (int index : pending) {
+                if (!generatedKeys.next()) {
+                    throw new SQLException("Échec de la création de l'utilisateur, aucun ID généré");
+                }
+                User user = input.get(index);
+                int id = generatedKeys.getInt(1);
+                saved[index] = new User(id, user.getUsername(), user.getEmail(),
+                        user.getPasswordHash(), user.getRole(), user.getStatus());
+            }
+        }
+        pending.clear();
+    }
+
     private User insert(User user) {
-        String sql = "INSERT INTO user (username, email, password_hash, role, status) VALUES (?, ?, ?, ?, ?)";
-        
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             
-            stmt.setString(1, user.getUsername());
-            stmt.setString(2, user.getEmail());
-            stmt.setString(3, user.getPasswordHash());
-            stmt.setString(4, user.getRole().name());
-            stmt.setString(5, user.getStatus().name());
+            bindInsert(stmt, user);
             
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
@@ -97,38 +195,71 @@ public class UserDAO {
             try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
                     int id = generatedKeys.getInt(1);
-                    return new User(id, user.getUsername(), user.getEmail(), 
-                                  user.getPasswordHash(), user.getRole(), user.getStatus());
+                    return EntityCache.users().merge(id, new User(id, user.getUsername(), user.getEmail(), 
+                                  user.getPasswordHash(), user.getRole(), user.getStatus()));
                 } else {
                     throw new SQLException("Échec de la création de l'utilisateur, aucun ID généré");
                 }
             }
         } catch (SQLException e) {
-            throw new RuntimeException("Erreur lors de la création de l'utilisateur", e);
+            // Index uniques : le conflit est détecté par l'insertion elle-même
+            throw duplicateOr(e, "Erreur lors de la création de l'utilisateur");
         }
     }
 
     private User update(User user) {
-        String sql = "UPDATE user SET username = ?, email = ?, role = ?, status = ? WHERE id = ?";
-        
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
             
-            stmt.setString(1, user.getUsername());
-            stmt.setString(2, user.getEmail());
-            stmt.setString(3, user.getRole().name());
-            stmt.setString(4, user.getStatus().name());
-            stmt.setInt(5, user.getId());
+            bindUpdate(stmt, user);
             
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
                 throw new SQLException("Utilisateur non trouvé pour la mise à jour");
             }
             
-            return user;
+            return EntityCache.users().merge(user.getId(), user);
         } catch (SQLException e) {
-            throw new RuntimeException("Erreur lors de la mise à jour de l'utilisateur", e);
+            throw duplicateOr(e, "Erreur lors de la mise à jour de l'utilisateur");
+        }
+    }
+
+    /**
+     * DuplicateUserException si {@code e} signale un doublon sur l'email ou le nom d'utilisateur
+     * (code 1062 de MySQL, ou état SQL 23505), sinon une RuntimeException avec {@code message}.
+     */
+    static RuntimeException duplicateOr(SQLException e, String message) {
+        Matcher key = null;
+        if (e.getErrorCode() == MYSQL_DUPLICATE_ENTRY) {
+            key = MYSQL_KEY.matcher(String.valueOf(e.getMessage()));
+        } else if (UNIQUE_VIOLATION_STATE.equals(e.getSQLState())) {
+            key = STANDARD_KEY.matcher(String.valueOf(e.getMessage()));
+        }
+        if (key != null && key.find()) {
+            if (EMAIL_KEY.equalsIgnoreCase(key.group(1))) {
+                return new DuplicateUserException(DuplicateUserException.Field.EMAIL, e);
+            }
+            if (USERNAME_KEY.equalsIgnoreCase(key.group(1))) {
+                return new DuplicateUserException(DuplicateUserException.Field.USERNAME, e);
+            }
         }
+        return new RuntimeException(message, e);
+    }
+
+    private void bindInsert(PreparedStatement stmt, User user) throws SQLException {
+        stmt.setString(1, user.getUsername());
+        stmt.setString(2, user.getEmail());
+        stmt.setString(3, user.getPasswordHash());
+        stmt.setString(4, user.getRole().name());
+        stmt.setString(5, user.getStatus().name());
+    }
+
+    private void bindUpdate(PreparedStatement stmt, User user) throws SQLException {
+        stmt.setString(1, user.getUsername());
+        stmt.setString(2, user.getEmail());
+        stmt.setString(3, user.getRole().name());
+        stmt.setString(4, user.getStatus().name());
+        stmt.setInt(5, user.getId());
     }
 
     public void delete(int id) {
@@ -139,19 +270,27 @@ public class UserDAO {
             
             stmt.setInt(1, id);
             stmt.executeUpdate();
+            EntityCache.users().invalidate(id);
         } catch (SQLException e) {
             throw new RuntimeException("Erreur lors de la suppression de l'utilisateur", e);
         }
     }
 
+    public void deleteAll(Collection<Integer> ids) {
+        String sql = "DELETE FROM user WHERE id = ?";
+
+        try {
+            Transactions.inTransaction(conn -> {
+                Transactions.executeBatched(conn, sql, ids, (stmt, id) -> stmt.setInt(1, id));
+                return null;
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de la suppression des utilisateurs", e);
+        }
+        ids.forEach(EntityCache.users()::invalidate);
+    }
+
     private User mapResultSetToUser(ResultSet rs) throws SQLException {
-        return new User(
-            rs.getInt("id"),
-            rs.getString("username"),
-            rs.getString("email"),
-            rs.getString("password_hash"),
-            Role.valueOf(rs.getString("role")),
-            UserStatus.valueOf(rs.getString("status"))
-        );
+        return TrackRowMapper.mapUser(rs, "");
     }
 }
@@ -0,0 +1,62 @@
+package dao;
+
+import model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stockage des utilisateurs. Implémenté par {@link UserDAO} (MySQL) et par le stockage en mémoire.
+ */
+public interface UserRepository {
+
+    List<User> findAll();
+
+    /**
+     * Page d'utilisateurs triés par id, strictement après {@code afterId} (0 pour la première page).
+     */
+    List<User> findPage(int afterId, int limit);
+
+    Optional<User> findById(int id);
+
+    Optional<User> findByEmailOrUsername(String login);
+
+    /**
+     * Insère (id 0) ou met à jour l'utilisateur.
+     *
+     * @throws DuplicateUserException si l'email ou le nom d'utilisateur est déjà pris
+     */
+    User save(User user);
+
+    /**
+     * Insère ou met à jour plusieurs utilisateurs d'un coup.
+     * La liste retournée suit l'ordre d'entrée, les nouveaux utilisateurs portant leur id généré.
+     *
+     * @throws DuplicateUserException si un email ou un nom d'utilisateur est déjà pris ; rien n'est écrit
+     */
+    List<User> saveAll(Collection<User> users);
+
+    void delete(int id);
+
+    void deleteAll(Collection<Integer> ids);
+
+    /**
+     * Insertion refusée par l'unicité de l'email ou du nom d'utilisateur.
+     */
+    class DuplicateUserException extends RuntimeException {
+
+        public enum Field { EMAIL, USERNAME }
+
+        private final Field field;
+
+        public DuplicateUserException(Field field, Throwable cause) {
+            super("Utilisateur déjà existant (" + field.name().toLowerCase() + ")", cause);
+            this.field = field;
+        }
+
+        public Field getField() {
+            return field;
+        }
+    }
+}
@@ -1,19 +1,29 @@
 package model;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import java.util.List;
+import java.time.Duration;
 import java.util.Objects;
 
+/**
+ * Ligne de la table album : titre, artiste et agrégats stockés de ses titres approuvés. Les tracks
+ * ne sont pas portés par l'album, ils sont lus à l'ouverture (voir TrackService.getAlbumTracks).
+ */
 public class Album {
+    private final int id;
     private final String title;
     private final User artist;
-    private final ObservableList<Track> tracks;
+    private final int trackCount;
+    private final Duration totalDuration;
 
-    public Album(String title, User artist, List<Track> tracks) {
+    public Album(int id, String title, User artist, int trackCount, Duration totalDuration) {
+        this.id = id;
         this.title = title;
         this.artist = artist;
-        this.tracks = FXCollections.observableArrayList(tracks);
+        this.trackCount = trackCount;
+        this.totalDuration = totalDuration;
+    }
+
+    public int getId() {
+        return id;
     }
 
     public String getTitle() {
@@ -29,14 +39,18 @@ public class Album {
         return artist.getUsername();
     }
 
-    public ObservableList<Track> getTracks() {
-        return tracks;
+    public int getTrackCount() {
+        return trackCount;
+    }
+
+    public Duration getTotalDuration() {
+        return totalDuration;
     }
 
     // Pour l'affichage si vous en avez besoin
     @Override
     public String toString() {
-        return title + " (" + tracks.size() + " titres)";
+        return title + " (" + trackCount + " titres)";
     }
 
     /**
@@ -56,4 +70,4 @@ public class Album {
     public int hashCode() {
         return Objects.hash(title, artist);
     }
-}
\ No newline at end of file
+}
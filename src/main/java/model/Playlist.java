@@ -3,6 +3,7 @@ package model;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
+import java.util.List;
 import java.util.Objects;
 
 public class Playlist {
@@ -37,6 +38,14 @@ public class Playlist {
         return tracks;
     }
 
+    public void setTracks(List<Track> loadedTracks) {
+        tracks.setAll(loadedTracks);
+    }
+
+    public int getTrackCount() {
+        return tracks.size();
+    }
+
     public void addTrack(Track track) {
         if (!tracks.contains(track)) {
             tracks.add(track);
@@ -61,6 +70,6 @@ public class Playlist {
 
     @Override
     public String toString() {
-        return name + " (" + tracks.size() + ")";
+        return name + " (" + getTrackCount() + ")";
     }
 }
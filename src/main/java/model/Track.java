@@ -7,13 +7,13 @@ import java.util.Objects;
 
 public class Track {
     private final int id;
-    private final String title;
+    private String title;
     private final User artist;
-    private final String album;
-    private final Duration duration;
-    private final String filePath;
+    private String album;
+    private Duration duration;
+    private String filePath;
     private TrackStatus status;
-    private final LocalDateTime uploadDate;
+    private LocalDateTime uploadDate;
 
     public Track(int id,
                  String title,
@@ -69,6 +69,18 @@ public class Track {
         return uploadDate;
     }
 
+    /**
+     * Recopie l'état d'une version plus récente du même track (même id, même artiste).
+     */
+    public void refreshFrom(Track fresh) {
+        this.title = fresh.title;
+        this.album = fresh.album;
+        this.duration = fresh.duration;
+        this.filePath = fresh.filePath;
+        this.status = fresh.status;
+        this.uploadDate = fresh.uploadDate;
+    }
+
     public String getArtistName() {
         return artist.getUsername();
     }
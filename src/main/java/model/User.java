@@ -4,9 +4,11 @@ import java.util.Objects;
 
 public class User {
     private final int id;
-    private final String username;
-    private final String email;
-    private final String passwordHash;
+    private String username;
+    // Absent d'un utilisateur relu depuis l'instantané local : complété hors du thread JavaFX (voir adoptEmail)
+    private volatile String email;
+    // Jamais affiché : recopié tout de suite depuis la base, hors du thread JavaFX
+    private volatile String passwordHash;
     private Role role;
     private UserStatus status;
 
@@ -35,6 +37,25 @@ public class User {
         return passwordHash;
     }
 
+    /**
+     * Reprend l'empreinte du mot de passe lue en base (utilisateur relu depuis l'instantané local, qui n'en a pas).
+     */
+    public void adoptPasswordHash(String passwordHash) {
+        if (passwordHash != null) {
+            this.passwordHash = passwordHash;
+        }
+    }
+
+    /**
+     * Complète l'email d'un utilisateur relu depuis l'instantané local, qui n'en a pas ; un email
+     * déjà connu n'est changé que par {@link #refreshFrom}, sur le thread JavaFX.
+     */
+    public void adoptEmail(String email) {
+        if (this.email == null) {
+            this.email = email;
+        }
+    }
+
     public Role getRole() {
         return role;
     }
@@ -51,6 +72,16 @@ public class User {
         this.status = status;
     }
 
+    /**
+     * Recopie l'état d'une version plus récente du même utilisateur (même id).
+     */
+    public void refreshFrom(User fresh) {
+        this.username = fresh.username;
+        this.email = fresh.email;
+        this.role = fresh.role;
+        this.status = fresh.status;
+    }
+
     public boolean isActive() {
         return status == UserStatus.ACTIVE;
     }
@@ -0,0 +1,75 @@
+package service;
+
+import model.Album;
+import model.Track;
+import model.TrackStatus;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tracks approuvés de chaque album, tenus à jour track par track.
+ * <p>
+ * Les albums et leurs agrégats sont lus en base (voir AlbumRepository) ; cet index donne les tracks
+ * d'un album à son ouverture sans parcourir le catalogue. Chaque album (artiste + titre, sans tenir
+ * compte de la casse comme la clé unique de la table album) garde ses tracks indexés par id : un
+ * ajout ou un retrait coûte O(1).
+ */
+public class AlbumIndex {
+
+    private final Map<AlbumKey, Map<Integer, Track>> tracksByAlbum = new HashMap<>();
+    private final Map<Integer, AlbumKey> albumByTrack = new HashMap<>();
+
+    /**
+     * Indexe le track s'il est approuvé et rattaché à un album (après l'avoir retiré de son ancien album le cas échéant).
+     */
+    public synchronized void add(Track track) {
+        remove(track.getId());
+        if (track.getStatus() != TrackStatus.APPROVED || track.getAlbum() == null || track.getAlbum().isBlank()) {
+            return;
+        }
+        AlbumKey key = AlbumKey.of(track.getArtist().getId(), track.getAlbum());
+        // Ordre d'ajout conservé pour l'affichage ; retrait d'un track en O(1)
+        tracksByAlbum.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(track.getId(), track);
+        albumByTrack.put(track.getId(), key);
+    }
+
+    public synchronized void remove(int trackId) {
+        AlbumKey key = albumByTrack.remove(trackId);
+        if (key == null) {
+            return;
+        }
+        Map<Integer, Track> tracks = tracksByAlbum.get(key);
+        tracks.remove(trackId);
+        if (tracks.isEmpty()) {
+            tracksByAlbum.remove(key);
+        }
+    }
+
+    public synchronized void clear() {
+        tracksByAlbum.clear();
+        albumByTrack.clear();
+    }
+
+    /**
+     * Tracks approuvés de l'album, dans l'ordre d'ajout (vide s'il n'en a plus) : copiés à l'ouverture de l'album.
+     */
+    public synchronized List<Track> tracksOf(Album album) {
+        Map<Integer, Track> tracks = tracksByAlbum.get(AlbumKey.of(album.getArtist().getId(), album.getTitle()));
+        return tracks == null ? List.of() : List.copyOf(tracks.values());
+    }
+
+    public synchronized int size() {
+        return tracksByAlbum.size();
+    }
+
+    private record AlbumKey(int artistId, String title) {
+
+        static AlbumKey of(int artistId, String title) {
+            return new AlbumKey(artistId, title.toLowerCase(Locale.ROOT));
+        }
+    }
+}
@@ -1,30 +1,67 @@
 package service;
 
-import dao.FavoriteDAO;
+import dao.FavoriteRepository;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import model.Favorite;
 import model.Track;
 import model.User;
+import utils.IntHashSet;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
-public class FavoriteService {
+public class FavoriteService implements AutoCloseable {
 
-    private final FavoriteDAO favoriteDAO;
+    private static final long WRITE_LAG_MILLIS = 500;
+    private static final int MAX_PENDING_WRITES = 200;
+
+    private final FavoriteRepository favoriteDAO;
 
     // Cache en mémoire pour affichage instantané
     private final ObservableList<Favorite> favoritesCache = FXCollections.observableArrayList();
 
-    public FavoriteService(FavoriteDAO favoriteDAO) {
+    // Ids des tracks favoris : test d'appartenance en O(1) sans parcourir la liste affichée
+    private final IntHashSet favoriteTrackIds = new IntHashSet();
+
+    // Position de chaque favori dans le cache, par id de track : retrait sans parcourir la liste
+    private final ListPositions<Favorite> positions = new ListPositions<>(favoritesCache, favorite -> favorite.getTrack().getId());
+
+    // Les clics ne touchent que le cache : la base est mise à jour en lot, en arrière-plan
+    private final WriteBehindQueue<FavoriteKey, Boolean> pendingWrites;
+
+    public FavoriteService(FavoriteRepository favoriteDAO) {
         this.favoriteDAO = favoriteDAO;
+        this.pendingWrites = new WriteBehindQueue<>("favoris", WRITE_LAG_MILLIS, MAX_PENDING_WRITES, this::writeFavorites);
     }
 
     // Charge les favoris depuis la base dans le cache (au démarrage)
     public void loadFavorites(User user) {
-        List<Favorite> favoritesFromDB = favoriteDAO.findByUser(user);
-        favoritesCache.setAll(favoritesFromDB);
+        applyFavorites(fetchFavorites(user));
+    }
+
+    /**
+     * Lit les favoris en base sans toucher au cache (utilisable hors du thread JavaFX).
+     */
+    public List<Favorite> fetchFavorites(User user) {
+        // La base doit refléter les derniers clics avant d'être relue
+        pendingWrites.flush();
+        return favoriteDAO.findByUser(user);
+    }
+
+    /**
+     * Remplace le cache par des favoris lus avec {@link #fetchFavorites(User)} (thread JavaFX).
+     */
+    public void applyFavorites(List<Favorite> favorites) {
+        favoriteTrackIds.clear();
+        for (Favorite favorite : favorites) {
+            favoriteTrackIds.add(favorite.getTrack().getId());
+        }
+        favoritesCache.setAll(favorites);
     }
 
     // Retourne le cache pour lier à la ListView
@@ -32,26 +69,54 @@ public class FavoriteService {
         return favoritesCache;
     }
 
-    // Toggle favori : met à jour le cache et la base
+    // Toggle favori : met à jour le cache tout de suite, la base en différé
     public void toggleFavorite(User user, Track track) {
-        boolean exists = favoritesCache.stream()
-                .anyMatch(fav -> fav.getTrack().equals(track));
+        boolean exists = favoriteTrackIds.contains(track.getId());
 
         if (exists) {
             // Supprime du cache et de la base
-            favoritesCache.removeIf(fav -> fav.getTrack().equals(track));
+            favoriteTrackIds.remove(track.getId());
+            favoritesCache.remove(positions.indexOf(track.getId()));
         } else {
             // Ajoute au cache
+            favoriteTrackIds.add(track.getId());
             favoritesCache.add(new Favorite(user, track, LocalDateTime.now()));
         }
 
-        // Mise à jour en base
-        favoriteDAO.toggleFavorite(user, track);
+        // Deux bascules successives s'annulent dans la file : aucune requête n'est envoyée
+        pendingWrites.put(new FavoriteKey(user.getId(), track.getId()), exists, !exists);
     }
 
     // Vérifie si un track est favori
     public boolean isFavorite(User user, Track track) {
-        return favoritesCache.stream()
-                .anyMatch(fav -> fav.getTrack().equals(track));
+        return favoriteTrackIds.contains(track.getId());
+    }
+
+    /**
+     * Enregistre les favoris en attente hors du thread JavaFX (à la déconnexion).
+     */
+    public CompletableFuture<Void> flushPendingWritesAsync() {
+        return pendingWrites.flushAsync();
+    }
+
+    /**
+     * Appelé hors du thread JavaFX quand les favoris en attente ne peuvent plus être enregistrés.
+     */
+    public void setWriteFailureListener(Consumer<RuntimeException> listener) {
+        pendingWrites.setFailureListener(listener);
+    }
+
+    @Override
+    public void close() {
+        pendingWrites.close();
+    }
+
+    private void writeFavorites(Map<FavoriteKey, Boolean> writes) {
+        List<FavoriteRepository.FavoriteChange> changes = new ArrayList<>(writes.size());
+        writes.forEach((key, favorite) -> changes.add(new FavoriteRepository.FavoriteChange(key.userId(), key.trackId(), favorite)));
+        favoriteDAO.applyChanges(changes);
+    }
+
+    private record FavoriteKey(int userId, int trackId) {
     }
 }
@@ -0,0 +1,197 @@
+package service;
+
+import model.Track;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Recherche tolérante aux fautes de frappe sur les mots des titres, artistes et albums.
+ * <p>
+ * Chaque mot distinct du catalogue est indexé par ses trigrammes. Une faute change au plus trois
+ * trigrammes : seuls les mots partageant assez de trigrammes avec le mot recherché passent au calcul
+ * de distance d'édition, borné à 1 pour les mots courts et 2 au-delà.
+ */
+public class FuzzyTrackMatcher {
+
+    private static final int SHORT_WORD_LENGTH = 4;
+
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+    private final Map<String, Set<Integer>> tracksByTerm = new HashMap<>();
+    private final Map<Integer, Set<String>> termsByTrack = new HashMap<>();
+
+    public synchronized void add(Track track) {
+        remove(track.getId());
+        Set<String> terms = new LinkedHashSet<>(TrackSearchIndex.tokenize(track.getTitle() + " "
+                + track.getArtistName() + " " + (track.getAlbum() == null ? "" : track.getAlbum())));
+        termsByTrack.put(track.getId(), terms);
+        for (String term : terms) {
+            Set<Integer> ids = tracksByTerm.get(term);
+            if (ids == null) {
+                ids = new HashSet<>();
+                tracksByTerm.put(term, ids);
+                for (String trigram : trigrams(term)) {
+                    termsByTrigram.computeIfAbsent(trigram, k -> new HashSet<>()).add(term);
+                }
+            }
+            ids.add(track.getId());
+        }
+    }
+
+    public synchronized void remove(int trackId) {
+        Set<String> terms = termsByTrack.remove(trackId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Set<Integer> ids = tracksByTerm.get(term);
+            ids.remove(trackId);
+            if (ids.isEmpty()) {
+                // Plus aucun track n'utilise ce mot : on le retire aussi de l'index des trigrammes
+                tracksByTerm.remove(term);
+                for (String trigram : trigrams(term)) {
+                    Set<String> sharing = termsByTrigram.get(trigram);
+                    sharing.remove(term);
+                    if (sharing.isEmpty()) {
+                        termsByTrigram.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        termsByTrigram.clear();
+        tracksByTerm.clear();
+        termsByTrack.clear();
+    }
+
+    /**
+     * Les {@code limit} meilleurs ids, du plus proche au plus lointain. Chaque mot de la requête
+     * doit correspondre (à une faute près) à un mot du track.
+     */
+    public synchronized List<Integer> search(String query, int limit) {
+        List<String> words = TrackSearchIndex.tokenize(query);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<Integer, Double> scores = null;
+        for (String word : words) {
+            Map<Integer, Double> wordScores = scoreWord(word);
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                Map<Integer, Double> merged = new HashMap<>();
+                for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+                    Double other = wordScores.get(entry.getKey());
+                    if (other != null) {
+                        merged.put(entry.getKey(), entry.getValue() + other);
+                    }
+                }
+                scores = merged;
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        // Tas borné à K éléments : O(n log K) au lieu d'un tri complet
+        PriorityQueue<Map.Entry<Integer, Double>> top = new PriorityQueue<>(
+                (a, b) -> a.getValue().equals(b.getValue())
+                        ? Integer.compare(b.getKey(), a.getKey())
+                        : Double.compare(a.getValue(), b.getValue()));
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Integer> ranked = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ranked.add(top.poll().getKey());
+        }
+        return ranked.reversed();
+    }
+
+    public synchronized int size() {
+        return termsByTrack.size();
+    }
+
+    // Meilleure similarité (1 = identique) de chaque track pour un mot de la requête
+    private Map<Integer, Double> scoreWord(String word) {
+        int maxDistance = word.length() <= SHORT_WORD_LENGTH ? 1 : 2;
+        Set<String> wordTrigrams = trigrams(word);
+        int minShared = Math.max(1, wordTrigrams.size() - 3 * maxDistance);
+
+        // Un candidat partage au moins minShared trigrammes, donc au moins un des (n - minShared + 1)
+        // plus rares : on ne parcourt que ceux-là et on ignore les trigrammes très fréquents
+        List<Set<String>> postingsBySize = new ArrayList<>();
+        for (String trigram : wordTrigrams) {
+            postingsBySize.add(termsByTrigram.getOrDefault(trigram, Set.of()));
+        }
+        postingsBySize.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        Set<String> candidates = new HashSet<>();
+        for (Set<String> terms : postingsBySize.subList(0, wordTrigrams.size() - minShared + 1)) {
+            candidates.addAll(terms);
+        }
+
+        Map<Integer, Double> scores = new HashMap<>();
+        for (String term : candidates) {
+            if (Math.abs(term.length() - word.length()) > maxDistance) {
+                continue;
+            }
+            int distance = boundedDistance(word, term, maxDistance);
+            if (distance > maxDistance) {
+                continue;
+            }
+            double similarity = 1.0 - (double) distance / Math.max(word.length(), term.length());
+            for (int trackId : tracksByTerm.get(term)) {
+                scores.merge(trackId, similarity, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Distance de Levenshtein, abandonnée dès qu'elle dépasse {@code max} (retourne alors max + 1).
+     */
+    static int boundedDistance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    private static Set<String> trigrams(String term) {
+        String padded = "  " + term + " ";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+}
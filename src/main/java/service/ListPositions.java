@@ -0,0 +1,63 @@
+package service;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Position de chaque élément d'une liste observable par id, pour remplacer un élément sans
+ * parcourir la liste (indexOf).
+ * <p>
+ * Ajouts en fin, retraits en fin et remplacements (setAll compris) sont suivis en O(taille du
+ * changement). Un changement qui décale les éléments suivants (insertion ou retrait au milieu,
+ * permutation) marque les positions comme périmées : elles sont recalculées en une passe à la
+ * recherche suivante. Thread JavaFX.
+ */
+final class ListPositions<T> {
+
+    private final ObservableList<T> list;
+    private final ToIntFunction<T> idOf;
+    private final Map<Integer, Integer> positions = new HashMap<>();
+    private boolean stale;
+
+    ListPositions(ObservableList<T> list, ToIntFunction<T> idOf) {
+        this.list = list;
+        this.idOf = idOf;
+        list.addListener(this::update);
+    }
+
+    /**
+     * Position de l'élément d'id {@code id}, -1 s'il n'est pas dans la liste.
+     */
+    int indexOf(int id) {
+        if (stale) {
+            positions.clear();
+            for (int i = 0; i < list.size(); i++) {
+                positions.put(idOf.applyAsInt(list.get(i)), i);
+            }
+            stale = false;
+        }
+        return positions.getOrDefault(id, -1);
+    }
+
+    private void update(ListChangeListener.Change<? extends T> change) {
+        while (change.next()) {
+            if (change.wasPermutated()) {
+                stale = true;
+                continue;
+            }
+            for (T removed : change.getRemoved()) {
+                positions.remove(idOf.applyAsInt(removed));
+            }
+            for (int i = change.getFrom(); i < change.getTo(); i++) {
+                positions.put(idOf.applyAsInt(list.get(i)), i);
+            }
+            if (change.getRemovedSize() != change.getAddedSize() && change.getTo() != list.size()) {
+                stale = true;
+            }
+        }
+    }
+}
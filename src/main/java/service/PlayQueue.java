@@ -0,0 +1,327 @@
+package service;
+
+import model.Track;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * File de lecture : ordre de base, morceaux « à suivre », aléatoire et répétition.
+ * <p>
+ * Les morceaux insérés avec {@link #playNext(Track)} passent avant l'ordre de base. En aléatoire,
+ * l'ordre est tiré au fur et à mesure (Fisher–Yates paresseux) : une permutation virtuelle ne
+ * retient que les positions échangées, chaque tirage coûte O(1) et une file de 10 000 morceaux
+ * n'est jamais permutée d'avance. Suivant, précédent, ajout et insertion sont en O(1) ; les
+ * morceaux joués sont empilés dans un historique borné, qui retient leur index dans l'ordre de base
+ * pour rester valable quand l'ordre aléatoire est tiré à nouveau.
+ */
+public class PlayQueue {
+
+    public enum Repeat { OFF, ALL, ONE }
+
+    private static final int MAX_HISTORY = 500;
+
+    private final List<Track> tracks = new ArrayList<>();
+    private final Deque<Track> upNext = new ArrayDeque<>();
+    private final Deque<HistoryEntry> history = new ArrayDeque<>();
+    private final Random random;
+
+    // Permutation virtuelle du mode aléatoire : position -> index dans tracks (absent = identité)
+    private final Map<Integer, Integer> swaps = new HashMap<>();
+    // Permutation inverse : index dans tracks -> position (absent = identité)
+    private final Map<Integer, Integer> positions = new HashMap<>();
+    // Positions [0, drawn) déjà tirées, donc figées
+    private int drawn;
+    private boolean shuffle;
+    private Repeat repeat = Repeat.OFF;
+
+    // Position dans l'ordre de lecture du dernier morceau de base joué (-1 avant le premier)
+    private int cursor = -1;
+    private Track current;
+    private boolean currentFromUpNext;
+
+    public PlayQueue() {
+        this(new Random());
+    }
+
+    public PlayQueue(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Remplace la file par {@code newTracks} et place la lecture sur {@code startIndex} (ordre de base).
+     * Vide les morceaux à suivre et l'historique.
+     */
+    public Track load(Collection<Track> newTracks, int startIndex) {
+        tracks.clear();
+        tracks.addAll(newTracks);
+        upNext.clear();
+        history.clear();
+        current = null;
+        currentFromUpNext = false;
+        resetShuffle();
+        if (tracks.isEmpty()) {
+            cursor = -1;
+            return null;
+        }
+        if (shuffle) {
+            startShuffleAt(startIndex);
+        } else {
+            cursor = startIndex;
+        }
+        current = tracks.get(startIndex);
+        return current;
+    }
+
+    /**
+     * Ajoute en fin de file. En aléatoire, le morceau rejoint les positions non encore tirées.
+     */
+    public void append(Track track) {
+        tracks.add(track);
+    }
+
+    /**
+     * Insère le morceau juste après le courant (avant les autres morceaux à suivre déjà insérés).
+     */
+    public void playNext(Track track) {
+        upNext.addFirst(track);
+    }
+
+    /**
+     * Morceau suivant demandé par l'utilisateur : la répétition d'un seul morceau est ignorée.
+     *
+     * @return le nouveau morceau courant, vide en fin de file sans répétition
+     */
+    public Optional<Track> next() {
+        if (upNext.isEmpty() && cursor + 1 >= tracks.size() && (repeat == Repeat.OFF || tracks.isEmpty())) {
+            return Optional.empty();
+        }
+        // Avant un éventuel nouveau tirage : l'historique retient l'index de base du morceau quitté
+        remember();
+        if (!upNext.isEmpty()) {
+            moveTo(upNext.pollFirst(), true, cursor);
+            return Optional.of(current);
+        }
+        int position = cursor + 1;
+        if (position >= tracks.size()) {
+            // Nouveau tour : en aléatoire, un nouvel ordre est tiré
+            int ended = baseIndexAt(cursor);
+            resetShuffle();
+            if (shuffle) {
+                startRoundAfter(ended);
+            }
+            position = 0;
+        }
+        moveTo(trackAt(position), false, position);
+        return Optional.of(current);
+    }
+
+    /**
+     * Morceau suivant en fin de lecture : rejoue le courant en répétition d'un seul morceau.
+     */
+    public Optional<Track> advance() {
+        if (repeat == Repeat.ONE && current != null) {
+            return Optional.of(current);
+        }
+        return next();
+    }
+
+    /**
+     * Revient au morceau précédent de l'historique.
+     *
+     * @return le nouveau morceau courant, vide si l'historique est vide (l'appelant relance le courant)
+     */
+    public Optional<Track> previous() {
+        HistoryEntry entry = history.pollFirst();
+        if (entry == null) {
+            return Optional.empty();
+        }
+        // Un morceau « à suivre » quitté en arrière sera rejoué au prochain suivant
+        if (currentFromUpNext && current != null) {
+            upNext.addFirst(current);
+        }
+        current = entry.track();
+        currentFromUpNext = entry.fromUpNext();
+        cursor = entry.baseIndex() < 0 ? -1 : positionOf(entry.baseIndex());
+        return Optional.of(current);
+    }
+
+    /**
+     * Prochains morceaux dans l'ordre où ils seront joués (morceaux à suivre puis ordre de base),
+     * au plus {@code limit}. En aléatoire, les positions nécessaires sont tirées (et figées).
+     */
+    public List<Track> upcoming(int limit) {
+        List<Track> upcoming = new ArrayList<>(Math.min(limit, upNext.size() + tracks.size()));
+        for (Track track : upNext) {
+            if (upcoming.size() == limit) {
+                return upcoming;
+            }
+            upcoming.add(track);
+        }
+        for (int position = cursor + 1; position < tracks.size() && upcoming.size() < limit; position++) {
+            upcoming.add(trackAt(position));
+        }
+        return upcoming;
+    }
+
+    /**
+     * Historique, du plus récent au plus ancien.
+     */
+    public List<Track> history() {
+        return history.stream().map(HistoryEntry::track).toList();
+    }
+
+    /**
+     * Active ou coupe l'aléatoire ; le morceau courant reste en place et l'ordre repart de lui.
+     */
+    public void setShuffle(boolean enabled) {
+        if (enabled == shuffle) {
+            return;
+        }
+        int baseIndex = cursor >= 0 && cursor < tracks.size() ? baseIndexAt(cursor) : -1;
+        shuffle = enabled;
+        resetShuffle();
+        if (baseIndex < 0) {
+            return;
+        }
+        if (shuffle) {
+            startShuffleAt(baseIndex);
+        } else {
+            cursor = baseIndex;
+        }
+    }
+
+    public boolean isShuffle() {
+        return shuffle;
+    }
+
+    public void setRepeat(Repeat repeat) {
+        this.repeat = repeat;
+    }
+
+    public Repeat getRepeat() {
+        return repeat;
+    }
+
+    public Track getCurrent() {
+        return current;
+    }
+
+    /**
+     * Morceaux restant dans la file (morceaux à suivre compris), sans le courant.
+     */
+    public int remaining() {
+        return upNext.size() + Math.max(0, tracks.size() - cursor - 1);
+    }
+
+    public int size() {
+        return tracks.size() + upNext.size();
+    }
+
+    public void clear() {
+        load(List.of(), 0);
+    }
+
+    private void remember() {
+        if (current != null) {
+            int baseIndex = cursor >= 0 && cursor < tracks.size() ? baseIndexAt(cursor) : -1;
+            history.addFirst(new HistoryEntry(current, currentFromUpNext, baseIndex));
+            if (history.size() > MAX_HISTORY) {
+                history.pollLast();
+            }
+        }
+    }
+
+    private void moveTo(Track track, boolean fromUpNext, int newCursor) {
+        current = track;
+        currentFromUpNext = fromUpNext;
+        cursor = newCursor;
+    }
+
+    private Track trackAt(int position) {
+        return tracks.get(shuffle ? draw(position) : position);
+    }
+
+    private int baseIndexAt(int position) {
+        return shuffle ? draw(position) : position;
+    }
+
+    /**
+     * Index de base de la position {@code position} de l'ordre aléatoire, en tirant les positions manquantes.
+     */
+    private int draw(int position) {
+        while (drawn <= position) {
+            // Fisher–Yates : la position suivante reçoit un élément choisi parmi ceux qui restent
+            int chosen = drawn + random.nextInt(tracks.size() - drawn);
+            swap(drawn, chosen);
+            drawn++;
+        }
+        return swaps.getOrDefault(position, position);
+    }
+
+    /**
+     * Position actuelle du morceau de base {@code baseIndex}. En aléatoire, si l'ordre a été tiré à
+     * nouveau depuis (nouveau tour, bascule de l'aléatoire) et que le morceau n'y a pas encore de
+     * position, l'ordre repart de lui comme à l'activation de l'aléatoire.
+     */
+    private int positionOf(int baseIndex) {
+        if (!shuffle) {
+            return baseIndex;
+        }
+        int position = positions.getOrDefault(baseIndex, baseIndex);
+        if (position < drawn) {
+            return position;
+        }
+        resetShuffle();
+        startShuffleAt(baseIndex);
+        return cursor;
+    }
+
+    /**
+     * Premier tirage d'un nouveau tour : le morceau qui vient de finir n'est pas rejoué en premier.
+     */
+    private void startRoundAfter(int endedBaseIndex) {
+        if (tracks.size() < 2) {
+            return;
+        }
+        int chosen = random.nextInt(tracks.size() - 1);
+        swap(0, chosen >= endedBaseIndex ? chosen + 1 : chosen);
+        drawn = 1;
+    }
+
+    private void startShuffleAt(int baseIndex) {
+        // Le morceau de départ occupe la première position, le reste sera tiré à la demande
+        swap(0, baseIndex);
+        drawn = 1;
+        cursor = 0;
+    }
+
+    private void resetShuffle() {
+        swaps.clear();
+        positions.clear();
+        drawn = 0;
+    }
+
+    private void swap(int i, int j) {
+        if (i == j) {
+            return;
+        }
+        int atI = swaps.getOrDefault(i, i);
+        int atJ = swaps.getOrDefault(j, j);
+        swaps.put(i, atJ);
+        swaps.put(j, atI);
+        positions.put(atJ, i);
+        positions.put(atI, j);
+    }
+
+    // baseIndex : index dans tracks du dernier morceau de base joué à ce moment (-1 avant le premier)
+    private record HistoryEntry(Track track, boolean fromUpNext, int baseIndex) {
+    }
+}
@@ -1,6 +1,6 @@
 package service;
 
-import dao.PlaylistDAO;
+import dao.PlaylistRepository;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import model.Playlist;
@@ -8,23 +8,36 @@ import model.Track;
 import model.User;
 import utils.ValidationUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
- * Service pour la gestion des playlists, utilisant PlaylistDAO pour la persistance.
+ * Service pour la gestion des playlists, utilisant un PlaylistRepository (MySQL ou mémoire) pour la persistance.
  */
-public class PlaylistService {
+public class PlaylistService implements AutoCloseable {
+
+    private static final long WRITE_LAG_MILLIS = 500;
+    private static final int MAX_PENDING_WRITES = 200;
 
     // Cache pour stocker les playlists par utilisateur pour une utilisation rapide par JavaFX
     private final Map<Integer, ObservableList<Playlist>> playlistsByUserCache = new ConcurrentHashMap<>();
-    private final PlaylistDAO playlistDAO;
+    private final PlaylistRepository playlistDAO;
+
+    // Ajouts/retraits de tracks et renommages : cache immédiat, base en différé et en lot
+    private final WriteBehindQueue<PlaylistTrackKey, Boolean> pendingTrackWrites;
+    private final WriteBehindQueue<Integer, String> pendingNameWrites;
 
-    // Le service dépend désormais uniquement du DAO
-    public PlaylistService(PlaylistDAO playlistDAO) {
+    // Le service dépend désormais uniquement du dépôt
+    public PlaylistService(PlaylistRepository playlistDAO) {
         this.playlistDAO = playlistDAO;
+        this.pendingTrackWrites = new WriteBehindQueue<>("playlists", WRITE_LAG_MILLIS, MAX_PENDING_WRITES, this::writeTracks);
+        this.pendingNameWrites = new WriteBehindQueue<>("noms-playlists", WRITE_LAG_MILLIS, MAX_PENDING_WRITES,
+                names -> playlistDAO.applyChanges(List.of(), names));
     }
 
     /**
@@ -34,20 +47,27 @@ public class PlaylistService {
         Objects.requireNonNull(user, "Utilisateur requis");
 
         // Utilise computeIfAbsent pour charger de la DB seulement si le cache est vide pour cet utilisateur
-        ObservableList<Playlist> cache = playlistsByUserCache.computeIfAbsent(user.getId(), id -> {
-            // 1. Charger les playlists (métadonnées) depuis la DB
-            List<Playlist> dbPlaylists = playlistDAO.findByUser(user);
+        // (normalement rempli à la connexion par cachePlaylists, hors du thread JavaFX)
+        ObservableList<Playlist> cache = playlistsByUserCache.computeIfAbsent(user.getId(),
+                id -> FXCollections.observableArrayList(playlistDAO.findByUser(user)));
 
-            // 2. Pour chaque playlist, charger les tracks associés et les ajouter à l'ObservableList interne
-            for (Playlist p : dbPlaylists) {
-                List<Track> tracks = playlistDAO.getPlaylistTracks(p.getId());
-                p.getTracks().addAll(tracks);
-            }
+        return cache;
+    }
 
-            return FXCollections.observableArrayList(dbPlaylists);
-        });
+    /**
+     * Lit les playlists d'un utilisateur et leurs morceaux, en une requête, sans toucher au cache
+     * (utilisable hors du thread JavaFX) : sélection et modification d'une playlist n'interrogent plus la base.
+     */
+    public List<Playlist> fetchPlaylists(User user) {
+        return playlistDAO.findByUser(user);
+    }
 
-        return cache;
+    /**
+     * Met en cache des playlists lues avec {@link #fetchPlaylists(User)}, sauf si le cache de cet
+     * utilisateur existe déjà (il est alors au moins aussi récent).
+     */
+    public ObservableList<Playlist> cachePlaylists(User user, List<Playlist> playlists) {
+        return playlistsByUserCache.computeIfAbsent(user.getId(), id -> FXCollections.observableArrayList(playlists));
     }
 
     public Playlist createPlaylist(User owner, String name) {
@@ -64,6 +84,9 @@ public class PlaylistService {
     }
 
     public void deletePlaylist(User owner, Playlist playlist) {
+        // Les écritures en attente visent peut-être cette playlist : elles partent avant sa suppression
+        flushPendingWrites();
+
         // 1. Suppression en DB (le DAO gère la suppression dans la table de jointure et la playlist)
         playlistDAO.delete(playlist.getId());
 
@@ -79,28 +102,69 @@ public class PlaylistService {
     public void renamePlaylist(Playlist playlist, String newName) {
         ValidationUtils.require(ValidationUtils.isNotBlank(newName), "Le nom ne peut être vide.");
 
-        // 1. Mise à jour du modèle
+        // 1. Mise à jour du modèle (le cache partage l'objet Playlist)
+        String previousName = playlist.getName();
         playlist.setName(newName);
 
-        // 2. Persistance en DB
-        playlistDAO.save(playlist);
-
-        // 3. Le cache est mis à jour automatiquement car l'objet Playlist est partagé
+        // 2. Persistance en DB différée
+        pendingNameWrites.put(playlist.getId(), previousName, newName);
     }
 
     public void addTrack(Playlist playlist, Track track) {
-        // 1. Persistance en DB
-        playlistDAO.addTrackToPlaylist(playlist.getId(), track.getId());
+        boolean present = playlist.getTracks().contains(track);
 
-        // 2. Mise à jour du cache JavaFX
+        // 1. Mise à jour du cache JavaFX
         playlist.addTrack(track);
+
+        // 2. Persistance en DB différée
+        pendingTrackWrites.put(new PlaylistTrackKey(playlist.getId(), track.getId()), present, true);
     }
 
     public void removeTrack(Playlist playlist, Track track) {
-        // 1. Suppression en DB
-        playlistDAO.removeTrackFromPlaylist(playlist.getId(), track.getId());
+        boolean present = playlist.getTracks().contains(track);
 
-        // 2. Mise à jour du cache JavaFX
+        // 1. Mise à jour du cache JavaFX
         playlist.removeTrack(track);
+
+        // 2. Persistance en DB différée
+        pendingTrackWrites.put(new PlaylistTrackKey(playlist.getId(), track.getId()), present, false);
+    }
+
+    /**
+     * Enregistre immédiatement les modifications de playlists en attente (avant une suppression).
+     */
+    public void flushPendingWrites() {
+        pendingTrackWrites.flush();
+        pendingNameWrites.flush();
+    }
+
+    /**
+     * Comme {@link #flushPendingWrites()}, hors du thread JavaFX (à la déconnexion).
+     */
+    public CompletableFuture<Void> flushPendingWritesAsync() {
+        return CompletableFuture.allOf(pendingTrackWrites.flushAsync(), pendingNameWrites.flushAsync());
+    }
+
+    /**
+     * Appelé hors du thread JavaFX quand des modifications de playlists ne peuvent plus être enregistrées.
+     */
+    public void setWriteFailureListener(Consumer<RuntimeException> listener) {
+        pendingTrackWrites.setFailureListener(listener);
+        pendingNameWrites.setFailureListener(listener);
+    }
+
+    @Override
+    public void close() {
+        pendingTrackWrites.close();
+        pendingNameWrites.close();
+    }
+
+    private void writeTracks(Map<PlaylistTrackKey, Boolean> writes) {
+        List<PlaylistRepository.TrackChange> changes = new ArrayList<>(writes.size());
+        writes.forEach((key, present) -> changes.add(new PlaylistRepository.TrackChange(key.playlistId(), key.trackId(), present)));
+        playlistDAO.applyChanges(changes, Map.of());
+    }
+
+    private record PlaylistTrackKey(int playlistId, int trackId) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,38 @@
+package service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Nombre d'entités par statut, tenu à jour entité par entité depuis les changements d'une liste.
+ * <p>
+ * Un changement de statut arrive comme un remplacement par la même instance, déjà modifiée : le
+ * statut compté pour chaque id est donc retenu ici pour pouvoir être décompté. Thread JavaFX.
+ */
+final class StatusCounts<S extends Enum<S>> {
+
+    private final Map<Integer, S> statusById = new HashMap<>();
+    private final EnumMap<S, Integer> counts;
+
+    StatusCounts(Class<S> type) {
+        this.counts = new EnumMap<>(type);
+    }
+
+    void add(int id, S status) {
+        remove(id);
+        statusById.put(id, status);
+        counts.merge(status, 1, Integer::sum);
+    }
+
+    void remove(int id) {
+        S status = statusById.remove(id);
+        if (status != null) {
+            counts.merge(status, -1, Integer::sum);
+        }
+    }
+
+    int count(S status) {
+        return counts.getOrDefault(status, 0);
+    }
+}
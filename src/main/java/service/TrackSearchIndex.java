@@ -0,0 +1,196 @@
+package service;
+
+import model.Track;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé des tracks : chaque préfixe des mots du titre, de l'artiste et de l'album
+ * pointe vers les ids des tracks qui le contiennent.
+ * <p>
+ * Les textes sont normalisés (minuscules, accents retirés) : "eté" trouve "Été" et inversement.
+ * Une recherche multi-mots retourne les tracks dont chaque mot de la requête est le début
+ * d'un mot indexé.
+ * <p>
+ * Chaque préfixe garde ses ids dans un tableau d'int trié (4 octets par id, sans boxing) : les
+ * listes les plus longues sont intersectées par recherche dichotomique en parcourant la plus courte,
+ * sans copie, jusqu'à la limite de résultats demandée.
+ */
+public class TrackSearchIndex {
+
+    // Au-delà, le préfixe indexé sert de pré-filtre et les candidats sont vérifiés mot à mot
+    private static final int MAX_PREFIX_LENGTH = 12;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Integer, List<String>> tokensByTrack = new HashMap<>();
+
+    public synchronized void add(Track track) {
+        remove(track.getId());
+        List<String> tokens = tokenize(track.getTitle() + " " + track.getArtistName() + " "
+                + (track.getAlbum() == null ? "" : track.getAlbum()));
+        tokensByTrack.put(track.getId(), tokens);
+        for (String key : prefixKeys(tokens)) {
+            postings.computeIfAbsent(key, k -> new Postings()).add(track.getId());
+        }
+    }
+
+    public synchronized void remove(int trackId) {
+        List<String> tokens = tokensByTrack.remove(trackId);
+        if (tokens == null) {
+            return;
+        }
+        for (String key : prefixKeys(tokens)) {
+            Postings ids = postings.get(key);
+            if (ids != null) {
+                ids.remove(trackId);
+                if (ids.size == 0) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        tokensByTrack.clear();
+    }
+
+    /**
+     * Ids (croissants) des tracks correspondant à tous les mots de la requête, au plus {@code limit}.
+     * Une requête vide ne filtre rien : l'appelant doit alors la traiter comme "tout afficher".
+     */
+    public synchronized int[] search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+
+        List<Postings> candidates = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            Postings ids = postings.get(truncate(term));
+            if (ids == null) {
+                return new int[0];
+            }
+            candidates.add(ids);
+        }
+        // On parcourt la liste la plus courte, les autres ne sont que sondées
+        candidates.sort((a, b) -> Integer.compare(a.size, b.size));
+        Postings shortest = candidates.getFirst();
+
+        int[] result = new int[Math.min(limit, shortest.size)];
+        int count = 0;
+        for (int i = 0; i < shortest.size && count < result.length; i++) {
+            int id = shortest.ids[i];
+            if (inAll(candidates, id) && matchesLongTerms(terms, id)) {
+                result[count++] = id;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private static boolean inAll(List<Postings> candidates, int id) {
+        for (int i = 1; i < candidates.size(); i++) {
+            if (!candidates.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesLongTerms(List<String> terms, int id) {
+        for (String term : terms) {
+            if (term.length() > MAX_PREFIX_LENGTH
+                    && tokensByTrack.get(id).stream().noneMatch(token -> token.startsWith(term))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public synchronized int size() {
+        return tokensByTrack.size();
+    }
+
+    /**
+     * Minuscules sans accents, découpé sur tout ce qui n'est ni lettre ni chiffre.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = fold(text);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> prefixKeys(List<String> tokens) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String token : tokens) {
+            int max = Math.min(token.length(), MAX_PREFIX_LENGTH);
+            for (int length = 1; length <= max; length++) {
+                keys.add(token.substring(0, length));
+            }
+        }
+        return keys;
+    }
+
+    private static String truncate(String term) {
+        return term.length() > MAX_PREFIX_LENGTH ? term.substring(0, MAX_PREFIX_LENGTH) : term;
+    }
+
+    /**
+     * Ids triés d'un préfixe. Les tracks arrivent le plus souvent par id croissant : l'ajout se
+     * fait alors en fin de tableau.
+     */
+    private static final class Postings {
+        private int[] ids = new int[2];
+        private int size;
+
+        private void add(int id) {
+            int index = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0 && index < size) {
+                return;
+            }
+            int insertion = index >= 0 ? index : -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, insertion, ids, insertion + 1, size - insertion);
+            ids[insertion] = id;
+            size++;
+        }
+
+        private void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+
+        private boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
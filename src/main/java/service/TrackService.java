@@ -1,74 +1,225 @@
 package service;
 
-import dao.TrackDAO;
-import dao.UserDAO;
+import dao.AlbumRepository;
+import dao.EntityCache;
+import dao.TrackRepository;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import model.*;
+import utils.MediaStore;
 import utils.ValidationUtils;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 public class TrackService {
 
-    private final TrackDAO trackDAO;
+    private static final int PAGE_SIZE = 500;
+    // Nombre d'albums du carrousel
+    private static final int POPULAR_ALBUM_COUNT = 10;
+
+    private final TrackRepository trackDAO;
+    private final AlbumRepository albumDAO;
+    private final UserService userService;
     private final ObservableList<Track> tracks = FXCollections.observableArrayList();
+    // Résolution des ids trouvés par la recherche sans parcourir le catalogue
+    private final Map<Integer, Track> tracksById = new HashMap<>();
+    private final TrackSearchIndex searchIndex = new TrackSearchIndex();
+    private final FuzzyTrackMatcher fuzzyMatcher = new FuzzyTrackMatcher();
+    private final AlbumIndex albumIndex = new AlbumIndex();
+    private final StatusCounts<TrackStatus> statusCounts = new StatusCounts<>(TrackStatus.class);
+    private final ListPositions<Track> positions = new ListPositions<>(tracks, Track::getId);
+    private final MediaStore mediaStore;
+    // Incrémenté à chaque modification de la liste : deux calculs de même version donnent le même résultat
+    private final AtomicLong version = new AtomicLong();
 
-    public TrackService(UserService userService) {
-        UserDAO userDAO = new UserDAO();
-        this.trackDAO = new TrackDAO(userDAO);
-        loadTracks();
-        seedIfEmpty(userService);
+    public TrackService(TrackRepository trackDAO, AlbumRepository albumDAO, UserService userService, MediaStore mediaStore) {
+        this.trackDAO = trackDAO;
+        this.albumDAO = albumDAO;
+        this.userService = userService;
+        this.mediaStore = mediaStore;
+        tracks.addListener(this::updateIdLookup);
+        tracks.addListener(this::updateSearchIndex);
+        tracks.addListener(this::updateAlbumIndex);
+        tracks.addListener(this::updateStatusCounts);
+        tracks.addListener(this::updateMediaReferences);
+        tracks.addListener((ListChangeListener<Track>) change -> version.incrementAndGet());
+        EntityCache.tracks().addRefreshListener(this::refreshed);
+    }
+
+    /**
+     * Premier chargement, appelé une fois par l'amorçage (hors du thread JavaFX, avant tout affichage de la liste).
+     * Les index de recherche sont construits au passage. Les tracks par défaut sont créés à part
+     * avec {@link #seedIfEmpty()}, une fois les utilisateurs chargés.
+     *
+     * @param cachedTracks tracks relus depuis l'instantané local ; vide pour charger depuis la base
+     */
+    public void initialize(List<Track> cachedTracks) {
+        if (cachedTracks.isEmpty()) {
+            loadTracks();
+        } else {
+            // Démarrage à chaud : la base est relue plus tard en arrière-plan (voir reconcile)
+            tracks.setAll(cachedTracks);
+        }
     }
 
     private void loadTracks() {
-        tracks.clear();
         try {
-            tracks.addAll(trackDAO.findAll());
+            tracks.setAll(fetchTracks());
         } catch (RuntimeException e) {
             System.err.println("Erreur de connexion à la base de données lors du chargement des tracks: " + e.getMessage());
             System.err.println("L'application démarre avec une liste de tracks vide.");
         }
     }
 
-    private void seedIfEmpty(UserService userService) {
+    private void updateIdLookup(ListChangeListener.Change<? extends Track> change) {
+        while (change.next()) {
+            for (Track removed : change.getRemoved()) {
+                tracksById.remove(removed.getId());
+            }
+            for (Track added : change.getAddedSubList()) {
+                tracksById.put(added.getId(), added);
+            }
+        }
+    }
+
+    // Les index suivent toutes les modifications de la liste (chargement, dépôt, remplacement, suppression)
+    private void updateSearchIndex(ListChangeListener.Change<? extends Track> change) {
+        while (change.next()) {
+            if (change.wasReplaced() && sameIndexedText(change.getRemoved(), change.getAddedSubList())) {
+                // Resynchronisation : mêmes tracks aux mêmes places, les index sont déjà à jour
+                continue;
+            }
+            for (Track removed : change.getRemoved()) {
+                searchIndex.remove(removed.getId());
+                fuzzyMatcher.remove(removed.getId());
+            }
+            for (Track added : change.getAddedSubList()) {
+                searchIndex.add(added);
+                fuzzyMatcher.add(added);
+            }
+        }
+    }
+
+    // Un changement de statut arrive comme un remplacement : le track quitte ou rejoint son album
+    private void updateAlbumIndex(ListChangeListener.Change<? extends Track> change) {
+        while (change.next()) {
+            for (Track removed : change.getRemoved()) {
+                albumIndex.remove(removed.getId());
+            }
+            for (Track added : change.getAddedSubList()) {
+                albumIndex.add(added);
+            }
+        }
+    }
+
+    // Retraits avant ajouts : un track déplacé dans la liste n'est compté qu'une fois
+    private void updateStatusCounts(ListChangeListener.Change<? extends Track> change) {
+        while (change.next()) {
+            for (Track removed : change.getRemoved()) {
+                statusCounts.remove(removed.getId());
+            }
+        }
+        change.reset();
+        while (change.next()) {
+            for (Track added : change.getAddedSubList()) {
+                statusCounts.add(added.getId(), added.getStatus());
+            }
+        }
+    }
+
+    // Les références des fichiers du magasin suivent les file_path du catalogue. Les ajouts passent
+    // avant les retraits : un rechargement complet (setAll) ne fait jamais tomber un fichier encore utilisé à zéro
+    private void updateMediaReferences(ListChangeListener.Change<? extends Track> change) {
+        while (change.next()) {
+            for (Track added : change.getAddedSubList()) {
+                mediaStore.retain(added.getFilePath());
+            }
+        }
+        change.reset();
+        while (change.next()) {
+            for (Track removed : change.getRemoved()) {
+                mediaStore.release(removed.getFilePath());
+            }
+        }
+    }
+
+    private static boolean sameIndexedText(List<? extends Track> removed, List<? extends Track> added) {
+        if (removed.size() != added.size()) {
+            return false;
+        }
+        for (int i = 0; i < removed.size(); i++) {
+            Track before = removed.get(i);
+            Track after = added.get(i);
+            if (before.getId() != after.getId()
+                    || !Objects.equals(before.getTitle(), after.getTitle())
+                    || !Objects.equals(before.getArtistName(), after.getArtistName())
+                    || !Objects.equals(before.getAlbum(), after.getAlbum())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Crée quelques tracks de démonstration si le catalogue est vide (utilisateurs déjà chargés).
+     */
+    public void seedIfEmpty() {
         if (tracks.isEmpty()) {
-            try {
-                List<User> artists = userService.getUsers().stream()
-                        .filter(User::isActive)
-                        .filter(user -> user.getRole() != Role.SUPER_ADMIN)
-                        .collect(Collectors.toList());
-                if (artists.isEmpty()) {
-                    return;
-                }
-                User firstArtist = artists.get(0);
-                User secondArtist = artists.size() > 1 ? artists.get(1) : firstArtist;
-
-                Track track1 = new Track(0, "City Lights", firstArtist,
-                        "Neon Dreams", Duration.ofSeconds(222), "media/city_lights.mp3",
-                        TrackStatus.APPROVED, LocalDateTime.now().minusDays(2));
-                Track track2 = new Track(0, "Orbit", secondArtist,
-                        "Space Walk", Duration.ofSeconds(187), "media/orbit.mp3",
-                        TrackStatus.APPROVED, LocalDateTime.now().minusDays(1));
-                Track track3 = new Track(0, "Slow Dive", firstArtist,
-                        "After Hours", Duration.ofSeconds(250), "media/slow_dive.mp3",
-                        TrackStatus.PENDING, LocalDateTime.now().minusHours(6));
-
-                tracks.add(trackDAO.save(track1));
-                tracks.add(trackDAO.save(track2));
-                tracks.add(trackDAO.save(track3));
-            } catch (RuntimeException e) {
-                System.err.println("Impossible de créer les tracks par défaut: " + e.getMessage());
-                System.err.println("Assurez-vous que la base de données est accessible et configurée.");
+            tracks.addAll(saveDefaultTracks(userService.getUsers()));
+        }
+    }
+
+    // Vide si aucun artiste n'est disponible ou si la base est inaccessible
+    private List<Track> saveDefaultTracks(List<User> users) {
+        try {
+            List<User> artists = users.stream()
+                    .filter(User::isActive)
+                    .filter(user -> user.getRole() != Role.SUPER_ADMIN)
+                    .collect(Collectors.toList());
+            if (artists.isEmpty()) {
+                return List.of();
             }
+            User firstArtist = artists.get(0);
+            User secondArtist = artists.size() > 1 ? artists.get(1) : firstArtist;
+
+            Track track1 = new Track(0, "City Lights", firstArtist,
+                    "Neon Dreams", Duration.ofSeconds(222), "media/city_lights.mp3",
+                    TrackStatus.APPROVED, LocalDateTime.now().minusDays(2));
+            Track track2 = new Track(0, "Orbit", secondArtist,
+                    "Space Walk", Duration.ofSeconds(187), "media/orbit.mp3",
+                    TrackStatus.APPROVED, LocalDateTime.now().minusDays(1));
+            Track track3 = new Track(0, "Slow Dive", firstArtist,
+                    "After Hours", Duration.ofSeconds(250), "media/slow_dive.mp3",
+                    TrackStatus.PENDING, LocalDateTime.now().minusHours(6));
+
+            return trackDAO.saveAll(List.of(track1, track2, track3));
+        } catch (RuntimeException e) {
+            System.err.println("Impossible de créer les tracks par défaut: " + e.getMessage());
+            System.err.println("Assurez-vous que la base de données est accessible et configurée.");
+            return List.of();
         }
     }
 
+    /**
+     * Tracks du cache ayant ce statut, sans parcourir le catalogue (thread JavaFX).
+     */
+    public int countByStatus(TrackStatus status) {
+        return statusCounts.count(status);
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
     public ObservableList<Track> getTracks() {
         return FXCollections.unmodifiableObservableList(tracks);
     }
@@ -95,9 +246,113 @@ public class TrackService {
     }
 
     public void changeStatus(Track track, TrackStatus status) {
+        TrackStatus previous = track.getStatus();
         track.setStatus(status);
-        trackDAO.save(track);
-        loadTracks(); // Recharger la liste
+        Track saved;
+        try {
+            saved = trackDAO.save(track);
+        } catch (RuntimeException e) {
+            // L'instance affichée ne garde pas un statut que la base n'a pas enregistré
+            track.setStatus(previous);
+            throw e;
+        }
+        replaceInCache(saved);
+    }
+
+    /**
+     * Lit tout le catalogue en base sans toucher au cache (utilisable hors du thread JavaFX).
+     */
+    public List<Track> fetchTracks() {
+        // Chargement par pages (pagination par clé) : chaque requête reste courte quelle que soit la taille du catalogue
+        List<Track> loaded = new ArrayList<>();
+        int lastId = 0;
+        List<Track> page;
+        do {
+            page = trackDAO.findPage(lastId, PAGE_SIZE);
+            if (!page.isEmpty()) {
+                loaded.addAll(page);
+                lastId = page.getLast().getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+        return loaded;
+    }
+
+    /**
+     * Comme {@link #fetchTracks()}, en créant les tracks par défaut si le catalogue est vide.
+     * Écritures en base : à appeler hors du thread JavaFX.
+     *
+     * @param users utilisateurs lus en base, parmi lesquels sont choisis les artistes
+     */
+    public List<Track> fetchTracksOrSeed(List<User> users) {
+        List<Track> fresh = fetchTracks();
+        return fresh.isEmpty() ? saveDefaultTracks(users) : fresh;
+    }
+
+    /**
+     * Remplace le cache par les tracks lus en base avec {@link #fetchTracksOrSeed} (thread JavaFX).
+     * Un seul changement est émis ; les index ne sont recalculés que pour les tracks modifiés.
+     */
+    public void reconcile(List<Track> freshTracks) {
+        tracks.setAll(freshTracks);
+    }
+
+    /**
+     * Recharge tout le catalogue depuis la base (à réserver aux resynchronisations explicites).
+     */
+    public void resync() {
+        loadTracks();
+    }
+
+    // Track relu en base avec un état différent (thread JavaFX, voir EntityCache) : le texte indexé a
+    // pu changer alors que l'instance est la même, les index de recherche sont donc refaits ici
+    private void refreshed(Track track) {
+        int index = positions.indexOf(track.getId());
+        if (index >= 0) {
+            searchIndex.add(track);
+            fuzzyMatcher.add(track);
+            tracks.set(index, track);
+        }
+    }
+
+    // Remplace l'élément en place : un seul changement "replace" est émis, les FilteredList
+    // ne réévaluent que cet élément au lieu de tout le catalogue
+    private void replaceInCache(Track track) {
+        int index = positions.indexOf(track.getId());
+        if (index >= 0) {
+            tracks.set(index, track);
+        } else {
+            tracks.add(track);
+        }
+    }
+
+    /**
+     * Ids (au plus {@code limit}) des tracks dont le titre, l'artiste ou l'album contient des mots
+     * commençant par ceux de la requête (sans tenir compte de la casse ni des accents).
+     */
+    public int[] searchTrackIds(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    /**
+     * Tracks du catalogue pour ces ids, dans le même ordre (ids inconnus ignorés). Thread JavaFX.
+     */
+    public List<Track> getTracksByIds(int[] ids) {
+        List<Track> found = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Track track = tracksById.get(id);
+            if (track != null) {
+                found.add(track);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Ids des {@code limit} tracks les plus proches de la requête en tolérant les fautes de frappe,
+     * du plus pertinent au moins pertinent.
+     */
+    public List<Integer> fuzzySearchTrackIds(String query, int limit) {
+        return fuzzyMatcher.search(query, limit);
     }
 
     public List<Track> getPendingTracks() {
@@ -111,35 +366,18 @@ public class TrackService {
                 .filter(t -> status == null || t.getStatus() == status)
                 .collect(Collectors.toList());
     }
+    /**
+     * Les albums les plus fournis en titres approuvés, lus en base avec leurs agrégats stockés
+     * (index de popularité, sans leurs tracks). Lecture en base : à appeler hors du thread JavaFX.
+     */
     public List<Album> getPopularAlbums() {
-        // 1. Filtrer uniquement les tracks APPROUVÉS
-        List<Track> approvedTracks = tracks.stream()
-                .filter(t -> t.getStatus() == TrackStatus.APPROVED)
-                .toList();
-
-        // 2. Regrouper les tracks par Nom d'Album et Artiste.
-        // La clé de la Map sera un regroupement logique de l'album (Artiste + Nom d'Album)
-        Map<String, List<Track>> groupedTracks = approvedTracks.stream()
-                .collect(Collectors.groupingBy(track -> {
-                    String albumName = track.getAlbum() != null && !track.getAlbum().isBlank()
-                            ? track.getAlbum()
-                            : "Singles de " + track.getArtistName(); // Traite les singles
-                    return albumName + "|||" + track.getArtist().getId(); // Utilise l'ID de l'artiste pour l'unicité
-                }));
-
-        // 3. Convertir la Map en liste d'objets Album
-        return groupedTracks.values().stream()
-                .map(trackList -> {
-                    // Récupère les métadonnées de l'album à partir de la première piste
-                    Track representativeTrack = trackList.getFirst();
-                    String albumTitle = representativeTrack.getAlbum() != null && !representativeTrack.getAlbum().isBlank()
-                            ? representativeTrack.getAlbum()
-                            : "Singles de " + representativeTrack.getArtistName();
-
-                    return new Album(albumTitle, representativeTrack.getArtist(), trackList);
-                })
-                .sorted((a1, a2) -> Integer.compare(a2.getTracks().size(), a1.getTracks().size())) // Trie par popularité (nombre de titres)
-                .limit(10) // Limite l'affichage aux 10 premiers (pour le carrousel)
-                .toList();
+        return albumDAO.findMostPopular(POPULAR_ALBUM_COUNT);
+    }
+
+    /**
+     * Tracks approuvés d'un album, à son ouverture, lus dans le catalogue en mémoire : seul cet album est parcouru.
+     */
+    public List<Track> getAlbumTracks(Album album) {
+        return albumIndex.tracksOf(album);
     }
 }
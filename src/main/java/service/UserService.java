@@ -1,7 +1,9 @@
 package service;
 
-import dao.UserDAO;
+import dao.EntityCache;
+import dao.UserRepository;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import model.Role;
 import model.User;
@@ -9,27 +11,57 @@ import model.UserStatus;
 import utils.HashUtils;
 import utils.ValidationUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class UserService {
 
-    private final UserDAO userDAO;
+    private static final int PAGE_SIZE = 500;
+
+    private final UserRepository userDAO;
     private final ObservableList<User> users = FXCollections.observableArrayList();
+    private final StatusCounts<UserStatus> statusCounts = new StatusCounts<>(UserStatus.class);
+    private final ListPositions<User> positions = new ListPositions<>(users, User::getId);
+    // Incrémenté à chaque modification de la liste (voir TrackService.getVersion)
+    private final AtomicLong version = new AtomicLong();
 
-    public UserService() {
-        this.userDAO = new UserDAO();
-        loadUsers();
-        seedIfEmpty();
+    public UserService(UserRepository userDAO) {
+        this.userDAO = userDAO;
+        users.addListener((ListChangeListener<User>) change -> version.incrementAndGet());
+        users.addListener(this::updateStatusCounts);
+        // Utilisateur relu en base avec un état différent (thread JavaFX, voir EntityCache)
+        EntityCache.users().addRefreshListener(user -> {
+            int index = positions.indexOf(user.getId());
+            if (index >= 0) {
+                users.set(index, user);
+            }
+        });
+    }
+
+    /**
+     * Premier chargement, appelé une fois par l'amorçage (hors du thread JavaFX, avant tout affichage de la liste).
+     *
+     * @param cachedUsers utilisateurs relus depuis l'instantané local ; vide pour charger depuis la base
+     */
+    public void initialize(List<User> cachedUsers) {
+        if (cachedUsers.isEmpty()) {
+            loadUsers();
+            seedIfEmpty();
+        } else {
+            // Démarrage à chaud : la base est relue plus tard en arrière-plan (voir reconcile)
+            users.setAll(cachedUsers);
+        }
     }
 
     private void loadUsers() {
-        users.clear();
         try {
-            users.addAll(userDAO.findAll());
+            users.setAll(fetchUsers());
         } catch (RuntimeException e) {
             System.err.println("Erreur de connexion à la base de données: " + e.getMessage());
             System.err.println("L'application démarre avec une liste d'utilisateurs vide.");
@@ -39,26 +71,41 @@ public class UserService {
 
     private void seedIfEmpty() {
         if (users.isEmpty()) {
-            try {
-                addUser("superadmin", "super@soundhub.local", "Super#2024", Role.SUPER_ADMIN, UserStatus.ACTIVE);
-                addUser("clara-admin", "clara@soundhub.local", "Admin#2024", Role.ADMIN, UserStatus.ACTIVE);
-                addUser("marco", "marco@soundhub.local", "User#2024", Role.USER, UserStatus.ACTIVE);
-                addUser("alice", "alice@soundhub.local", "User#2024", Role.USER, UserStatus.ACTIVE);
-                addUser("pendingUser", "pending@soundhub.local", "User#2024", Role.USER, UserStatus.PENDING);
-            } catch (RuntimeException e) {
-                System.err.println("Impossible de créer les utilisateurs par défaut: " + e.getMessage());
-                System.err.println("Assurez-vous que la base de données est accessible et configurée.");
-            }
+            users.addAll(saveDefaultUsers());
         }
     }
 
-    private User addUser(String username, String email, String rawPassword, Role role, UserStatus status) {
+    // Vide si la base est inaccessible : l'application démarre sans utilisateurs
+    private List<User> saveDefaultUsers() {
+        try {
+            // Chaque hachage bcrypt coûte plusieurs dizaines de ms : ils sont calculés en parallèle
+            List<User> seeds = List.<Supplier<User>>of(
+                    () -> newUser("superadmin", "super@soundhub.local", "Super#2024", Role.SUPER_ADMIN, UserStatus.ACTIVE),
+                    () -> newUser("clara-admin", "clara@soundhub.local", "Admin#2024", Role.ADMIN, UserStatus.ACTIVE),
+                    () -> newUser("marco", "marco@soundhub.local", "User#2024", Role.USER, UserStatus.ACTIVE),
+                    () -> newUser("alice", "alice@soundhub.local", "User#2024", Role.USER, UserStatus.ACTIVE),
+                    () -> newUser("pendingUser", "pending@soundhub.local", "User#2024", Role.USER, UserStatus.PENDING))
+                    .parallelStream()
+                    .map(Supplier::get)
+                    .toList();
+            return userDAO.saveAll(seeds);
+        } catch (RuntimeException e) {
+            System.err.println("Impossible de créer les utilisateurs par défaut: " + e.getMessage());
+            System.err.println("Assurez-vous que la base de données est accessible et configurée.");
+            return List.of();
+        }
+    }
+
+    private User newUser(String username, String email, String rawPassword, Role role, UserStatus status) {
         if (!ValidationUtils.isValidEmail(email)) {
             throw new IllegalArgumentException("Email invalide");
         }
         String passwordHash = HashUtils.hashPassword(rawPassword);
-        User user = new User(0, username, email, passwordHash, role, status);
-        User savedUser = userDAO.save(user);
+        return new User(0, username, email, passwordHash, role, status);
+    }
+
+    private User addUser(String username, String email, String rawPassword, Role role, UserStatus status) {
+        User savedUser = userDAO.save(newUser(username, email, rawPassword, role, status));
         users.add(savedUser);
         return savedUser;
     }
@@ -67,19 +114,13 @@ public class UserService {
         ValidationUtils.require(ValidationUtils.isNotBlank(username), "Le nom d'utilisateur est requis.");
         ValidationUtils.require(ValidationUtils.isValidEmail(email), "Email invalide.");
         ValidationUtils.require(ValidationUtils.hasMinLength(password, 6), "Mot de passe trop court.");
-        ensureUnique(username, email);
-        return addUser(username, email, password, Role.USER, UserStatus.PENDING);
-    }
-
-    private void ensureUnique(String username, String email) {
-        // Vérifier si l'email existe déjà
-        if (userDAO.findByEmailOrUsername(email).isPresent()) {
-            throw new IllegalArgumentException("Cet email est déjà utilisé.");
-        }
-
-        // Vérifier si le nom d'utilisateur existe déjà
-        if (userDAO.findByEmailOrUsername(username).isPresent()) {
-            throw new IllegalArgumentException("Ce nom d'utilisateur est déjà pris.");
+        // Une seule insertion : les index uniques de la base refusent les doublons
+        try {
+            return addUser(username, email, password, Role.USER, UserStatus.PENDING);
+        } catch (UserRepository.DuplicateUserException e) {
+            throw new IllegalArgumentException(e.getField() == UserRepository.DuplicateUserException.Field.EMAIL
+                    ? "Cet email est déjà utilisé."
+                    : "Ce nom d'utilisateur est déjà pris.");
         }
     }
 
@@ -101,16 +142,109 @@ public class UserService {
 
     public void updateStatus(User user, UserStatus status) {
         Objects.requireNonNull(user, "Utilisateur requis");
+        UserStatus previous = user.getStatus();
         user.setStatus(status);
-        userDAO.save(user);
-        loadUsers(); // Recharger la liste
+        User saved;
+        try {
+            saved = userDAO.save(user);
+        } catch (RuntimeException e) {
+            // L'instance affichée ne garde pas un statut que la base n'a pas enregistré
+            user.setStatus(previous);
+            throw e;
+        }
+        replaceInCache(saved);
     }
 
     public void updateRole(User user, Role role) {
         Objects.requireNonNull(user, "Utilisateur requis");
+        Role previous = user.getRole();
         user.setRole(role);
-        userDAO.save(user);
-        loadUsers(); // Recharger la liste
+        User saved;
+        try {
+            saved = userDAO.save(user);
+        } catch (RuntimeException e) {
+            user.setRole(previous);
+            throw e;
+        }
+        replaceInCache(saved);
+    }
+
+    /**
+     * Lit tous les utilisateurs en base sans toucher au cache (utilisable hors du thread JavaFX).
+     */
+    public List<User> fetchUsers() {
+        // Par pages comme le catalogue (voir TrackService.fetchTracks)
+        List<User> loaded = new ArrayList<>();
+        int lastId = 0;
+        List<User> page;
+        do {
+            page = userDAO.findPage(lastId, PAGE_SIZE);
+            if (!page.isEmpty()) {
+                loaded.addAll(page);
+                lastId = page.getLast().getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+        return loaded;
+    }
+
+    /**
+     * Comme {@link #fetchUsers()}, en créant les utilisateurs par défaut si la base n'en contient
+     * aucun. Hachages et écritures : à appeler hors du thread JavaFX.
+     */
+    public List<User> fetchUsersOrSeed() {
+        List<User> fresh = fetchUsers();
+        return fresh.isEmpty() ? saveDefaultUsers() : fresh;
+    }
+
+    /**
+     * Remplace le cache par les utilisateurs lus en base avec {@link #fetchUsersOrSeed()} (thread JavaFX).
+     */
+    public void reconcile(List<User> freshUsers) {
+        users.setAll(freshUsers);
+    }
+
+    /**
+     * Recharge tous les utilisateurs depuis la base (à réserver aux resynchronisations explicites).
+     */
+    public void resync() {
+        loadUsers();
+    }
+
+    // Remplace l'élément en place : un seul changement "replace" est émis, les FilteredList
+    // ne réévaluent que cet élément au lieu de toute la liste
+    private void replaceInCache(User user) {
+        int index = positions.indexOf(user.getId());
+        if (index >= 0) {
+            users.set(index, user);
+        } else {
+            users.add(user);
+        }
+    }
+
+    // Retraits avant ajouts, comme TrackService
+    private void updateStatusCounts(ListChangeListener.Change<? extends User> change) {
+        while (change.next()) {
+            for (User removed : change.getRemoved()) {
+                statusCounts.remove(removed.getId());
+            }
+        }
+        change.reset();
+        while (change.next()) {
+            for (User added : change.getAddedSubList()) {
+                statusCounts.add(added.getId(), added.getStatus());
+            }
+        }
+    }
+
+    /**
+     * Utilisateurs du cache ayant ce statut, sans parcourir la liste (thread JavaFX).
+     */
+    public int countByStatus(UserStatus status) {
+        return statusCounts.count(status);
+    }
+
+    public long getVersion() {
+        return version.get();
     }
 
     public ObservableList<User> getUsers() {
@@ -0,0 +1,229 @@
+package service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Écritures différées : le cache est mis à jour tout de suite par l'appelant, la base plus tard.
+ * <p>
+ * Les opérations successives sur une même clé fusionnent : seul l'état final est écrit, et rien
+ * n'est écrit s'il revient à l'état déjà en base (ajout puis retrait = aucune requête).
+ * Les écritures en attente partent en un seul lot, sur un thread dédié, au plus tard
+ * {@code maxLagMillis} après la première d'entre elles ou dès que {@code maxPending} est atteint.
+ * <p>
+ * Un lot en échec est réessayé avec un délai qui double à chaque échec (plafonné à
+ * {@link #MAX_RETRY_DELAY_MILLIS}). Après {@link #MAX_ATTEMPTS} échecs consécutifs, les nouveaux
+ * essais automatiques s'arrêtent : l'erreur est remontée à l'écouteur d'échec et les changements
+ * restent en attente jusqu'au prochain {@link #flush()} explicite (lecture, déconnexion, fermeture).
+ */
+public class WriteBehindQueue<K, V> implements AutoCloseable {
+
+    static final int MAX_ATTEMPTS = 5;
+    static final long MAX_RETRY_DELAY_MILLIS = 60_000;
+
+    private final String name;
+    private final long maxLagMillis;
+    private final int maxPending;
+    private final Consumer<Map<K, V>> writer;
+    private final ScheduledExecutorService scheduler;
+    // Un seul lot à la fois : deux lots concurrents pourraient écrire une même clé dans le désordre
+    private final Object flushLock = new Object();
+
+    private Map<K, Pending<V>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean closed;
+    // Échecs consécutifs du dernier lot ; remis à zéro au premier lot écrit
+    private int failures;
+    private Consumer<RuntimeException> failureListener = error -> {
+    };
+
+    /**
+     * @param writer écrit un lot (clé → état final) ; appelé hors du thread JavaFX, une exception
+     *               remet le lot en attente pour un nouvel essai différé
+     */
+    public WriteBehindQueue(String name, long maxLagMillis, int maxPending, Consumer<Map<K, V>> writer) {
+        this.name = name;
+        this.maxLagMillis = maxLagMillis;
+        this.maxPending = maxPending;
+        this.writer = writer;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "soundhub-write-behind-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Appelé, sur le thread d'écriture, quand les essais automatiques s'arrêtent après
+     * {@link #MAX_ATTEMPTS} échecs consécutifs.
+     */
+    public synchronized void setFailureListener(Consumer<RuntimeException> failureListener) {
+        this.failureListener = Objects.requireNonNull(failureListener);
+    }
+
+    /**
+     * Enregistre l'état voulu pour une clé.
+     *
+     * @param persisted état de la clé avant ce changement (ignoré si un changement est déjà en attente)
+     */
+    public synchronized void put(K key, V persisted, V desired) {
+        if (closed) {
+            // Après fermeture, plus de thread d'écriture : on écrit directement
+            writer.accept(Map.of(key, desired));
+            return;
+        }
+        Pending<V> previous = pending.get(key);
+        V base = previous == null ? persisted : previous.persisted();
+        if (Objects.equals(base, desired)) {
+            pending.remove(key);
+        } else {
+            pending.put(key, new Pending<>(base, desired));
+        }
+        // Pendant un nouvel essai différé, un lot plein n'avance pas l'échéance
+        if (pending.size() >= maxPending && failures == 0) {
+            scheduler.execute(this::flush);
+        } else {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Écrit immédiatement tout ce qui est en attente (déconnexion, fermeture, lecture qui doit voir
+     * les dernières écritures).
+     */
+    public void flush() {
+        tryFlush();
+    }
+
+    /**
+     * Comme {@link #flush()}, sur le thread d'écriture : à appeler depuis le thread JavaFX.
+     *
+     * @return terminé quand le lot est écrit, en échec avec l'erreur d'écriture (les changements
+     * restent alors en attente)
+     */
+    public CompletableFuture<Void> flushAsync() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Runnable task = () -> {
+            RuntimeException error = tryFlush();
+            if (error == null) {
+                done.complete(null);
+            } else {
+                done.completeExceptionally(error);
+            }
+        };
+        try {
+            scheduler.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Déjà fermée : plus de thread d'écriture
+            task.run();
+        }
+        return done;
+    }
+
+    // Retourne l'erreur d'écriture, null si le lot est écrit ou s'il n'y avait rien à écrire
+    private RuntimeException tryFlush() {
+        synchronized (flushLock) {
+            Map<K, Pending<V>> batch;
+            synchronized (this) {
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+                if (pending.isEmpty()) {
+                    return null;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+            }
+
+            Map<K, V> writes = new LinkedHashMap<>();
+            batch.forEach((key, change) -> writes.put(key, change.desired()));
+            try {
+                writer.accept(writes);
+            } catch (RuntimeException e) {
+                requeue(batch, e);
+                return e;
+            }
+            synchronized (this) {
+                failures = 0;
+                // Les changements arrivés pendant un nouvel essai n'avaient pas été planifiés
+                scheduleFlush();
+            }
+            return null;
+        }
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+        scheduler.shutdownNow();
+        synchronized (this) {
+            if (!pending.isEmpty()) {
+                System.err.println("Écriture différée \"" + name + "\" : " + pending.size()
+                        + " changement(s) non enregistré(s) à la fermeture.");
+            }
+        }
+    }
+
+    // Remet un lot échoué devant les changements arrivés entre-temps, qui restent prioritaires
+    private void requeue(Map<K, Pending<V>> failed, RuntimeException error) {
+        Consumer<RuntimeException> listener;
+        synchronized (this) {
+            merge(failed);
+            failures++;
+            if (failures < MAX_ATTEMPTS) {
+                System.err.println("Écriture différée \"" + name + "\" échouée (" + failed.size()
+                        + " changement(s)), nouvel essai dans " + retryDelayMillis() + " ms: " + error.getMessage());
+                scheduleFlush();
+                return;
+            }
+            System.err.println("Écriture différée \"" + name + "\" échouée " + failures + " fois, " + pending.size()
+                    + " changement(s) en attente d'un enregistrement explicite: " + error.getMessage());
+            listener = failureListener;
+        }
+        listener.accept(error);
+    }
+
+    private void merge(Map<K, Pending<V>> failed) {
+        Map<K, Pending<V>> merged = new LinkedHashMap<>(failed);
+        pending.forEach((key, newer) -> {
+            Pending<V> older = merged.get(key);
+            V base = older == null ? newer.persisted() : older.persisted();
+            if (Objects.equals(base, newer.desired())) {
+                merged.remove(key);
+            } else {
+                merged.put(key, new Pending<>(base, newer.desired()));
+            }
+        });
+        pending = merged;
+    }
+
+    private void scheduleFlush() {
+        if (!closed && scheduledFlush == null && !pending.isEmpty() && failures < MAX_ATTEMPTS) {
+            scheduledFlush = scheduler.schedule(this::flush, retryDelayMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // maxLagMillis sans échec, puis doublé à chaque échec consécutif
+    private long retryDelayMillis() {
+        return Math.min(maxLagMillis << Math.min(failures, 20), Math.max(maxLagMillis, MAX_RETRY_DELAY_MILLIS));
+    }
+
+    private record Pending<V>(V persisted, V desired) {
+    }
+}
@@ -0,0 +1,94 @@
+package ui;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Démarrage de l'application en phases parallèles sur threads virtuels.
+ * <p>
+ * Chaque phase est un CompletableFuture : une phase qui a besoin du résultat d'une autre s'y
+ * enchaîne avec {@link #after}, les autres partent tout de suite. La durée de chaque phase et son
+ * départ (relatif au lancement) sont relevés pour le rapport de démarrage.
+ */
+public class Bootstrap implements AutoCloseable {
+
+    private final long startNanos;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, PhaseTiming> timings = new ConcurrentHashMap<>();
+
+    /**
+     * @param startNanos instant de référence ({@link System#nanoTime()}) pour les départs des phases
+     */
+    public Bootstrap(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    public <T> CompletableFuture<T> start(String phase, Callable<T> work) {
+        return CompletableFuture.supplyAsync(() -> timed(phase, work), executor);
+    }
+
+    /**
+     * Lance la phase quand {@code dependency} est terminée ; elle n'est pas lancée si la dépendance a échoué.
+     */
+    public <T> CompletableFuture<T> after(CompletableFuture<?> dependency, String phase, Callable<T> work) {
+        return dependency.thenApplyAsync(ignored -> timed(phase, work), executor);
+    }
+
+    /**
+     * Relève une phase exécutée ailleurs (sur le thread JavaFX par exemple), commencée à {@code beginNanos}.
+     */
+    public void record(String phase, long beginNanos) {
+        timings.put(phase, timing(phase, beginNanos, false));
+    }
+
+    public List<PhaseTiming> timings() {
+        List<PhaseTiming> sorted = new ArrayList<>(timings.values());
+        sorted.sort(Comparator.comparingLong(PhaseTiming::startMillis));
+        return sorted;
+    }
+
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (PhaseTiming timing : timings()) {
+            report.append(String.format("%n  %-20s départ %5d ms, durée %5d ms%s", timing.name(),
+                    timing.startMillis(), timing.durationMillis(), timing.failed() ? " (échec)" : ""));
+        }
+        return report.toString();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private <T> T timed(String phase, Callable<T> work) {
+        long begin = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = work.call();
+            failed = false;
+            return result;
+        } catch (Exception e) {
+            System.err.println("Phase de démarrage \"" + phase + "\" échouée: " + e.getMessage());
+            throw e instanceof RuntimeException runtime ? runtime : new CompletionException(e);
+        } finally {
+            timings.put(phase, timing(phase, begin, failed));
+        }
+    }
+
+    private PhaseTiming timing(String phase, long beginNanos, boolean failed) {
+        return new PhaseTiming(phase, (beginNanos - startNanos) / 1_000_000,
+                (System.nanoTime() - beginNanos) / 1_000_000, failed);
+    }
+
+    public record PhaseTiming(String name, long startMillis, long durationMillis, boolean failed) {
+    }
+}
@@ -0,0 +1,110 @@
+package ui;
+
+import javafx.application.Platform;
+import utils.MediaStore;
+
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Copie des fichiers déposés vers le magasin media sans bloquer le thread JavaFX.
+ * <p>
+ * Les copies passent l'une après l'autre sur un thread dédié. L'avancement est publié sur le
+ * thread JavaFX au plus une fois par image : tant qu'une publication est en attente, les suivantes
+ * la remplacent au lieu de s'empiler. Une copie annulée ne laisse aucun fichier (voir MediaStore).
+ */
+public class MediaIngestion implements AutoCloseable {
+
+    private final MediaStore mediaStore;
+    private final Executor progressExecutor;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "soundhub-ingestion");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MediaIngestion(MediaStore mediaStore) {
+        this(mediaStore, Platform::runLater);
+    }
+
+    /**
+     * @param progressExecutor thread de publication de l'avancement (le thread JavaFX hors tests)
+     */
+    MediaIngestion(MediaStore mediaStore, Executor progressExecutor) {
+        this.mediaStore = mediaStore;
+        this.progressExecutor = progressExecutor;
+    }
+
+    /**
+     * Lance la copie de {@code source}.
+     *
+     * @param onProgress appelé sur le thread JavaFX pendant la copie
+     */
+    public Ingestion ingest(Path source, Consumer<Progress> onProgress) {
+        CompletableFuture<MediaStore.StoredMedia> result = new CompletableFuture<>();
+        AtomicReference<Progress> pending = new AtomicReference<>();
+        Future<?> task = executor.submit(() -> {
+            long start = System.nanoTime();
+            try {
+                MediaStore.StoredMedia stored = mediaStore.store(source, (copied, total) -> {
+                    double seconds = Math.max(System.nanoTime() - start, 1) / 1_000_000_000d;
+                    if (pending.getAndSet(new Progress(copied, total, copied / seconds)) == null) {
+                        progressExecutor.execute(() -> onProgress.accept(pending.getAndSet(null)));
+                    }
+                });
+                System.out.println("Fichier " + source.getFileName() + " rangé en "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms" + (stored.deduplicated() ? " (déjà présent)" : ""));
+                if (!result.complete(stored)) {
+                    // Annulée pendant le déplacement final : aucun track ne sera soumis, la référence provisoire est rendue
+                    mediaStore.discardIfUnreferenced(stored.path());
+                }
+            } catch (ClosedByInterruptException e) {
+                result.completeExceptionally(new CancellationException("Copie annulée"));
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return new Ingestion(result, task);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Copie en cours ou terminée.
+     *
+     * @param result fichier rangé ; en échec avec CancellationException si la copie a été annulée
+     */
+    public record Ingestion(CompletableFuture<MediaStore.StoredMedia> result, Future<?> task) {
+
+        /**
+         * Interrompt la copie ; le fichier temporaire est supprimé.
+         */
+        public void cancel() {
+            if (task.cancel(true)) {
+                // Tranché tout de suite, que la copie n'ait pas démarré ou soit en train de s'interrompre
+                result.completeExceptionally(new CancellationException("Copie annulée"));
+            }
+        }
+    }
+
+    /**
+     * @param bytesPerSecond débit moyen depuis le début de la copie
+     */
+    public record Progress(long copiedBytes, long totalBytes, double bytesPerSecond) {
+
+        public double fraction() {
+            return totalBytes == 0 ? 1 : (double) copiedBytes / totalBytes;
+        }
+    }
+}
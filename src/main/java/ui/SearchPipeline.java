@@ -0,0 +1,127 @@
+package ui;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.util.Duration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Relie un champ de recherche aux services sans bloquer le thread JavaFX.
+ * <p>
+ * Les frappes sont regroupées (anti-rebond), la recherche tourne sur un thread dédié, une requête
+ * dépassée est annulée et seul le résultat de la dernière requête est publié sur le thread JavaFX.
+ */
+public class SearchPipeline<R> implements AutoCloseable {
+
+    private static final long SLOW_RENDER_MILLIS = 100;
+
+    private final PauseTransition debounce;
+    private final Function<String, R> search;
+    private final BiConsumer<String, R> publish;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "soundhub-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong generation = new AtomicLong();
+    private Future<?> running;
+    private String pendingQuery = "";
+
+    // Lus et écrits sur le thread JavaFX
+    private long renders;
+    private long totalLatencyNanos;
+    private long lastLatencyNanos;
+
+    /**
+     * @param search  calcul exécuté hors du thread JavaFX
+     * @param publish application du résultat, appelée sur le thread JavaFX en une seule fois
+     */
+    public SearchPipeline(Duration delay, Function<String, R> search, BiConsumer<String, R> publish) {
+        this.search = search;
+        this.publish = publish;
+        this.debounce = new PauseTransition(delay);
+        this.debounce.setOnFinished(event -> dispatch());
+    }
+
+    /**
+     * À appeler depuis le thread JavaFX à chaque frappe.
+     */
+    public void submit(String query) {
+        pendingQuery = query == null ? "" : query;
+        debounce.playFromStart();
+    }
+
+    /**
+     * Relance immédiatement la dernière requête (après un ajout au catalogue par exemple).
+     */
+    public void refresh() {
+        debounce.stop();
+        dispatch();
+    }
+
+    private void dispatch() {
+        String query = pendingQuery;
+        long ticket = generation.incrementAndGet();
+        // Mesuré à la fin de l'anti-rebond : le délai volontaire n'est pas compté comme une lenteur
+        long startedAt = System.nanoTime();
+        if (running != null) {
+            running.cancel(true);
+        }
+        running = executor.submit(() -> {
+            R result = search.apply(query);
+            if (Thread.currentThread().isInterrupted() || generation.get() != ticket) {
+                return;
+            }
+            Platform.runLater(() -> {
+                // Une requête plus récente a pu partir entre-temps : on ignore ce résultat périmé
+                if (generation.get() != ticket) {
+                    return;
+                }
+                publish.accept(query, result);
+                running = null;
+                recordLatency(query, System.nanoTime() - startedAt);
+            });
+        });
+    }
+
+    private void recordLatency(String query, long nanos) {
+        renders++;
+        totalLatencyNanos += nanos;
+        lastLatencyNanos = nanos;
+        long millis = nanos / 1_000_000;
+        if (millis > SLOW_RENDER_MILLIS) {
+            System.err.println("Recherche lente : \"" + query + "\" affichée " + millis + " ms après l'anti-rebond");
+        }
+    }
+
+    /**
+     * Temps entre la fin de l'anti-rebond et l'affichage des recherches publiées (thread JavaFX).
+     */
+    public LatencyStats latencyStats() {
+        return new LatencyStats(renders,
+                lastLatencyNanos / 1_000_000.0,
+                renders == 0 ? 0 : totalLatencyNanos / (double) renders / 1_000_000.0);
+    }
+
+    @Override
+    public void close() {
+        LatencyStats stats = latencyStats();
+        if (stats.renders() > 0) {
+            System.out.printf("Recherche : %d affichages, %.1f ms en moyenne, dernier en %.1f ms%n",
+                    stats.renders(), stats.averageMillis(), stats.lastMillis());
+        }
+        debounce.stop();
+        generation.incrementAndGet();
+        executor.shutdownNow();
+    }
+
+    public record LatencyStats(long renders, double lastMillis, double averageMillis) {
+    }
+}
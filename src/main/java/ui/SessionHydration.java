@@ -0,0 +1,83 @@
+package ui;
+
+import javafx.application.Platform;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Chargements d'une session (après la connexion), lancés en parallèle sur threads virtuels.
+ * <p>
+ * Chaque chargement lit sur un thread virtuel puis publie son résultat sur le thread JavaFX :
+ * l'écran se remplit au fur et à mesure. Un chargement de même clé déjà en cours est partagé au
+ * lieu d'être relancé. Tous sont liés à la session : {@link #close()} (déconnexion) annule ceux
+ * qui ne sont pas terminés et aucun résultat n'est plus publié.
+ */
+public class SessionHydration implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * @param key   identifie le chargement : deux appels de même clé en cours partagent le même résultat
+     * @param fetch lecture, exécutée hors du thread JavaFX
+     * @param apply publication du résultat, exécutée sur le thread JavaFX avant que le futur ne se termine
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> load(String key, Callable<T> fetch, Consumer<T> apply) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new CancellationException("Session terminée"));
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<?> running = inFlight.putIfAbsent(key, result);
+        if (running != null) {
+            return (CompletableFuture<T>) running;
+        }
+
+        CompletableFuture.supplyAsync(() -> call(fetch), executor)
+                .thenApplyAsync(value -> {
+                    if (closed) {
+                        throw new CancellationException("Session terminée");
+                    }
+                    apply.accept(value);
+                    return value;
+                }, Platform::runLater)
+                .whenComplete((value, error) -> {
+                    inFlight.remove(key, result);
+                    if (error == null) {
+                        result.complete(value);
+                    } else {
+                        if (!closed) {
+                            System.err.println("Chargement \"" + key + "\" échoué: " + error.getMessage());
+                        }
+                        result.completeExceptionally(error);
+                    }
+                });
+        return result;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        inFlight.values().forEach(future -> future.cancel(true));
+        executor.shutdownNow();
+    }
+
+    private static <T> T call(Callable<T> fetch) {
+        try {
+            return fetch.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+}
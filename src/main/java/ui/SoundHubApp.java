@@ -1,6 +1,7 @@
 package ui;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.Scene;
 import javafx.stage.Screen;
@@ -8,22 +9,32 @@ import javafx.stage.Stage;
 import model.User;
 import ui.views.DashboardView;
 import ui.views.LoginView;
+import utils.DBConnection;
 
 import java.net.URL;
 
 public class SoundHubApp extends Application {
 
-    private final SoundHubController controller = new SoundHubController();
+    // Référence du temps jusqu'à l'écran de connexion (chargement du catalogue compris)
+    private static final long LAUNCH_NANOS = System.nanoTime();
+
+    private final SoundHubController controller = new SoundHubController(LAUNCH_NANOS);
     private Stage primaryStage;
 
     @Override
     public void start(Stage stage) {
+        long windowStart = System.nanoTime();
         this.primaryStage = stage;
         stage.setTitle("SoundHub");
         stage.setResizable(true);
         showLoginView();
         stage.centerOnScreen();
         stage.show();
+
+        // L'écran de connexion n'attend pas les données ; la resynchronisation part quand le catalogue est prêt
+        controller.recordStartupPhase("écran de connexion", windowStart);
+        System.out.println("Écran de connexion affiché en " + (System.nanoTime() - LAUNCH_NANOS) / 1_000_000 + " ms");
+        controller.catalogReady().thenRunAsync(controller::syncCatalogInBackground, Platform::runLater);
     }
 
     private void showLoginView() {
@@ -43,6 +54,11 @@ public class SoundHubApp extends Application {
     }
 
     private void showDashboardView(User user) {
+        if (!controller.catalogReady().isDone()) {
+            // Connexion plus rapide que le chargement du catalogue : le tableau de bord s'ouvre dès qu'il est prêt
+            controller.catalogReady().thenRunAsync(() -> showDashboardView(user), Platform::runLater);
+            return;
+        }
         DashboardView dashboardView = new DashboardView(controller, user, this::showLoginView);
         
         // Calculer la taille adaptée à l'écran
@@ -68,6 +84,13 @@ public class SoundHubApp extends Application {
         }
     }
 
+    @Override
+    public void stop() {
+        // Vide les écritures différées tant que le pool est ouvert, puis ferme ses connexions physiques
+        controller.shutdown();
+        DBConnection.shutdown();
+    }
+
     public static void main(String[] args) {
         launch();
     }
@@ -1,35 +1,179 @@
 package ui;
 
+import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
-import model.User;
+import model.*;
 import service.FavoriteService;
 import service.PlaylistService;
 import service.TrackService;
 import service.UserService;
 import dao.*; // Import nécessaire pour les classes DAO
 
+import utils.DBConnection;
+import utils.FileUtils;
+import utils.MediaStore;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 public class SoundHubController {
 
     private final UserService userService;
     private final TrackService trackService;
     private final PlaylistService playlistService;
     private final FavoriteService favoriteService;
+    private final MediaStore mediaStore = MediaStore.defaultStore();
+    private final MediaIngestion mediaIngestion = new MediaIngestion(mediaStore);
+    private final boolean embeddedStorage;
     private final ObjectProperty<User> currentUser = new SimpleObjectProperty<>();
 
-    public SoundHubController() {
-        // Initialisation des DAOs nécessaires pour les dépendances
-        UserDAO userDAO = new UserDAO();
-        TrackDAO trackDAO = new TrackDAO(userDAO);
-        PlaylistDAO playlistDAO = new PlaylistDAO(userDAO, trackDAO); // Instanciation du PlaylistDAO
-        FavoriteDAO favoriteDAO = new FavoriteDAO(userDAO, trackDAO);
+    private final Bootstrap bootstrap;
+    private final CompletableFuture<Boolean> registrationReady;
+    private final CompletableFuture<Void> catalogReady;
+    private volatile boolean warmStart;
+
+    // Chargements de la session en cours (null hors connexion)
+    private SessionHydration hydration;
+    private Session session;
+
+    /**
+     * Construit les services sans rien charger puis lance l'amorçage en parallèle : la fenêtre peut
+     * s'afficher tout de suite, les écrans qui ont besoin des données attendent {@link #catalogReady()}.
+     *
+     * @param launchNanos lancement de l'application, référence des durées de démarrage
+     */
+    public SoundHubController(long launchNanos) {
+        // Les instances affichées ne sont modifiées que sur le thread JavaFX, même relues en arrière-plan
+        EntityCache.setRefreshExecutor(Platform::runLater);
+
+        // Dépôts partagés par les services : MySQL ou mémoire selon -Dsoundhub.storage
+        Repositories repositories = Repositories.fromConfiguration();
+        this.embeddedStorage = repositories.embedded();
 
         // Initialisation des Services
-        this.userService = new UserService();
-        this.trackService = new TrackService(userService);
-        // MODIFICATION ICI: Passage de l'instance de PlaylistDAO
-        this.playlistService = new PlaylistService(playlistDAO);
-        this.favoriteService = new FavoriteService(favoriteDAO);
+        this.userService = new UserService(repositories.users());
+        this.trackService = new TrackService(repositories.tracks(), repositories.albums(), userService, mediaStore);
+        this.playlistService = new PlaylistService(repositories.playlists());
+        this.favoriteService = new FavoriteService(repositories.favorites());
+
+        // Amorçage : pool, dossier media et instantané local partent ensemble ; utilisateurs et tracks
+        // se chargent en parallèle dès que l'instantané est lu (depuis la base s'il n'existe pas)
+        // En mémoire, ni pool, ni schéma, ni instantané : le stockage part vide et se remplit des données par défaut
+        this.bootstrap = new Bootstrap(launchNanos);
+        CompletableFuture<Void> pool = embeddedStorage ? CompletableFuture.completedFuture(null) : bootstrap.start("pool", () -> {
+            // Ouvre la première connexion physique (réseau + authentification) avant qu'on en ait besoin
+            DBConnection.getConnection().close();
+            return null;
+        });
+        // Migrations du schéma : requises avant toute écriture de track et avant une inscription
+        CompletableFuture<Void> schema = embeddedStorage ? pool : bootstrap.after(pool, "schéma", () -> {
+            new SchemaMigrations().migrate();
+            return null;
+        });
+        CompletableFuture<Void> media = bootstrap.start("dossier media", () -> {
+            FileUtils.createMediaDirectory();
+            return null;
+        });
+        CompletableFuture<Optional<CatalogSnapshot>> snapshot = embeddedStorage
+                ? CompletableFuture.completedFuture(Optional.empty())
+                : bootstrap.start("instantané", CatalogSnapshot::read);
+        CompletableFuture<Void> users = bootstrap.after(snapshot, "utilisateurs", () -> {
+            warmStart = snapshot.join().isPresent();
+            userService.initialize(snapshot.join().map(CatalogSnapshot::getUsers).orElse(List.of()));
+            return null;
+        });
+        CompletableFuture<Void> tracks = bootstrap.after(snapshot, "tracks", () -> {
+            trackService.initialize(snapshot.join().map(CatalogSnapshot::getTracks).orElse(List.of()));
+            return null;
+        });
+        CompletableFuture<Void> seed = bootstrap.after(CompletableFuture.allOf(users, tracks, schema), "tracks par défaut", () -> {
+            trackService.seedIfEmpty();
+            return null;
+        });
+
+        // Une phase en échec a déjà été signalée : l'application démarre avec ce qu'elle a
+        // Sans migration, l'unicité du nom d'utilisateur n'est pas garantie par la base : inscriptions fermées
+        this.registrationReady = CompletableFuture.allOf(users, schema).handle((result, error) -> !schema.isCompletedExceptionally());
+        this.catalogReady = seed.handle((result, error) -> null);
+        CompletableFuture.allOf(pool, schema, media, seed).whenComplete((result, error) -> {
+            System.out.println("Démarrage " + (warmStart ? "à chaud" : "à froid") + " :" + bootstrap.report());
+            bootstrap.close();
+        });
+    }
+
+    /**
+     * Terminé (jamais en échec) quand les utilisateurs sont chargés et le schéma migré : true si
+     * les inscriptions sont ouvertes (unicité garantie par la base), false si la migration a échoué.
+     */
+    public CompletableFuture<Boolean> registrationReady() {
+        return registrationReady;
+    }
+
+    /**
+     * Terminé (jamais en échec) quand utilisateurs et tracks sont chargés : le tableau de bord peut s'afficher.
+     */
+    public CompletableFuture<Void> catalogReady() {
+        return catalogReady;
+    }
+
+    /**
+     * Relève une phase de démarrage exécutée sur le thread JavaFX (affichage de la fenêtre).
+     */
+    public void recordStartupPhase(String phase, long beginNanos) {
+        bootstrap.record(phase, beginNanos);
+    }
+
+    /**
+     * true si le catalogue affiché vient de l'instantané local et n'a pas encore été relu en base.
+     */
+    public boolean isWarmStart() {
+        return warmStart;
+    }
+
+    /**
+     * À appeler depuis le thread JavaFX une fois le catalogue prêt. Au démarrage à chaud, relit
+     * utilisateurs et tracks en base hors du thread JavaFX puis remplace le cache ; dans tous les cas
+     * l'instantané local est réécrit avec le catalogue à jour, copié sur le thread JavaFX.
+     */
+    public void syncCatalogInBackground() {
+        if (embeddedStorage) {
+            // L'instantané reflète la base MySQL : le stockage en mémoire ne le lit ni ne l'écrit
+            return;
+        }
+        if (!warmStart) {
+            writeSnapshotInBackground(CatalogSnapshot.Content.capture(userService.getUsers(), trackService.getTracks()));
+            return;
+        }
+
+        Thread.ofVirtual().name("soundhub-catalog-sync").start(() -> {
+            try {
+                long start = System.nanoTime();
+                // Données par défaut créées ici si la base est vide : le thread JavaFX ne fait que remplacer les listes
+                List<User> freshUsers = userService.fetchUsersOrSeed();
+                List<Track> freshTracks = trackService.fetchTracksOrSeed(freshUsers);
+                // Les mises à jour des instances affichées, planifiées pendant la lecture, passent avant
+                // ce runLater : le catalogue copié après le remplacement des listes est celui de la base
+                Platform.runLater(() -> {
+                    userService.reconcile(freshUsers);
+                    trackService.reconcile(freshTracks);
+                    writeSnapshotInBackground(CatalogSnapshot.Content.capture(userService.getUsers(), trackService.getTracks()));
+                });
+                System.out.println("Catalogue resynchronisé avec la base en " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            } catch (RuntimeException e) {
+                System.err.println("Resynchronisation du catalogue impossible, l'instantané local reste affiché: " + e.getMessage());
+            }
+        });
+    }
+
+    private static void writeSnapshotInBackground(CatalogSnapshot.Content content) {
+        if (content.isEmpty()) {
+            return;
+        }
+        Thread.ofVirtual().name("soundhub-catalog-snapshot").start(() -> CatalogSnapshot.write(content));
     }
 
     public LoginResult login(String login, String password) {
@@ -37,9 +181,9 @@ public class SoundHubController {
             User user = userService.authenticate(login, password);
             currentUser.set(user);
 
-            // IMPORTANT : Charger les playlists et favoris APRES le login
-            favoriteService.loadFavorites(user);
-            playlistService.getPlaylists(user); // Force le chargement/mise en cache des playlists
+            // IMPORTANT : Charger les playlists et favoris APRES le login, en parallèle pendant
+            // l'ouverture du tableau de bord qui s'affiche au fur et à mesure
+            startSession(user);
 
             return new LoginResult(true, user, "Connexion réussie.");
         } catch (RuntimeException ex) {
@@ -50,6 +194,9 @@ public class SoundHubController {
     // ... (Reste de la classe inchangé) ...
 
     public LoginResult register(String username, String email, String password) {
+        if (!registrationReady.getNow(false)) {
+            return new LoginResult(false, null, "Inscriptions indisponibles : la base de données n'est pas à jour.");
+        }
         try {
             User user = userService.registerUser(username, email, password);
             String message = "Compte créé. Merci d'attendre la validation par un ADMIN.";
@@ -59,8 +206,92 @@ public class SoundHubController {
         }
     }
 
-    public void logout() {
+    /**
+     * Ferme la session ; les écritures différées de la session partent hors du thread JavaFX.
+     *
+     * @return terminé quand elles sont enregistrées, en échec si certaines n'ont pas pu l'être
+     * (elles restent en attente et repartiront à la fermeture)
+     */
+    public CompletableFuture<Void> logout() {
+        closeSession();
         currentUser.set(null);
+        return CompletableFuture.allOf(favoriteService.flushPendingWritesAsync(), playlistService.flushPendingWritesAsync());
+    }
+
+    /**
+     * Appelé sur le thread JavaFX quand des favoris ou des playlists ne peuvent plus être enregistrés
+     * après plusieurs essais.
+     */
+    public void setOnWriteFailure(Consumer<RuntimeException> handler) {
+        Consumer<RuntimeException> onFxThread = error -> Platform.runLater(() -> handler.accept(error));
+        favoriteService.setWriteFailureListener(onFxThread);
+        playlistService.setWriteFailureListener(onFxThread);
+    }
+
+    /**
+     * Enregistre les écritures en attente et arrête leurs threads (fermeture de l'application).
+     */
+    public void shutdown() {
+        favoriteService.close();
+        playlistService.close();
+        mediaIngestion.close();
+    }
+
+    /**
+     * Chargements de la session ouverte par {@link #login}, chacun terminé après publication de son résultat.
+     */
+    public Session getSession() {
+        return session;
+    }
+
+    /**
+     * Albums populaires, lus en base avec leurs agrégats stockés hors du thread JavaFX.
+     * À appeler depuis le thread JavaFX ; annulé hors session.
+     */
+    public CompletableFuture<List<Album>> loadPopularAlbums() {
+        SessionHydration current = hydration;
+        if (current == null) {
+            return CompletableFuture.failedFuture(new CancellationException("Aucune session"));
+        }
+        return current.load("albums@" + trackService.getVersion(), trackService::getPopularAlbums, albums -> { });
+    }
+
+    /**
+     * Tracks et utilisateurs en attente de modération, lus dans les compteurs tenus à jour par les
+     * services : à appeler depuis le thread JavaFX.
+     */
+    public ModerationCounts getModerationCounts() {
+        return new ModerationCounts(trackService.countByStatus(TrackStatus.PENDING),
+                userService.countByStatus(UserStatus.PENDING));
+    }
+
+    private void startSession(User user) {
+        closeSession();
+        SessionHydration current = new SessionHydration();
+        hydration = current;
+        CompletableFuture<List<Favorite>> favorites = current.load("favoris:" + user.getId(),
+                () -> favoriteService.fetchFavorites(user), favoriteService::applyFavorites);
+        CompletableFuture<List<Playlist>> playlists = current.load("playlists:" + user.getId(),
+                () -> playlistService.fetchPlaylists(user), loaded -> playlistService.cachePlaylists(user, loaded));
+        // Albums et compteurs attendent le catalogue, et ne partent que si la session est toujours ouverte
+        CompletableFuture<List<Album>> popularAlbums = catalogReady.thenComposeAsync(ignored -> hydration == current
+                ? loadPopularAlbums()
+                : CompletableFuture.failedFuture(new CancellationException("Session terminée")), Platform::runLater);
+        CompletableFuture<ModerationCounts> moderationCounts = catalogReady.thenApplyAsync(ignored -> {
+            if (hydration != current) {
+                throw new CancellationException("Session terminée");
+            }
+            return getModerationCounts();
+        }, Platform::runLater);
+        session = new Session(favorites, playlists, popularAlbums, moderationCounts);
+    }
+
+    private void closeSession() {
+        if (hydration != null) {
+            hydration.close();
+            hydration = null;
+            session = null;
+        }
     }
 
     public UserService getUserService() {
@@ -71,6 +302,14 @@ public class SoundHubController {
         return trackService;
     }
 
+    public MediaStore getMediaStore() {
+        return mediaStore;
+    }
+
+    public MediaIngestion getMediaIngestion() {
+        return mediaIngestion;
+    }
+
     public PlaylistService getPlaylistService() {
         return playlistService;
     }
@@ -85,4 +324,13 @@ public class SoundHubController {
 
     public record LoginResult(boolean success, User user, String message) {
     }
+
+    public record Session(CompletableFuture<List<Favorite>> favorites,
+                          CompletableFuture<List<Playlist>> playlists,
+                          CompletableFuture<List<Album>> popularAlbums,
+                          CompletableFuture<ModerationCounts> moderationCounts) {
+    }
+
+    public record ModerationCounts(long pendingTracks, long pendingUsers) {
+    }
 }
\ No newline at end of file
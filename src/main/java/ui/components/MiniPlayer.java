@@ -5,18 +5,19 @@ import javafx.geometry.Pos;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.Slider;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
-import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 import javafx.util.Duration;
 import model.Track;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import service.PlayQueue;
 
-import java.io.File;
+import java.util.List;
 
 public class MiniPlayer extends VBox {
 
@@ -26,19 +27,59 @@ public class MiniPlayer extends VBox {
     private final Label elapsedLabel = new Label("00:00");
     private final Label totalLabel = new Label("00:00");
 
-    private Track currentTrack;
-    private double trackDurationSeconds = 0d;
-    private MediaPlayer mediaPlayer;
+    // Nombre de morceaux suivants ouverts à l'avance pour un enchaînement sans blanc
+    private static final int PRELOAD_COUNT = 1;
+    // Fondu enchaîné entre deux morceaux de la file, en ms (-Dsoundhub.player.crossfade) ; 0 : enchaînement sec
+    private static final long CROSSFADE_MILLIS = Long.getLong("soundhub.player.crossfade", 0);
+    // Taille de la fenêtre de la file exposée à l'interface
+    private static final int QUEUE_WINDOW = 50;
 
-    // Gestion de la file d'attente (Queue)
-    private ObservableList<Track> queue = FXCollections.observableArrayList();
-    private int currentTrackIndex = -1;
+    private Track currentTrack;
+    private final PlaybackEngine engine = new PlaybackEngine(PRELOAD_COUNT);
 
+    // Gestion de la file d'attente (Queue) : l'interface ne voit que les prochains morceaux
+    private final PlayQueue queue = new PlayQueue();
+    private final ObservableList<Track> upcoming = FXCollections.observableArrayList();
+    private final Button repeatButton = new Button("🔁");
 
     public MiniPlayer() {
         setPadding(new Insets(8));
         setSpacing(6);
         getStyleClass().add("mini-player");
+        engine.setVolume(volumeSlider.getValue() / 100.0);
+        engine.setCrossfade(Duration.millis(CROSSFADE_MILLIS));
+        engine.setListener(new PlaybackEngine.Listener() {
+            @Override
+            public void trackStarted(Track track, Duration totalDuration) {
+                double duration = totalDuration.toSeconds();
+                progressSlider.setMax(duration);
+                totalLabel.setText(formatSeconds(duration));
+            }
+
+            @Override
+            public void timeChanged(Duration time) {
+                if (!progressSlider.isValueChanging() && !progressSlider.isPressed()) {
+                    progressSlider.setValue(time.toSeconds());
+                }
+                elapsedLabel.setText(formatSeconds(time.toSeconds()));
+            }
+
+            @Override
+            public void advance(boolean endOfMedia) {
+                if (queue.getRepeat() == PlayQueue.Repeat.ONE) {
+                    // Pas de fondu sur soi-même : le morceau repart à sa fin
+                    if (endOfMedia) {
+                        engine.seek(Duration.ZERO);
+                        engine.play();
+                    }
+                    return;
+                }
+                if (!endOfMedia && queue.remaining() == 0 && queue.getRepeat() == PlayQueue.Repeat.OFF) {
+                    return; // Dernier morceau : il va jusqu'au bout
+                }
+                queue.advance().ifPresentOrElse(MiniPlayer.this::start, MiniPlayer.this::stop);
+            }
+        });
         build();
     }
 
@@ -50,26 +91,16 @@ public class MiniPlayer extends VBox {
                 elapsedLabel.setText(formatSeconds(newVal.doubleValue())));
 
         // Gère l'avance/retour rapide (Seeking)
-        progressSlider.setOnMousePressed(event -> {
-            if (mediaPlayer != null) {
-                mediaPlayer.pause(); // Pause pendant le drag
-            }
-        });
+        progressSlider.setOnMousePressed(event -> engine.pause()); // Pause pendant le drag
 
         progressSlider.setOnMouseReleased(event -> {
-            if (mediaPlayer != null) {
-                double newTime = progressSlider.getValue();
-                mediaPlayer.seek(Duration.seconds(newTime));
-                mediaPlayer.play(); // Reprendre la lecture
-            }
+            engine.seek(Duration.seconds(progressSlider.getValue()));
+            engine.play(); // Reprendre la lecture
         });
 
         // Gère le volume
-        volumeSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
-            if (mediaPlayer != null) {
-                mediaPlayer.setVolume(newVal.doubleValue() / 100.0);
-            }
-        });
+        volumeSlider.valueProperty().addListener((obs, oldVal, newVal) ->
+                engine.setVolume(newVal.doubleValue() / 100.0));
 
 
         // Boutons de contrôle
@@ -137,7 +168,19 @@ public class MiniPlayer extends VBox {
         barsRow.setAlignment(Pos.CENTER);
         HBox.setHgrow(barsRow.getChildren().get(1), Priority.ALWAYS);
         
-        HBox actions = new HBox(6, prevButton, playButton, pauseButton, nextButton, stopButton);
+        ToggleButton shuffleButton = new ToggleButton("🔀");
+        shuffleButton.getStyleClass().add("player-control-button");
+        shuffleButton.getStyleClass().add("shuffle-button");
+        shuffleButton.setOnAction(event -> {
+            queue.setShuffle(shuffleButton.isSelected());
+            refreshUpcoming();
+        });
+
+        repeatButton.getStyleClass().add("player-control-button");
+        repeatButton.getStyleClass().add("repeat-button");
+        repeatButton.setOnAction(event -> cycleRepeat());
+
+        HBox actions = new HBox(6, shuffleButton, prevButton, playButton, pauseButton, nextButton, stopButton, repeatButton);
         actions.setAlignment(Pos.CENTER);
         
         // Centrer le titre aussi
@@ -148,99 +191,118 @@ public class MiniPlayer extends VBox {
 
 
     public void loadTrack(Track track) {
-        loadQueue(FXCollections.observableArrayList(track), 0);
+        loadQueue(List.of(track), 0);
     }
 
-
-
-    public void loadQueue(ObservableList<Track> tracks, int startIndex) {
-        // Arrête proprement l'ancien MediaPlayer
-        if (mediaPlayer != null) {
-            mediaPlayer.stop();
-            mediaPlayer.dispose();
+    /**
+     * Remplace la file d'attente et lance le morceau {@code startIndex}.
+     */
+    public void loadQueue(List<Track> tracks, int startIndex) {
+        Track first = queue.load(tracks, startIndex);
+        if (first == null) {
+            stop();
+            refreshUpcoming();
+            return;
         }
+        start(first);
+    }
 
-        this.queue = FXCollections.observableArrayList(tracks);
-        this.currentTrackIndex = startIndex;
-
-        if (queue.isEmpty()) return;
-
-        currentTrack = queue.get(currentTrackIndex);
-        nowPlaying.setText(currentTrack.getTitle() + " • " + currentTrack.getArtistName());
+    /**
+     * Ajoute le morceau en fin de file.
+     */
+    public void enqueue(Track track) {
+        queue.append(track);
+        refreshUpcoming();
+    }
 
-        File file = new File(currentTrack.getFilePath());
-        Media media = new Media(file.toURI().toString());
-        mediaPlayer = new MediaPlayer(media);
+    /**
+     * Insère le morceau juste après celui en cours.
+     */
+    public void playAfterCurrent(Track track) {
+        queue.playNext(track);
+        refreshUpcoming();
+    }
 
-        mediaPlayer.setVolume(volumeSlider.getValue() / 100.0);
+    /**
+     * Prochains morceaux de la file (au plus {@value #QUEUE_WINDOW}), en lecture seule.
+     */
+    public ObservableList<Track> getUpcoming() {
+        return FXCollections.unmodifiableObservableList(upcoming);
+    }
 
-        mediaPlayer.setOnReady(() -> {
-            double duration = media.getDuration().toSeconds();
-            progressSlider.setMax(duration);
-            totalLabel.setText(formatSeconds(duration));
-            mediaPlayer.play();
-        });
+    private void start(Track track) {
+        currentTrack = track;
+        nowPlaying.setText(currentTrack.getTitle() + " • " + currentTrack.getArtistName());
+        engine.start(currentTrack);
+        refreshUpcoming();
+    }
 
-        mediaPlayer.setOnEndOfMedia(this::playNext);
+    private void refreshUpcoming() {
+        List<Track> next = queue.upcoming(QUEUE_WINDOW);
+        upcoming.setAll(next);
+        // Le suivant s'ouvre pendant la lecture du courant
+        if (currentTrack != null) {
+            engine.preload(next.subList(0, Math.min(PRELOAD_COUNT, next.size())));
+        }
+    }
 
-        mediaPlayer.currentTimeProperty().addListener((obs, oldTime, newTime) -> {
-            progressSlider.setValue(newTime.toSeconds());
-            elapsedLabel.setText(formatSeconds(newTime.toSeconds()));
-        });
+    private void cycleRepeat() {
+        PlayQueue.Repeat repeat = switch (queue.getRepeat()) {
+            case OFF -> PlayQueue.Repeat.ALL;
+            case ALL -> PlayQueue.Repeat.ONE;
+            case ONE -> PlayQueue.Repeat.OFF;
+        };
+        queue.setRepeat(repeat);
+        repeatButton.setText(repeat == PlayQueue.Repeat.ONE ? "🔂" : "🔁");
+        repeatButton.getStyleClass().remove("active");
+        if (repeat != PlayQueue.Repeat.OFF) {
+            repeatButton.getStyleClass().add("active");
+        }
     }
 
     // Méthode 'play' simplifiée et corrigée
     public void play() {
-        if (mediaPlayer == null) {
+        if (engine.getCurrentPlayer() == null) {
             nowPlaying.setText("Choisis un morceau pour lancer la lecture");
             return;
         }
         // Si le MediaPlayer est chargé, on joue. Le statut UNKNOWN passera à READY puis PLAYING.
-        mediaPlayer.play();
+        engine.play();
     }
 
     public void pause() {
-        if (mediaPlayer != null) {
-            mediaPlayer.pause();
-        }
+        engine.pause();
     }
 
     public void stop() {
-        if (mediaPlayer != null) {
-            mediaPlayer.stop();
-            mediaPlayer.dispose();
-            mediaPlayer = null;
-        }
+        engine.stop();
+        currentTrack = null;
 
         progressSlider.setValue(0);
         elapsedLabel.setText("00:00");
-
-        currentTrackIndex = -1;
     }
 
-
-
-    public void playNext() {
-        if (currentTrackIndex < queue.size() - 1) {
-            currentTrackIndex++;
-            loadQueue(queue, currentTrackIndex);
-        } else {
-            stop();
+    /**
+     * Arrête la lecture en fin de session et journalise les délais de démarrage mesurés.
+     */
+    public void close() {
+        PlaybackEngine.Stats stats = engine.stats();
+        if (stats.starts() > 0) {
+            System.out.printf("Lecture : %d démarrages (%d depuis un lecteur préparé), %.1f ms en moyenne, dernier en %.1f ms%n",
+                    stats.starts(), stats.preloadedStarts(), stats.averageStartMillis(), stats.lastStartMillis());
         }
+        stop();
     }
 
-
+    public void playNext() {
+        queue.next().ifPresentOrElse(this::start, this::stop);
+    }
 
     public void playPrevious() {
-        if (currentTrackIndex > 0) {
-            currentTrackIndex--;
-            loadQueue(queue, currentTrackIndex);
-        } else if (mediaPlayer != null) {
-            mediaPlayer.seek(Duration.ZERO); // redémarrer la piste actuelle
-        }
+        queue.previous().ifPresentOrElse(this::start,
+                () -> engine.seek(Duration.ZERO)); // redémarrer la piste actuelle
     }
 
-
     private String formatSeconds(double seconds) {
         long totalSeconds = Math.round(seconds);
         long minutes = totalSeconds / 60;
@@ -248,6 +310,6 @@ public class MiniPlayer extends VBox {
         return String.format("%02d:%02d", minutes, remain);
     }
     public MediaPlayer getMediaPlayer() {
-        return mediaPlayer;
+        return engine.getCurrentPlayer();
     }
 }
\ No newline at end of file
@@ -0,0 +1,289 @@
+package ui.components;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.Timeline;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+import model.Track;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Lecture enchaînée sans blanc : les prochains morceaux sont ouverts à l'avance.
+ * <p>
+ * Un MediaPlayer est préparé (Media analysé, tampon rempli) pour chacun des morceaux annoncés
+ * par {@link #preload}. Au changement de morceau, le lecteur préparé démarre aussitôt au lieu de
+ * construire un Media et d'attendre son onReady. Avec un fondu enchaîné, le morceau suivant est
+ * demandé un peu avant la fin du courant et les deux volumes se croisent.
+ * <p>
+ * Toutes les méthodes s'appellent sur le thread JavaFX (les callbacks de MediaPlayer y arrivent aussi).
+ */
+public class PlaybackEngine {
+
+    private final PreloadPool<MediaPlayer> preloaded;
+    private final ChangeListener<Duration> timeListener = (obs, oldTime, newTime) -> onTime(newTime);
+
+    private Listener listener;
+    private MediaPlayer current;
+    private Track currentTrack;
+    private double volume = 0.7;
+    private Duration crossfade = Duration.ZERO;
+    private boolean advanceRequested;
+    private Timeline fade;
+    private MediaPlayer fadingOut;
+
+    // Mesures du délai entre la demande de lecture et le début effectif du son
+    private long requestNanos;
+    private long starts;
+    private long preloadedStarts;
+    private long totalStartNanos;
+    private long lastStartNanos;
+
+    /**
+     * @param preloadCount nombre de morceaux suivants tenus prêts
+     */
+    public PlaybackEngine(int preloadCount) {
+        this.preloaded = new PreloadPool<>(preloadCount, this::open, MediaPlayer::dispose);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Durée du fondu enchaîné entre deux morceaux ; {@link Duration#ZERO} pour un enchaînement sec.
+     */
+    public void setCrossfade(Duration crossfade) {
+        this.crossfade = crossfade;
+    }
+
+    public void setVolume(double volume) {
+        this.volume = volume;
+        if (current != null && fade == null) {
+            current.setVolume(volume);
+        }
+    }
+
+    /**
+     * Lance {@code track} tout de suite, depuis son lecteur préparé s'il existe.
+     */
+    public void start(Track track) {
+        requestNanos = System.nanoTime();
+        MediaPlayer previous = current;
+        if (previous != null) {
+            previous.currentTimeProperty().removeListener(timeListener);
+            previous.setOnEndOfMedia(null);
+        }
+
+        MediaPlayer next = preloaded.take(track.getId());
+        boolean ready = next != null && next.getStatus() == MediaPlayer.Status.READY;
+        if (next == null) {
+            next = open(track);
+        }
+        current = next;
+        currentTrack = track;
+        advanceRequested = false;
+        if (ready) {
+            preloadedStarts++;
+        }
+
+        MediaPlayer player = next;
+        player.currentTimeProperty().addListener(timeListener);
+        player.setOnEndOfMedia(() -> {
+            if (listener != null) {
+                listener.advance(true);
+            }
+        });
+        player.statusProperty().addListener(new ChangeListener<>() {
+            @Override
+            public void changed(ObservableValue<? extends MediaPlayer.Status> obs,
+                                MediaPlayer.Status oldStatus, MediaPlayer.Status newStatus) {
+                if (newStatus == MediaPlayer.Status.PLAYING) {
+                    player.statusProperty().removeListener(this);
+                    recordStart();
+                }
+            }
+        });
+
+        boolean fading = previous != null && crossfade.greaterThan(Duration.ZERO)
+                && previous.getStatus() == MediaPlayer.Status.PLAYING;
+        if (fading) {
+            crossfade(previous, player);
+        } else {
+            stopFade();
+            if (previous != null) {
+                previous.dispose();
+            }
+            player.setVolume(volume);
+        }
+
+        if (ready) {
+            notifyReady(player);
+            player.play();
+        } else {
+            player.setOnReady(() -> {
+                notifyReady(player);
+                if (player == current) {
+                    player.play();
+                }
+            });
+        }
+    }
+
+    /**
+     * Tient prêts les lecteurs des morceaux à venir (les premiers de la liste) et libère les autres.
+     */
+    public void preload(List<Track> upcoming) {
+        preloaded.retain(upcoming, currentTrack);
+    }
+
+    public void play() {
+        if (current != null) {
+            current.play();
+        }
+    }
+
+    public void pause() {
+        if (current != null) {
+            current.pause();
+        }
+    }
+
+    public void seek(Duration time) {
+        if (current != null) {
+            current.seek(time);
+            advanceRequested = false;
+        }
+    }
+
+    /**
+     * Arrête la lecture et libère tous les lecteurs, y compris ceux préparés.
+     */
+    public void stop() {
+        stopFade();
+        if (current != null) {
+            current.currentTimeProperty().removeListener(timeListener);
+            current.dispose();
+            current = null;
+            currentTrack = null;
+        }
+        preloaded.clear();
+    }
+
+    public MediaPlayer getCurrentPlayer() {
+        return current;
+    }
+
+    public Stats stats() {
+        return new Stats(starts, preloadedStarts,
+                starts == 0 ? 0 : totalStartNanos / starts / 1_000_000d,
+                lastStartNanos / 1_000_000d);
+    }
+
+    private MediaPlayer open(Track track) {
+        MediaPlayer player = new MediaPlayer(new Media(new File(track.getFilePath()).toURI().toString()));
+        player.setOnError(() -> System.err.println("Lecture impossible de " + track.getTitle() + ": " + player.getError()));
+        return player;
+    }
+
+    private void onTime(Duration time) {
+        if (listener != null) {
+            listener.timeChanged(time);
+        }
+        // Fondu : le morceau suivant est demandé avant la fin du courant
+        if (crossfade.greaterThan(Duration.ZERO) && current != null) {
+            Duration total = current.getTotalDuration();
+            if (total != null && !total.isUnknown() && !total.isIndefinite()
+                    && total.greaterThan(crossfade.multiply(2)) && time.greaterThanOrEqualTo(total.subtract(crossfade))) {
+                requestFadeAdvance();
+            }
+        }
+    }
+
+    private void requestFadeAdvance() {
+        if (!advanceRequested) {
+            advanceRequested = true;
+            if (listener != null) {
+                listener.advance(false);
+            }
+        }
+    }
+
+    private void crossfade(MediaPlayer outgoing, MediaPlayer incoming) {
+        stopFade();
+        incoming.setVolume(0);
+        fade = new Timeline(
+                new KeyFrame(Duration.ZERO,
+                        new KeyValue(outgoing.volumeProperty(), outgoing.getVolume()),
+                        new KeyValue(incoming.volumeProperty(), 0)),
+                new KeyFrame(crossfade,
+                        new KeyValue(outgoing.volumeProperty(), 0),
+                        new KeyValue(incoming.volumeProperty(), volume)));
+        fade.setOnFinished(event -> stopFade());
+        fadingOut = outgoing;
+        fade.play();
+    }
+
+    /**
+     * Termine le fondu en cours : le lecteur sortant est libéré, le courant reprend le volume réglé.
+     */
+    private void stopFade() {
+        if (fade == null) {
+            return;
+        }
+        fade.stop();
+        fade = null;
+        fadingOut.dispose();
+        fadingOut = null;
+        if (current != null) {
+            current.setVolume(volume);
+        }
+    }
+
+    private void notifyReady(MediaPlayer player) {
+        if (player == current && listener != null) {
+            listener.trackStarted(currentTrack, player.getMedia().getDuration());
+        }
+    }
+
+    private void recordStart() {
+        lastStartNanos = System.nanoTime() - requestNanos;
+        totalStartNanos += lastStartNanos;
+        starts++;
+    }
+
+    /**
+     * Événements de lecture, reçus sur le thread JavaFX.
+     */
+    public interface Listener {
+
+        /**
+         * Le morceau courant est prêt : sa durée est connue.
+         */
+        void trackStarted(Track track, Duration totalDuration);
+
+        void timeChanged(Duration time);
+
+        /**
+         * Fin du morceau courant ou début du fondu : l'appelant choisit le suivant et appelle {@link #start}.
+         *
+         * @param endOfMedia true à la fin réelle du morceau ; false au début du fondu, où le morceau
+         *                   courant continue s'il n'y a pas de suivant
+         */
+        void advance(boolean endOfMedia);
+    }
+
+    /**
+     * Délai entre la demande de lecture et le passage en PLAYING.
+     *
+     * @param starts          démarrages mesurés
+     * @param preloadedStarts démarrages servis par un lecteur déjà prêt
+     */
+    public record Stats(long starts, long preloadedStarts, double averageStartMillis, double lastStartMillis) {
+    }
+}
@@ -0,0 +1,68 @@
+package ui.components;
+
+import model.Track;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Lecteurs ouverts à l'avance pour les prochains morceaux, un par morceau (voir PlaybackEngine).
+ * Un lecteur qui n'est plus attendu est libéré aussitôt. Thread JavaFX.
+ *
+ * @param <P> lecteur (MediaPlayer dans l'application)
+ */
+final class PreloadPool<P> {
+
+    private final int capacity;
+    private final Function<Track, P> open;
+    private final Consumer<P> dispose;
+    private final Map<Integer, P> players = new HashMap<>();
+
+    PreloadPool(int capacity, Function<Track, P> open, Consumer<P> dispose) {
+        this.capacity = capacity;
+        this.open = open;
+        this.dispose = dispose;
+    }
+
+    /**
+     * Tient prêts les lecteurs des premiers morceaux de {@code upcoming} (sauf {@code current}, déjà
+     * ouvert) et libère les autres.
+     */
+    void retain(List<Track> upcoming, Track current) {
+        List<Track> wanted = upcoming.stream().limit(capacity).toList();
+        Set<Integer> wantedIds = wanted.stream().map(Track::getId).collect(Collectors.toSet());
+        players.entrySet().removeIf(entry -> {
+            if (!wantedIds.contains(entry.getKey())) {
+                dispose.accept(entry.getValue());
+                return true;
+            }
+            return false;
+        });
+        for (Track track : wanted) {
+            if (current == null || track.getId() != current.getId()) {
+                players.computeIfAbsent(track.getId(), id -> open.apply(track));
+            }
+        }
+    }
+
+    /**
+     * Retire et rend le lecteur préparé pour ce morceau (null s'il n'y en a pas) : l'appelant en devient responsable.
+     */
+    P take(int trackId) {
+        return players.remove(trackId);
+    }
+
+    void clear() {
+        players.values().forEach(dispose);
+        players.clear();
+    }
+
+    int size() {
+        return players.size();
+    }
+}
@@ -1,5 +1,6 @@
 package ui.views;
 
+import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -19,8 +20,12 @@ import service.FavoriteService;
 import service.PlaylistService;
 import service.TrackService;
 import service.UserService;
+import ui.SearchPipeline;
+import ui.MediaIngestion;
 import ui.SoundHubController;
 import ui.components.MiniPlayer;
+import utils.AudioProbe;
+import utils.FileUtils;
 import utils.ValidationUtils;
 
 import java.io.File;
@@ -28,16 +33,23 @@ import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 public class DashboardView extends BorderPane {
 
+    private static final int FUZZY_RESULT_LIMIT = 20;
+    // Résultats exacts gardés par recherche : de quoi remplir le carrousel après le filtre de statut
+    private static final int SEARCH_RESULT_LIMIT = 200;
+    private static final int RADIO_CAROUSEL_SIZE = 5;
+    private static final int SEARCH_DEBOUNCE_MILLIS = 150;
+
     private final SoundHubController controller;
     private final User currentUser;
     private final Runnable onLogout;
 
     private final MiniPlayer miniPlayer = new MiniPlayer();
-    private final FilteredList<Track> filteredTracks;
     private final FilteredList<User> pendingUsers;
     private final FilteredList<User> adminUsers;
     private final FilteredList<Track> moderationTracks;
@@ -58,8 +70,11 @@ public class DashboardView extends BorderPane {
     private final Label albumTracksTitle = new Label("Morceaux de l'album...");
 // ...
 
-    private String currentQuery = "";
+    private Button bellButton;
+    private int[] matchingIds = null;
     private TrackStatus selectedStatus = null;
+    private final SearchPipeline<int[]> searchPipeline =
+            new SearchPipeline<>(javafx.util.Duration.millis(SEARCH_DEBOUNCE_MILLIS), this::searchTracks, this::publishSearch);
 
     public DashboardView(SoundHubController controller, User user, Runnable onLogout) {
         this.controller = controller;
@@ -67,7 +82,6 @@ public class DashboardView extends BorderPane {
         this.onLogout = onLogout;
         TrackService trackService = controller.getTrackService();
         UserService userService = controller.getUserService();
-        this.filteredTracks = new FilteredList<>(trackService.getTracks());
         this.pendingUsers = new FilteredList<>(userService.getUsers(), this::isPending);
         this.adminUsers = new FilteredList<>(userService.getUsers(), this::isAdmin);
         this.moderationTracks = new FilteredList<>(trackService.getTracks(), this::isPendingTrack);
@@ -79,12 +93,24 @@ public class DashboardView extends BorderPane {
         setCenter(buildMainScroll());
         setBottom(miniPlayer);
         applyFilters();
+        controller.getSession().popularAlbums().thenAcceptAsync(this::showPopularAlbums, Platform::runLater);
+        controller.setOnWriteFailure(error -> new Alert(Alert.AlertType.WARNING,
+                "Enregistrement de vos favoris ou playlists impossible pour le moment: " + error.getMessage()).show());
     }
 
     private void initLists() {
         PlaylistService playlistService = controller.getPlaylistService();
-        playlistList.setItems(playlistService.getPlaylists(currentUser));
-        playlistList.setPlaceholder(new Label("Aucune playlist"));
+        SoundHubController.Session session = controller.getSession();
+        // Les playlists se chargent en parallèle des autres données de session : liste liée dès qu'elles sont là
+        playlistList.setPlaceholder(new Label("Chargement…"));
+        session.playlists().whenCompleteAsync((loaded, error) -> {
+            if (error == null) {
+                playlistList.setItems(playlistService.getPlaylists(currentUser));
+                playlistList.setPlaceholder(new Label("Aucune playlist"));
+            } else {
+                playlistList.setPlaceholder(new Label("Playlists indisponibles"));
+            }
+        }, Platform::runLater);
         playlistList.getSelectionModel().selectedItemProperty().addListener((obs, old, playlist) -> {
             if (playlist == null) {
                 playlistTracks.setItems(FXCollections.observableArrayList());
@@ -101,8 +127,10 @@ public class DashboardView extends BorderPane {
         });
 
         FavoriteService favoriteService = controller.getFavoriteService();
-// Charge initialement les favoris depuis la base
-        favoriteService.loadFavorites(currentUser);
+// Les favoris sont chargés par la session ouverte au login : le cache se remplit à leur arrivée
+        favoritesList.setPlaceholder(new Label("Chargement…"));
+        session.favorites().whenCompleteAsync((loaded, error) ->
+                favoritesList.setPlaceholder(new Label(error == null ? "Aucun favori" : "Favoris indisponibles")), Platform::runLater);
 
 // Lie la ListView au cache pour mise à jour immédiate
         favoritesList.setItems(favoriteService.getFavoritesCache());
@@ -137,14 +165,14 @@ public class DashboardView extends BorderPane {
         TextField searchField = new TextField();
         searchField.setPromptText("Que souhaitez-vous écouter ou regarder ?");
         searchField.getStyleClass().add("search-pill");
-        searchField.textProperty().addListener((obs, old, value) -> {
-            currentQuery = value == null ? "" : value.trim().toLowerCase();
-            applyFilters();
-        });
+        searchField.textProperty().addListener((obs, old, value) -> searchPipeline.submit(value));
 
         Button premiumButton = outlineButton("Découvrir Premium");
         Button appButton = outlineButton("Installer l'appli");
-        Button bellButton = pillButton("\uD83D\uDD14");
+        bellButton = pillButton("\uD83D\uDD14");
+        if (isModerator()) {
+            controller.getSession().moderationCounts().thenAcceptAsync(this::showModerationCounts, Platform::runLater);
+        }
         Button peopleButton = pillButton("\uD83D\uDC65");
         Button avatarButton = pillButton(currentUser.getUsername().substring(0, 1).toUpperCase());
 
@@ -154,8 +182,17 @@ public class DashboardView extends BorderPane {
 
         Button logoutButton = outlineButton("Quitter");
         logoutButton.setOnAction(event -> {
-            controller.logout();
-            onLogout.run();
+            logoutButton.setDisable(true);
+            searchPipeline.close();
+            miniPlayer.close();
+            controller.logout().whenCompleteAsync((result, error) -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    new Alert(Alert.AlertType.WARNING, "Certaines modifications n'ont pas pu être enregistrées, "
+                            + "elles le seront à la fermeture: " + cause.getMessage()).showAndWait();
+                }
+                onLogout.run();
+            }, Platform::runLater);
         });
 
         Region spacer = new Region();
@@ -479,7 +516,7 @@ public class DashboardView extends BorderPane {
         approve.setOnAction(event -> {
             User selected = table.getSelectionModel().getSelectedItem();
             controller.getUserService().updateStatus(selected, UserStatus.ACTIVE);
-            refreshUserFilters();
+            refreshModerationCounts();
         });
 
         Button reject = new Button("Refuser");
@@ -487,7 +524,7 @@ public class DashboardView extends BorderPane {
         reject.setOnAction(event -> {
             User selected = table.getSelectionModel().getSelectedItem();
             controller.getUserService().updateStatus(selected, UserStatus.BANNED);
-            refreshUserFilters();
+            refreshModerationCounts();
         });
 
         Label header = new Label("Utilisateurs en attente");
@@ -542,7 +579,6 @@ public class DashboardView extends BorderPane {
         downgrade.setOnAction(event -> {
             User selected = table.getSelectionModel().getSelectedItem();
             controller.getUserService().updateRole(selected, Role.USER);
-            refreshUserFilters();
         });
 
         Label header = new Label("Gestion des ADMIN");
@@ -551,36 +587,38 @@ public class DashboardView extends BorderPane {
         return box;
     }
 
+    // Appelé hors du thread JavaFX par le pipeline de recherche
+    private int[] searchTracks(String query) {
+        String normalized = query.trim().toLowerCase();
+        return normalized.isBlank() ? null : resolveQuery(normalized);
+    }
+
+    // Appelé sur le thread JavaFX avec le résultat de la dernière requête uniquement
+    private void publishSearch(String query, int[] ids) {
+        matchingIds = ids;
+        applyFilters();
+    }
+
     private void applyFilters() {
-        filteredTracks.setPredicate(track -> {
-            if (track == null) {
-                return false;
-            }
-            if (!currentUser.getRole().canModerateTracks() && track.getStatus() != TrackStatus.APPROVED) {
-                return false;
-            }
-            boolean matchesStatus = selectedStatus == null || track.getStatus() == selectedStatus;
-            if (!matchesStatus) {
-                return false;
-            }
-            if (currentQuery == null || currentQuery.isBlank()) {
-                return true;
-            }
-            String normalized = currentQuery.toLowerCase();
-            return track.getTitle().toLowerCase().contains(normalized)
-                    || track.getArtistName().toLowerCase().contains(normalized);
-        });
-        refreshCarousels();
+        // Les albums populaires ne dépendent pas des filtres : seul le carrousel des titres est recalculé
+        refreshRadioCarousel();
     }
 
-    private void refreshUserFilters() {
-        pendingUsers.setPredicate(this::isPending);
-        adminUsers.setPredicate(this::isAdmin);
+    private boolean isVisible(Track track) {
+        if (!currentUser.getRole().canModerateTracks() && track.getStatus() != TrackStatus.APPROVED) {
+            return false;
+        }
+        return selectedStatus == null || track.getStatus() == selectedStatus;
     }
 
-    private void refreshTrackFilters() {
-        moderationTracks.setPredicate(this::isPendingTrack);
-        applyFilters();
+    // Correspondances exactes d'abord ; à défaut, les plus proches en tolérant les fautes de frappe
+    private int[] resolveQuery(String query) {
+        TrackService trackService = controller.getTrackService();
+        int[] exact = trackService.searchTrackIds(query, SEARCH_RESULT_LIMIT);
+        if (exact.length > 0) {
+            return exact;
+        }
+        return trackService.fuzzySearchTrackIds(query, FUZZY_RESULT_LIMIT).stream().mapToInt(Integer::intValue).toArray();
     }
 
     private boolean isPending(User user) {
@@ -612,12 +650,27 @@ public class DashboardView extends BorderPane {
         fileField.setPromptText("Aucun fichier sélectionné");
         fileField.setEditable(false);
         
+        Label audioInfoLabel = new Label();
+        // Durée lue dans le fichier ; la saisie manuelle reste possible pour la corriger
+        Duration[] probedDuration = new Duration[1];
+
         Button browseButton = new Button("Parcourir...");
         browseButton.setOnAction(e -> {
-            File selectedFile = utils.FileUtils.selectAudioFile(dialog.getDialogPane().getScene().getWindow());
+            File selectedFile = FileUtils.selectAudioFile(dialog.getDialogPane().getScene().getWindow());
             if (selectedFile != null) {
+                // Lecture des seuls en-têtes : format vérifié et durée exacte, sans attendre la copie
+                AudioProbe.AudioInfo info;
+                try {
+                    info = FileUtils.probeAudioFile(selectedFile.toPath());
+                } catch (Exception ex) {
+                    new Alert(Alert.AlertType.ERROR, "Fichier refusé: " + ex.getMessage()).showAndWait();
+                    return;
+                }
                 fileField.setText(selectedFile.getAbsolutePath());
                 fileField.setUserData(selectedFile); // Stocker le fichier pour plus tard
+                audioInfoLabel.setText(info.summary());
+                probedDuration[0] = info.duration();
+                durationField.setText(formatDuration(info.duration()));
                 
                 // Auto-remplir le titre si vide
                 if (titleField.getText().isEmpty()) {
@@ -638,13 +691,16 @@ public class DashboardView extends BorderPane {
         grid.addRow(1, new Label("Album"), albumField);
         grid.addRow(2, new Label("Durée"), durationField);
         grid.addRow(3, new Label("Fichier"), fileRow);
+        grid.add(audioInfoLabel, 1, 4);
         dialog.getDialogPane().setContent(grid);
 
         dialog.setResultConverter(buttonType -> {
             if (buttonType == saveButton) {
                 File selectedFile = (File) fileField.getUserData();
                 String filePath = selectedFile != null ? selectedFile.getAbsolutePath() : "";
-                return new TrackFormData(titleField.getText(), albumField.getText(), durationField.getText(), filePath);
+                Duration exactDuration = probedDuration[0] != null
+                        && durationField.getText().equals(formatDuration(probedDuration[0])) ? probedDuration[0] : null;
+                return new TrackFormData(titleField.getText(), albumField.getText(), durationField.getText(), exactDuration, filePath);
             }
             return null;
         });
@@ -659,19 +715,12 @@ public class DashboardView extends BorderPane {
                     throw new IllegalArgumentException("Veuillez sélectionner un fichier audio.");
                 }
                 
-                Duration duration = ValidationUtils.parseDuration(data.duration());
-                
-                // Copier le fichier dans le dossier media
-                File sourceFile = new File(data.filePath());
-                String mediaPath = utils.FileUtils.copyAudioFileToMedia(sourceFile);
+                Duration duration = data.probedDuration() != null
+                        ? data.probedDuration()
+                        : ValidationUtils.parseDuration(data.duration());
                 
-                // Soumettre le track avec le nouveau chemin
-                controller.getTrackService().submitTrack(currentUser, data.title(), data.album(), duration, mediaPath);
-                refreshTrackFilters();
-                
-                Alert alert = new Alert(Alert.AlertType.INFORMATION, 
-                    "Track '" + data.title() + "' soumis pour validation.\nFichier copié vers: " + mediaPath);
-                alert.showAndWait();
+                // Copie en arrière-plan : la fenêtre reste utilisable pendant la copie d'un gros fichier
+                ingestAndSubmit(data, duration);
             } catch (Exception ex) {
                 Alert alert = new Alert(Alert.AlertType.ERROR, "Erreur: " + ex.getMessage());
                 alert.showAndWait();
@@ -679,6 +728,59 @@ public class DashboardView extends BorderPane {
         });
     }
 
+    /**
+     * Range le fichier du formulaire dans le magasin media hors du thread JavaFX, avec une fenêtre
+     * d'avancement qui permet d'annuler, puis soumet le track une fois la copie terminée.
+     */
+    private void ingestAndSubmit(TrackFormData data, Duration duration) {
+        File sourceFile = new File(data.filePath());
+        ProgressBar progressBar = new ProgressBar(0);
+        progressBar.setPrefWidth(320);
+        Label progressLabel = new Label("Préparation...");
+        Alert progressAlert = new Alert(Alert.AlertType.NONE, null, ButtonType.CANCEL);
+        progressAlert.setTitle("Copie du fichier");
+        progressAlert.setHeaderText(sourceFile.getName());
+        progressAlert.getDialogPane().setContent(new VBox(8, progressBar, progressLabel));
+
+        MediaIngestion.Ingestion ingestion = controller.getMediaIngestion().ingest(sourceFile.toPath(), progress -> {
+            progressBar.setProgress(progress.fraction());
+            progressLabel.setText(FileUtils.formatFileSize(progress.copiedBytes()) + " / "
+                    + FileUtils.formatFileSize(progress.totalBytes()) + " ("
+                    + FileUtils.formatFileSize((long) progress.bytesPerSecond()) + "/s)");
+        });
+        // Fermée par l'utilisateur : la copie s'arrête (sans effet si elle est déjà terminée)
+        progressAlert.setOnHidden(event -> ingestion.cancel());
+        progressAlert.show();
+
+        ingestion.result().whenComplete((stored, error) -> Platform.runLater(() -> {
+            progressAlert.close();
+            if (error instanceof CancellationException) {
+                return;
+            }
+            if (error != null) {
+                new Alert(Alert.AlertType.ERROR, "Erreur: " + error.getMessage()).showAndWait();
+                return;
+            }
+            try {
+                // Les FilteredList suivent l'ajout d'elles-mêmes, seuls les carrousels sont à reconstruire
+                controller.getTrackService().submitTrack(currentUser, data.title(), data.album(), duration, stored.path());
+            } catch (RuntimeException ex) {
+                controller.getMediaStore().discardIfUnreferenced(stored.path());
+                new Alert(Alert.AlertType.ERROR, "Erreur: " + ex.getMessage()).showAndWait();
+                return;
+            }
+            // Le track enregistré référence le fichier : la référence provisoire de store() est rendue
+            controller.getMediaStore().release(stored.path());
+            refreshCarousels();
+            searchPipeline.refresh(); // Le nouveau track peut correspondre à la recherche en cours
+
+            Alert alert = new Alert(Alert.AlertType.INFORMATION,
+                "Track '" + data.title() + "' soumis pour validation.\n"
+                    + (stored.deduplicated() ? "Fichier déjà présent : " : "Fichier copié vers: ") + stored.path());
+            alert.showAndWait();
+        }));
+    }
+
     private void addTrackToPlaylist(Track track) {
         if (playlistList.getItems().isEmpty()) {
             Alert alert = new Alert(Alert.AlertType.INFORMATION, "Crée d'abord une playlist.");
@@ -699,7 +801,25 @@ public class DashboardView extends BorderPane {
             return;
         }
         controller.getTrackService().changeStatus(track, status);
-        refreshTrackFilters();
+        refreshCarousels();
+        refreshModerationCounts();
+    }
+
+    private boolean isModerator() {
+        return currentUser.getRole().canModerateTracks() || currentUser.getRole().canModerateUsers();
+    }
+
+    private void refreshModerationCounts() {
+        if (isModerator()) {
+            showModerationCounts(controller.getModerationCounts());
+        }
+    }
+
+    private void showModerationCounts(SoundHubController.ModerationCounts counts) {
+        long pending = counts.pendingTracks() + counts.pendingUsers();
+        bellButton.setText("\uD83D\uDD14" + (pending > 0 ? " " + pending : ""));
+        bellButton.setTooltip(new Tooltip(counts.pendingTracks() + " track(s) et "
+                + counts.pendingUsers() + " utilisateur(s) en attente de modération"));
     }
 
     private Optional<Track> selectTrackForPlaylist() {
@@ -797,19 +917,26 @@ public class DashboardView extends BorderPane {
         return column;
     }
 
-    // Dans DashboardView.java (Modification de la méthode refreshCarousels)
-
     private void refreshCarousels() {
-        // 1. Tracks filtrés pour le carrousel "Radio populaire" (par titres)
-        List<Track> tracks = filteredTracks.stream().toList();
-        radioCarousel.getChildren().setAll(tracks.stream()
-                .limit(5)
+        refreshRadioCarousel();
+        // Albums et agrégats relus en base hors du thread JavaFX
+        controller.loadPopularAlbums().thenAcceptAsync(this::showPopularAlbums, Platform::runLater);
+    }
+
+    private void refreshRadioCarousel() {
+        // 1. Carrousel "Radio populaire" : pendant une recherche, seuls les tracks trouvés par l'index sont
+        // parcourus ; sinon le catalogue, jusqu'aux premiers tracks visibles seulement
+        TrackService trackService = controller.getTrackService();
+        List<Track> source = matchingIds == null ? trackService.getTracks() : trackService.getTracksByIds(matchingIds);
+        radioCarousel.getChildren().setAll(source.stream()
+                .filter(this::isVisible)
+                .limit(RADIO_CAROUSEL_SIZE)
                 .map(this::createTrackCard)
                 .toList());
+    }
 
+    private void showPopularAlbums(List<Album> popularAlbums) {
         // 2. Albums populaires pour le carrousel "Albums & singles populaires"
-        List<Album> popularAlbums = controller.getTrackService().getPopularAlbums(); // NOUVEAU
-
         albumCarousel.getChildren().setAll(popularAlbums.stream()
                 .map(this::createAlbumCard) // NOUVEAU: Utilise une méthode spécifique pour les albums
                 .toList());
@@ -828,24 +955,14 @@ public class DashboardView extends BorderPane {
         cover.setArcWidth(30);
         cover.setArcHeight(30);
 
-        if (!album.getTracks().isEmpty()) {
-            cover.setFill(colorForTrack(album.getTracks().getFirst()));
-        } else {
-            cover.setFill(Color.DARKGRAY);
-        }
+        cover.setFill(colorForAlbum(album));
 
         // --- 2. Déclaration et configuration du bouton playOverlay ---
         Button playOverlay = new Button("\u25B6");
         playOverlay.getStyleClass().add("play-overlay-button");
 
         // --- 3. Action du bouton Play (Logique de Démarrage Album) ---
-        playOverlay.setOnAction(e -> {
-            if (!album.getTracks().isEmpty()) {
-                // Utilise loadQueue pour démarrer la lecture de l'album entier
-                miniPlayer.loadQueue(album.getTracks(), 0);
-                miniPlayer.play();
-            }
-        });
+        playOverlay.setOnAction(e -> playAlbum(album));
 
         // --- 4. Empilement de la couverture et du bouton (StackPane) ---
         StackPane artwork = new StackPane(cover, playOverlay);
@@ -856,8 +973,7 @@ public class DashboardView extends BorderPane {
         title.getStyleClass().add("music-card-title");
         title.setWrapText(true);
 
-        String artistName = album.getTracks().isEmpty() ? "Artiste inconnu" : album.getTracks().getFirst().getArtistName();
-        Label artist = new Label(artistName + " (" + album.getTracks().size() + " titres)");
+        Label artist = new Label(album.getArtistName() + " (" + album.getTrackCount() + " titres)");
         artist.getStyleClass().add("music-card-subtitle");
         artist.setWrapText(true);
 
@@ -869,17 +985,15 @@ public class DashboardView extends BorderPane {
                 // 1. Nettoyage de l'interface et mise à jour du contenu
                 playlistList.getSelectionModel().select(null); // Nettoyer la sélection de Playlist
                 albumTracksTitle.setText("Morceaux de l'album : " + album.getTitle());
-                selectedAlbumTracksList.setItems(album.getTracks());
+                // Les tracks de l'album ne sont lus qu'à son ouverture
+                selectedAlbumTracksList.setItems(FXCollections.observableArrayList(controller.getTrackService().getAlbumTracks(album)));
 
                 // 2. Rendre la zone dédiée visible
                 trackDisplayContainer.setVisible(true);
 
             } else if (event.getClickCount() == 2) {
                 // Double clic : Lancer la lecture de l'album
-                if (!album.getTracks().isEmpty()) {
-                    miniPlayer.loadQueue(album.getTracks(), 0);
-                    miniPlayer.play();
-                }
+                playAlbum(album);
             }
         });
 
@@ -890,6 +1004,20 @@ public class DashboardView extends BorderPane {
     }
 
 
+    private void playAlbum(Album album) {
+        List<Track> tracks = controller.getTrackService().getAlbumTracks(album);
+        if (!tracks.isEmpty()) {
+            // Utilise loadQueue pour démarrer la lecture de l'album entier
+            miniPlayer.loadQueue(tracks, 0);
+            miniPlayer.play();
+        }
+    }
+
+    private Color colorForAlbum(Album album) {
+        Random random = new Random(album.getArtist().getId() * 31L + album.getTitle().hashCode());
+        return Color.hsb(random.nextDouble() * 360, 0.65, 0.9);
+    }
+
     private Button pillButton(String label) {
         Button button = new Button(label);
         button.getStyleClass().add("pill-button");
@@ -924,7 +1052,14 @@ public class DashboardView extends BorderPane {
         return card;
     }
 
-    private record TrackFormData(String title, String album, String duration, String filePath) {
+    // Même format que Track.formattedDuration, relu par ValidationUtils.parseDuration
+    private static String formatDuration(Duration duration) {
+        long seconds = Math.round(duration.toMillis() / 1000d);
+        return String.format("%02d:%02d", seconds / 60, seconds % 60);
+    }
+
+    // probedDuration : durée lue dans le fichier, si le champ n'a pas été modifié
+    private record TrackFormData(String title, String album, String duration, Duration probedDuration, String filePath) {
     }
 }
 
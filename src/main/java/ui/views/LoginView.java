@@ -1,5 +1,6 @@
 package ui.views;
 
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -48,7 +49,17 @@ public class LoginView extends BorderPane {
 
         feedbackLabel.getStyleClass().add("feedback");
 
-        VBox form = new VBox(12, title, subtitle, loginField, passwordField, loginButton, registerLink, feedbackLabel);
+        // La connexion interroge directement la base ; seule l'inscription modifie la liste des utilisateurs
+        // et doit attendre son chargement
+        Label loadingLabel = new Label("Chargement du catalogue…");
+        loadingLabel.getStyleClass().add("subtitle");
+        loadingLabel.managedProperty().bind(loadingLabel.visibleProperty());
+        registerLink.setDisable(!controller.registrationReady().getNow(false));
+        loadingLabel.setVisible(!controller.catalogReady().isDone());
+        controller.registrationReady().thenAcceptAsync(open -> registerLink.setDisable(!open), Platform::runLater);
+        controller.catalogReady().thenRunAsync(() -> loadingLabel.setVisible(false), Platform::runLater);
+
+        VBox form = new VBox(12, title, subtitle, loginField, passwordField, loginButton, registerLink, feedbackLabel, loadingLabel);
         form.setPadding(new Insets(30));
         form.setMaxWidth(420);
         form.getStyleClass().add("login-card");
@@ -0,0 +1,533 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Lecture des caractéristiques d'un fichier audio (format, codec, durée, débit) sans le décoder.
+ * <p>
+ * Le format est reconnu à ses octets de tête, pas à son extension. Seuls les en-têtes et les tables
+ * sont lus, par lectures positionnées : en-tête Xing/VBRI (ou débit constant) pour le MP3, chunks
+ * fmt et data du WAV, bloc STREAMINFO du FLAC, boîtes moov du M4A (sans lire mdat), première et
+ * dernière pages Ogg. Quelques kilo-octets suffisent quelle que soit la taille du fichier.
+ * Pour l'AAC brut (ADTS), qui n'a aucune table, la durée est estimée sur les premières trames.
+ */
+public final class AudioProbe {
+
+    private static final int HEAD_SIZE = 4096;
+    // Une page Ogg fait au plus 65 307 octets : la dernière commence forcément dans cette fenêtre
+    private static final int OGG_TAIL_SIZE = 65_536 + 512;
+    private static final int ADTS_SAMPLE_SIZE = 64 * 1024;
+    private static final int MAX_WAV_CHUNKS = 64;
+
+    private static final int[][] MP3_BITRATES = {
+            {32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448}, // MPEG-1 couche I
+            {32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384},    // MPEG-1 couche II
+            {32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320},     // MPEG-1 couche III
+            {32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256},    // MPEG-2/2.5 couche I
+            {8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160}          // MPEG-2/2.5 couches II et III
+    };
+    private static final int[] MP3_SAMPLE_RATES = {44100, 48000, 32000};
+    private static final int[] ADTS_SAMPLE_RATES = {96000, 88200, 64000, 48000, 44100, 32000, 24000, 22050, 16000, 12000, 11025, 8000, 7350};
+
+    public enum Format {
+        MP3("mp3"), WAV("wav"), FLAC("flac"), M4A("m4a", "aac"), OGG("ogg"), AAC("aac");
+
+        private final String[] extensions;
+
+        Format(String... extensions) {
+            this.extensions = extensions;
+        }
+
+        public boolean hasExtension(String extension) {
+            return Arrays.asList(extensions).contains(extension.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private AudioProbe() {
+    }
+
+    /**
+     * @throws IllegalArgumentException si le contenu n'est pas un format audio reconnu ou est tronqué
+     */
+    public static AudioInfo probe(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer head = read(channel, 0, HEAD_SIZE);
+            if (startsWith(head, 0, "RIFF") && startsWith(head, 8, "WAVE")) {
+                return probeWav(channel, size);
+            }
+            if (startsWith(head, 0, "OggS")) {
+                return probeOgg(channel, size, head);
+            }
+            if (startsWith(head, 4, "ftyp")) {
+                return probeMp4(channel, size);
+            }
+            // MP3, FLAC et AAC peuvent être précédés d'une étiquette ID3v2
+            long start = id3v2Size(head);
+            ByteBuffer audio = start == 0 ? head : read(channel, start, HEAD_SIZE);
+            if (startsWith(audio, 0, "fLaC")) {
+                return probeFlac(audio, size - start);
+            }
+            if (audio.remaining() >= 2 && (audio.get(0) & 0xFF) == 0xFF && (audio.get(1) & 0xF6) == 0xF0) {
+                return probeAdts(channel, start, size);
+            }
+            return probeMp3(channel, start, size, audio);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Fichier audio tronqué ou invalide: " + file.getFileName(), e);
+        }
+    }
+
+    // ----- MP3 -----
+
+    private static AudioInfo probeMp3(FileChannel channel, long start, long size, ByteBuffer audio) throws IOException {
+        int offset = findMp3Frame(audio);
+        if (offset < 0) {
+            throw new IllegalArgumentException("Contenu audio non reconnu");
+        }
+        Mp3Frame frame = Mp3Frame.parse(audio.getInt(offset));
+        long frameStart = start + offset;
+        ByteBuffer first = offset + 200 <= audio.limit() ? audio.duplicate().position(offset).slice() : read(channel, frameStart, 200);
+
+        // En-tête Xing / Info (LAME) : nombre de trames et décalages de l'encodeur
+        int xing = 4 + frame.sideInfoSize();
+        if (startsWith(first, xing, "Xing") || startsWith(first, xing, "Info")) {
+            int flags = first.getInt(xing + 4);
+            int position = xing + 8;
+            long frames = -1;
+            long bytes = -1;
+            if ((flags & 1) != 0) {
+                frames = first.getInt(position) & 0xFFFFFFFFL;
+                position += 4;
+            }
+            if ((flags & 2) != 0) {
+                bytes = first.getInt(position) & 0xFFFFFFFFL;
+                position += 4;
+            }
+            position += (flags & 4) != 0 ? 100 : 0;
+            position += (flags & 8) != 0 ? 4 : 0;
+            if (frames > 0) {
+                long samples = frames * frame.samplesPerFrame();
+                if (startsWith(first, position, "LAME") && position + 24 <= first.limit()) {
+                    int b21 = first.get(position + 21) & 0xFF;
+                    int b22 = first.get(position + 22) & 0xFF;
+                    int b23 = first.get(position + 23) & 0xFF;
+                    long delay = (b21 << 4) | (b22 >>> 4);
+                    long padding = ((b22 & 0x0F) << 8) | b23;
+                    if (delay + padding < samples) {
+                        samples -= delay + padding;
+                    }
+                }
+                Duration duration = ofSamples(samples, frame.sampleRate());
+                long audioBytes = bytes > 0 ? bytes : mp3End(channel, size) - frameStart;
+                return new AudioInfo(Format.MP3, frame.codec(), duration, frame.sampleRate(), frame.channels(),
+                        bitrate(audioBytes, duration));
+            }
+        }
+
+        // En-tête VBRI (Fraunhofer), toujours 32 octets après l'en-tête de trame
+        if (startsWith(first, 36, "VBRI")) {
+            long bytes = first.getInt(36 + 10) & 0xFFFFFFFFL;
+            long frames = first.getInt(36 + 14) & 0xFFFFFFFFL;
+            Duration duration = ofSamples(frames * frame.samplesPerFrame(), frame.sampleRate());
+            return new AudioInfo(Format.MP3, frame.codec(), duration, frame.sampleRate(), frame.channels(),
+                    bitrate(bytes, duration));
+        }
+
+        // Débit constant : la durée se déduit de la taille
+        long audioBytes = mp3End(channel, size) - frameStart;
+        int bitrate = frame.bitrateKbps() * 1000;
+        Duration duration = Duration.ofNanos(Math.round(audioBytes * 8 * 1_000_000_000d / bitrate));
+        return new AudioInfo(Format.MP3, frame.codec(), duration, frame.sampleRate(), frame.channels(), bitrate);
+    }
+
+    // Première trame valide dont la suivante (si elle est dans le tampon) est aussi valide
+    private static int findMp3Frame(ByteBuffer audio) {
+        for (int i = 0; i + 4 <= audio.limit(); i++) {
+            if ((audio.get(i) & 0xFF) != 0xFF) {
+                continue;
+            }
+            Mp3Frame frame = Mp3Frame.parse(audio.getInt(i));
+            if (frame == null) {
+                continue;
+            }
+            int next = i + frame.length();
+            if (next + 4 > audio.limit() || Mp3Frame.parse(audio.getInt(next)) != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Fin des données audio : une étiquette ID3v1 occupe les 128 derniers octets
+    private static long mp3End(FileChannel channel, long size) throws IOException {
+        if (size >= 128 && startsWith(read(channel, size - 128, 3), 0, "TAG")) {
+            return size - 128;
+        }
+        return size;
+    }
+
+    private record Mp3Frame(int version, int layer, int bitrateKbps, int sampleRate, int padding, boolean mono) {
+
+        // version : 1 (MPEG-1), 2 (MPEG-2) ou 25 (MPEG-2.5) ; layer : 1 à 3
+        static Mp3Frame parse(int header) {
+            if ((header >>> 21) != 0x7FF) {
+                return null;
+            }
+            int versionBits = (header >>> 19) & 3;
+            int layerBits = (header >>> 17) & 3;
+            int bitrateIndex = (header >>> 12) & 0xF;
+            int rateIndex = (header >>> 10) & 3;
+            if (versionBits == 1 || layerBits == 0 || bitrateIndex == 0 || bitrateIndex == 15 || rateIndex == 3) {
+                return null;
+            }
+            int version = versionBits == 3 ? 1 : versionBits == 2 ? 2 : 25;
+            int layer = 4 - layerBits;
+            int table = version == 1 ? layer - 1 : layer == 1 ? 3 : 4;
+            int sampleRate = MP3_SAMPLE_RATES[rateIndex] / (version == 1 ? 1 : version == 2 ? 2 : 4);
+            return new Mp3Frame(version, layer, MP3_BITRATES[table][bitrateIndex - 1], sampleRate,
+                    (header >>> 9) & 1, ((header >>> 6) & 3) == 3);
+        }
+
+        int samplesPerFrame() {
+            return layer == 1 ? 384 : layer == 3 && version != 1 ? 576 : 1152;
+        }
+
+        int length() {
+            if (layer == 1) {
+                return (12 * bitrateKbps * 1000 / sampleRate + padding) * 4;
+            }
+            return samplesPerFrame() / 8 * bitrateKbps * 1000 / sampleRate + padding;
+        }
+
+        int sideInfoSize() {
+            return version == 1 ? (mono ? 17 : 32) : (mono ? 9 : 17);
+        }
+
+        int channels() {
+            return mono ? 1 : 2;
+        }
+
+        String codec() {
+            return "MPEG-" + (version == 25 ? "2.5" : version) + " couche " + "I".repeat(layer);
+        }
+    }
+
+    // ----- WAV -----
+
+    private static AudioInfo probeWav(FileChannel channel, long size) throws IOException {
+        long position = 12;
+        ByteBuffer fmt = null;
+        for (int i = 0; i < MAX_WAV_CHUNKS && position + 8 <= size; i++) {
+            ByteBuffer header = read(channel, position, 8).order(ByteOrder.LITTLE_ENDIAN);
+            String id = ascii(header, 0, 4);
+            long chunkSize = header.getInt(4) & 0xFFFFFFFFL;
+            if (id.equals("fmt ")) {
+                fmt = read(channel, position + 8, 16).order(ByteOrder.LITTLE_ENDIAN);
+            } else if (id.equals("data")) {
+                if (fmt == null) {
+                    break;
+                }
+                // Taille inconnue (écriture en flux) : les données vont jusqu'à la fin du fichier
+                long dataSize = Math.min(chunkSize, size - position - 8);
+                int formatTag = fmt.getShort(0) & 0xFFFF;
+                int channels = fmt.getShort(2) & 0xFFFF;
+                int sampleRate = fmt.getInt(4);
+                int byteRate = fmt.getInt(8);
+                int blockAlign = fmt.getShort(12) & 0xFFFF;
+                int bits = fmt.getShort(14) & 0xFFFF;
+                if (sampleRate <= 0 || blockAlign == 0) {
+                    break;
+                }
+                Duration duration = ofSamples(dataSize / blockAlign, sampleRate);
+                return new AudioInfo(Format.WAV, wavCodec(formatTag, bits), duration, sampleRate, channels, byteRate * 8);
+            }
+            // Les chunks sont alignés sur deux octets
+            position += 8 + chunkSize + (chunkSize & 1);
+        }
+        throw new IllegalArgumentException("Fichier WAV invalide : chunks fmt et data introuvables");
+    }
+
+    private static String wavCodec(int formatTag, int bits) {
+        return switch (formatTag) {
+            case 1, 0xFFFE -> "PCM " + bits + " bits";
+            case 3 -> "PCM flottant " + bits + " bits";
+            case 6 -> "A-law";
+            case 7 -> "µ-law";
+            default -> String.format("WAV 0x%04X", formatTag);
+        };
+    }
+
+    // ----- FLAC -----
+
+    private static AudioInfo probeFlac(ByteBuffer audio, long audioSize) {
+        // Le premier bloc de métadonnées est toujours STREAMINFO (type 0, 34 octets)
+        if ((audio.get(4) & 0x7F) != 0) {
+            throw new IllegalArgumentException("Fichier FLAC invalide : STREAMINFO manquant");
+        }
+        StreamInfo info = StreamInfo.parse(audio, 8);
+        Duration duration = ofSamples(info.totalSamples(), info.sampleRate());
+        return new AudioInfo(Format.FLAC, "FLAC " + info.bitsPerSample() + " bits", duration,
+                info.sampleRate(), info.channels(), bitrate(audioSize, duration));
+    }
+
+    private record StreamInfo(int sampleRate, int channels, int bitsPerSample, long totalSamples) {
+
+        // offset : début des 34 octets de STREAMINFO
+        static StreamInfo parse(ByteBuffer buffer, int offset) {
+            // Taux (20 bits), canaux - 1 (3), bits par échantillon - 1 (5), échantillons (36)
+            long packed = buffer.getLong(offset + 10);
+            int sampleRate = (int) (packed >>> 44);
+            if (sampleRate == 0) {
+                throw new IllegalArgumentException("Fichier FLAC invalide : fréquence nulle");
+            }
+            return new StreamInfo(sampleRate, (int) ((packed >>> 41) & 7) + 1,
+                    (int) ((packed >>> 36) & 0x1F) + 1, packed & 0xFFFFFFFFFL);
+        }
+    }
+
+    // ----- AAC (ADTS) -----
+
+    private static AudioInfo probeAdts(FileChannel channel, long start, long size) throws IOException {
+        ByteBuffer sample = read(channel, start, ADTS_SAMPLE_SIZE);
+        int sampleRate = 0;
+        int channels = 0;
+        long frames = 0;
+        int position = 0;
+        while (position + 7 <= sample.limit()
+                && (sample.get(position) & 0xFF) == 0xFF && (sample.get(position + 1) & 0xF6) == 0xF0) {
+            int rateIndex = (sample.get(position + 2) >>> 2) & 0xF;
+            if (rateIndex >= ADTS_SAMPLE_RATES.length) {
+                break;
+            }
+            sampleRate = ADTS_SAMPLE_RATES[rateIndex];
+            channels = ((sample.get(position + 2) & 1) << 2) | ((sample.get(position + 3) & 0xFF) >>> 6);
+            int frameLength = ((sample.get(position + 3) & 3) << 11) | ((sample.get(position + 4) & 0xFF) << 3)
+                    | ((sample.get(position + 5) & 0xFF) >>> 5);
+            if (frameLength < 7 || position + frameLength > sample.limit()) {
+                break;
+            }
+            frames += (sample.get(position + 6) & 3) + 1;
+            position += frameLength;
+        }
+        if (frames == 0) {
+            throw new IllegalArgumentException("Fichier AAC invalide : aucune trame complète");
+        }
+        // Pas de table des trames : la longueur moyenne des premières est étendue à tout le fichier
+        long audioBytes = size - start;
+        long estimatedFrames = Math.round((double) frames * audioBytes / position);
+        Duration duration = ofSamples(estimatedFrames * 1024, sampleRate);
+        return new AudioInfo(Format.AAC, "AAC (ADTS)", duration, sampleRate, channels, bitrate(audioBytes, duration));
+    }
+
+    // ----- M4A (MP4) -----
+
+    private static AudioInfo probeMp4(FileChannel channel, long size) throws IOException {
+        long[] moov = findBox(channel, 0, size, "moov");
+        if (moov == null) {
+            throw new IllegalArgumentException("Fichier M4A invalide : boîte moov introuvable");
+        }
+        long[] mdat = findBox(channel, 0, size, "mdat");
+        long position = moov[0];
+        long[] trak;
+        while ((trak = findBox(channel, position, moov[1], "trak")) != null) {
+            position = trak[1];
+            long[] mdia = findBox(channel, trak[0], trak[1], "mdia");
+            long[] hdlr = mdia == null ? null : findBox(channel, mdia[0], mdia[1], "hdlr");
+            if (hdlr == null || !startsWith(read(channel, hdlr[0] + 8, 4), 0, "soun")) {
+                continue;
+            }
+            long[] mdhd = findBox(channel, mdia[0], mdia[1], "mdhd");
+            long[] minf = findBox(channel, mdia[0], mdia[1], "minf");
+            long[] stbl = minf == null ? null : findBox(channel, minf[0], minf[1], "stbl");
+            long[] stsd = stbl == null ? null : findBox(channel, stbl[0], stbl[1], "stsd");
+            if (mdhd == null || stsd == null) {
+                break;
+            }
+            ByteBuffer header = read(channel, mdhd[0], 32);
+            boolean wide = header.get(0) == 1;
+            long timescale = header.getInt(wide ? 20 : 12) & 0xFFFFFFFFL;
+            long units = wide ? header.getLong(24) : header.getInt(16) & 0xFFFFFFFFL;
+            // Première entrée de description : type de codec, canaux et fréquence (16.16)
+            ByteBuffer entry = read(channel, stsd[0] + 8, 36);
+            String type = ascii(entry, 4, 4);
+            int channels = entry.getShort(24) & 0xFFFF;
+            int sampleRate = (entry.getInt(32) >>> 16) & 0xFFFF;
+            if (timescale == 0) {
+                break;
+            }
+            Duration duration = ofSamples(units, timescale);
+            long audioBytes = mdat != null ? mdat[1] - mdat[0] : size;
+            return new AudioInfo(Format.M4A, mp4Codec(type), duration, sampleRate, channels, bitrate(audioBytes, duration));
+        }
+        throw new IllegalArgumentException("Fichier M4A invalide : aucune piste audio");
+    }
+
+    private static String mp4Codec(String type) {
+        return switch (type) {
+            case "mp4a" -> "AAC";
+            case "alac" -> "ALAC";
+            case "fLaC" -> "FLAC";
+            case "Opus" -> "Opus";
+            case "ac-3" -> "AC-3";
+            default -> type.trim();
+        };
+    }
+
+    /**
+     * Boîte {@code type} entre {@code start} et {@code end}, en sautant les autres sans les lire.
+     *
+     * @return début du contenu et fin de la boîte, ou null
+     */
+    private static long[] findBox(FileChannel channel, long start, long end, String type) throws IOException {
+        long position = start;
+        while (position + 8 <= end) {
+            ByteBuffer header = read(channel, position, 16);
+            long boxSize = header.getInt(0) & 0xFFFFFFFFL;
+            int headerSize = 8;
+            if (boxSize == 1) {
+                boxSize = header.getLong(8);
+                headerSize = 16;
+            } else if (boxSize == 0) {
+                boxSize = end - position;
+            }
+            if (boxSize < headerSize) {
+                return null;
+            }
+            if (startsWith(header, 4, type)) {
+                return new long[]{position + headerSize, Math.min(position + boxSize, end)};
+            }
+            position += boxSize;
+        }
+        return null;
+    }
+
+    // ----- Ogg -----
+
+    private static AudioInfo probeOgg(FileChannel channel, long size, ByteBuffer head) throws IOException {
+        head = head.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int serial = head.getInt(14);
+        int segments = head.get(26) & 0xFF;
+        int packet = 27 + segments;
+
+        String codec;
+        int sampleRate;
+        int channels;
+        long preSkip = 0;
+        if (head.get(packet) == 1 && startsWith(head, packet + 1, "vorbis")) {
+            codec = "Vorbis";
+            channels = head.get(packet + 11) & 0xFF;
+            sampleRate = head.getInt(packet + 12);
+        } else if (startsWith(head, packet, "OpusHead")) {
+            // Opus compte toujours en échantillons à 48 kHz, après les échantillons d'amorce
+            codec = "Opus";
+            channels = head.get(packet + 9) & 0xFF;
+            preSkip = head.getShort(packet + 10) & 0xFFFF;
+            sampleRate = 48000;
+        } else if ((head.get(packet) & 0xFF) == 0x7F && startsWith(head, packet + 1, "FLAC")) {
+            // 0x7F "FLAC", version (2), nombre d'en-têtes (2), "fLaC", en-tête du bloc STREAMINFO (4)
+            StreamInfo info = StreamInfo.parse(head.duplicate().order(ByteOrder.BIG_ENDIAN), packet + 17);
+            codec = "FLAC";
+            channels = info.channels();
+            sampleRate = info.sampleRate();
+        } else {
+            throw new IllegalArgumentException("Codec Ogg non pris en charge");
+        }
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException("Fichier Ogg invalide : fréquence nulle");
+        }
+
+        long granule = lastGranule(channel, size, serial);
+        Duration duration = ofSamples(Math.max(0, granule - preSkip), sampleRate);
+        return new AudioInfo(Format.OGG, codec, duration, sampleRate, channels, bitrate(size, duration));
+    }
+
+    // Position (en échantillons) de la dernière page du flux : la fin du morceau
+    private static long lastGranule(FileChannel channel, long size, int serial) throws IOException {
+        long start = Math.max(0, size - OGG_TAIL_SIZE);
+        ByteBuffer tail = read(channel, start, (int) (size - start)).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = tail.limit() - 27; i >= 0; i--) {
+            if (startsWith(tail, i, "OggS") && tail.getInt(i + 14) == serial) {
+                long granule = tail.getLong(i + 6);
+                if (granule != -1) {
+                    return granule;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Fichier Ogg invalide : dernière page introuvable");
+    }
+
+    // ----- Outils -----
+
+    // Taille d'une étiquette ID3v2 en tête de fichier (en-tête et pied compris), 0 sans étiquette
+    private static long id3v2Size(ByteBuffer head) {
+        if (!startsWith(head, 0, "ID3") || head.limit() < 10) {
+            return 0;
+        }
+        // Taille « synchsafe » : 7 bits utiles par octet
+        long size = ((head.get(6) & 0x7F) << 21) | ((head.get(7) & 0x7F) << 14)
+                | ((head.get(8) & 0x7F) << 7) | (head.get(9) & 0x7F);
+        boolean footer = (head.get(5) & 0x10) != 0;
+        return 10 + size + (footer ? 10 : 0);
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int offset, String magic) {
+        if (offset < 0 || offset + magic.length() > buffer.limit()) {
+            return false;
+        }
+        for (int i = 0; i < magic.length(); i++) {
+            if (buffer.get(offset + i) != (byte) magic.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String ascii(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static Duration ofSamples(long samples, long sampleRate) {
+        return Duration.ofSeconds(samples / sampleRate, (samples % sampleRate) * 1_000_000_000L / sampleRate);
+    }
+
+    private static int bitrate(long bytes, Duration duration) {
+        long nanos = duration.toNanos();
+        return nanos == 0 ? 0 : (int) Math.round(bytes * 8 * 1_000_000_000d / nanos);
+    }
+
+    /**
+     * @param bitrate débit moyen en bits par seconde
+     */
+    public record AudioInfo(Format format, String codec, Duration duration, int sampleRate, int channels, int bitrate) {
+
+        /**
+         * Résumé affichable, par exemple « MP3, MPEG-1 couche III, 44,1 kHz, 320 kbit/s ».
+         */
+        public String summary() {
+            return String.format(Locale.FRENCH, "%s, %s, %.1f kHz, %d kbit/s",
+                    format, codec, sampleRate / 1000d, Math.round(bitrate / 1000d));
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package utils;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Pool de connexions JDBC borné.
+ * <p>
+ * Les connexions rendues via {@link Connection#close()} retournent dans le pool au lieu d'être fermées.
+ * Les connexions inactives trop longtemps sont évincées, celles restées au repos sont validées avant
+ * d'être prêtées et les emprunts anormalement longs sont signalés (détection de fuite).
+ */
+public class ConnectionPool implements DataSource, AutoCloseable {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final Settings settings;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Map<PooledConnection, Borrow> borrowed = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService housekeeper;
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong leaks = new AtomicLong();
+
+    private volatile boolean closed;
+    private volatile StatementObserver statementObserver;
+    private PrintWriter logWriter;
+
+    public ConnectionPool(String url, String user, String password, Settings settings) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "soundhub-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1_000, settings.housekeepingIntervalMillis());
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Le pool de connexions est fermé");
+        }
+        try {
+            if (!permits.tryAcquire(settings.borrowTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLException("Aucune connexion disponible après " + settings.borrowTimeoutMillis() + " ms ("
+                        + stats() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Attente d'une connexion interrompue", e);
+        }
+
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(DriverManager.getConnection(url, user, password));
+                created.incrementAndGet();
+            }
+            borrowCount.incrementAndGet();
+            // La pile d'appel coûte une allocation et un parcours de pile par emprunt : seulement sur demande
+            borrowed.put(pooled, new Borrow(System.currentTimeMillis(), Thread.currentThread().getName(),
+                    settings.leakStackTraces() ? new Throwable("Connexion empruntée ici") : null));
+            return pooled.handle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Le pool utilise des identifiants fixes");
+    }
+
+    public PoolStats stats() {
+        int idleCount;
+        synchronized (idle) {
+            idleCount = idle.size();
+        }
+        int active = borrowed.size();
+        return new PoolStats(settings.maxSize(), active, idleCount, permits.getQueueLength(),
+                created.get(), destroyed.get(), borrowCount.get(), timeouts.get(), leaks.get());
+    }
+
+    /**
+     * Observe les requêtes préparées exécutées sur les connexions prêtées ensuite (null pour arrêter).
+     * Sans observateur, les requêtes ne sont pas enveloppées.
+     */
+    public void setStatementObserver(StatementObserver observer) {
+        this.statementObserver = observer;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        synchronized (idle) {
+            idle.forEach(this::destroy);
+            idle.clear();
+        }
+    }
+
+    private PooledConnection takeValidIdle() {
+        long now = System.currentTimeMillis();
+        while (true) {
+            PooledConnection candidate;
+            synchronized (idle) {
+                candidate = idle.pollFirst();
+            }
+            if (candidate == null) {
+                return null;
+            }
+            if (now - candidate.lastReturned > settings.idleTimeoutMillis()) {
+                destroy(candidate);
+                continue;
+            }
+            // Une connexion rendue à l'instant n'a pas besoin d'aller-retour de validation
+            if (now - candidate.lastReturned < settings.validationIntervalMillis() || isValid(candidate)) {
+                return candidate;
+            }
+            destroy(candidate);
+        }
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(settings.validationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        if (borrowed.remove(pooled) == null) {
+            return;
+        }
+        try {
+            if (closed || pooled.physical.isClosed()) {
+                destroy(pooled);
+                return;
+            }
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.physical.clearWarnings();
+            pooled.lastReturned = System.currentTimeMillis();
+            synchronized (idle) {
+                idle.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        destroyed.incrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException ignored) {
+            // La connexion est déjà inutilisable
+        }
+    }
+
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        synchronized (idle) {
+            // Les plus anciennes sont en queue de pile : on évince depuis la fin en gardant minIdle
+            while (idle.size() > settings.minIdle()
+                    && now - idle.peekLast().lastReturned > settings.idleTimeoutMillis()) {
+                destroy(idle.pollLast());
+            }
+        }
+
+        if (settings.leakThresholdMillis() > 0) {
+            borrowed.forEach((pooled, borrow) -> {
+                if (!borrow.reported && now - borrow.since > settings.leakThresholdMillis()) {
+                    borrow.reported = true;
+                    leaks.incrementAndGet();
+                    System.err.println("Fuite de connexion probable : empruntée depuis " + (now - borrow.since)
+                            + " ms par le thread " + borrow.thread);
+                    if (borrow.origin != null) {
+                        borrow.origin.printStackTrace();
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        this.logWriter = out;
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Pas un wrapper de " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * Paramètres de dimensionnement du pool (durées en millisecondes).
+     *
+     * @param leakStackTraces relève la pile d'appel de chaque emprunt pour les signalements de fuite
+     *                        (diagnostic) ; sinon seuls l'heure et le thread de l'emprunt sont connus
+     */
+    public record Settings(int maxSize,
+                           int minIdle,
+                           long borrowTimeoutMillis,
+                           long idleTimeoutMillis,
+                           long validationIntervalMillis,
+                           int validationTimeoutSeconds,
+                           long leakThresholdMillis,
+                           long housekeepingIntervalMillis,
+                           boolean leakStackTraces) {
+
+        public Settings {
+            ValidationUtils.require(maxSize > 0, "La taille du pool doit être positive.");
+            ValidationUtils.require(minIdle >= 0 && minIdle <= maxSize, "minIdle doit être compris entre 0 et maxSize.");
+        }
+
+        public static Settings defaults() {
+            return new Settings(10, 2, 10_000, 300_000, 5_000, 2, 60_000, 30_000, false);
+        }
+    }
+
+    /**
+     * Photographie de l'état du pool.
+     */
+    public record PoolStats(int maxSize,
+                            int active,
+                            int idle,
+                            int waiting,
+                            long created,
+                            long destroyed,
+                            long borrowed,
+                            long timeouts,
+                            long leaks) {
+    }
+
+    /**
+     * Reçoit chaque exécution de requête préparée avec ses paramètres liés (dans l'ordre des index).
+     * Appelé sur le thread de l'appelant, avant l'exécution : doit rester bref.
+     */
+    @FunctionalInterface
+    public interface StatementObserver {
+        void executed(String sql, List<Object> parameters);
+    }
+
+    private static final class Borrow {
+        private final long since;
+        private final String thread;
+        private final Throwable origin;
+        private volatile boolean reported;
+
+        private Borrow(long since, String thread, Throwable origin) {
+            this.since = since;
+            this.thread = thread;
+            this.origin = origin;
+        }
+    }
+
+    /**
+     * Connexion physique et poignée proxy remise aux DAOs : close() rend la connexion au pool.
+     */
+    private final class PooledConnection implements InvocationHandler {
+        private final Connection physical;
+        private volatile long lastReturned = System.currentTimeMillis();
+        private volatile Connection handle;
+        private volatile boolean handleClosed;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        private Connection handle() {
+            handleClosed = false;
+            handle = (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+            return handle;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (proxy != handle) {
+                // Une ancienne poignée déjà rendue ne doit plus toucher la connexion physique
+                if (method.getName().equals("isClosed")) {
+                    return true;
+                }
+                if (method.getName().equals("close")) {
+                    return null;
+                }
+                throw new SQLException("Connexion déjà rendue au pool");
+            }
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!handleClosed) {
+                        handleClosed = true;
+                        release(this);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return handleClosed || physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled[" + physical + "]";
+                }
+                default -> {
+                    if (handleClosed) {
+                        throw new SQLException("Connexion déjà rendue au pool");
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    StatementObserver observer = statementObserver;
+                    if (observer != null && method.getName().equals("prepareStatement")) {
+                        return ObservedStatement.wrap((PreparedStatement) result, (String) args[0], observer);
+                    }
+                    return result;
+                }
+            }
+        }
+    }
+
+    /**
+     * Requête préparée qui relève ses paramètres et signale chaque exécution à l'observateur.
+     */
+    private static final class ObservedStatement implements InvocationHandler {
+        private final PreparedStatement target;
+        private final String sql;
+        private final StatementObserver observer;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+
+        private ObservedStatement(PreparedStatement target, String sql, StatementObserver observer) {
+            this.target = target;
+            this.sql = sql;
+            this.observer = observer;
+        }
+
+        private static PreparedStatement wrap(PreparedStatement target, String sql, StatementObserver observer) {
+            return (PreparedStatement) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, new ObservedStatement(target, sql, observer));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            boolean noArgs = args == null || args.length == 0;
+            if (name.startsWith("set") && !noArgs && args.length >= 2 && args[0] instanceof Integer index
+                    && method.getDeclaringClass() == PreparedStatement.class) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (noArgs && (name.equals("executeQuery") || name.equals("executeUpdate")
+                    || name.equals("execute") || name.equals("addBatch"))) {
+                observer.executed(sql, new ArrayList<>(parameters.values()));
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,21 +1,75 @@
 package utils;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DBConnection {
-    private static final String URL = "jdbc:mysql://localhost:4240/soundhub?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true";
+    private static final String URL = "jdbc:mysql://localhost:4240/soundhub?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true";
     private static final String USER = "root";
     private static final String PASSWORD = "root";
 
+    private static volatile ConnectionPool pool;
+    private static QueryPlanAudit planAudit;
+
+    /**
+     * Emprunte une connexion au pool partagé. Le close() du try-with-resources la rend au pool.
+     */
     public static Connection getConnection() throws SQLException {
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver"); // charge le driver MySQL
-        } catch (ClassNotFoundException e) {
-            System.out.println("Driver MySQL non trouvé !");
-            e.printStackTrace();
+        return getDataSource().getConnection();
+    }
+
+    public static ConnectionPool getDataSource() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DBConnection.class) {
+                current = pool;
+                if (current == null) {
+                    try {
+                        Class.forName("com.mysql.cj.jdbc.Driver"); // charge le driver MySQL
+                    } catch (ClassNotFoundException e) {
+                        System.out.println("Driver MySQL non trouvé !");
+                        e.printStackTrace();
+                    }
+                    current = new ConnectionPool(
+                            System.getProperty("soundhub.db.url", URL),
+                            System.getProperty("soundhub.db.user", USER),
+                            System.getProperty("soundhub.db.password", PASSWORD),
+                            settingsFromProperties());
+                    if (Boolean.getBoolean("soundhub.db.explain")) {
+                        // Contrôle des plans en développement : chaque nouvelle requête est rejouée sous EXPLAIN
+                        planAudit = new QueryPlanAudit(current, Long.getLong("soundhub.db.explain.maxRows", 1_000));
+                        current.setStatementObserver(planAudit);
+                    }
+                    pool = current;
+                }
+            }
         }
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return current;
+    }
+
+    public static synchronized void shutdown() {
+        if (planAudit != null) {
+            planAudit.close();
+            planAudit = null;
+        }
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    // Dimensionnement surchargeable via -Dsoundhub.db.pool.* (durées en ms, leakStackTraces=true pour diagnostiquer une fuite)
+    private static ConnectionPool.Settings settingsFromProperties() {
+        ConnectionPool.Settings defaults = ConnectionPool.Settings.defaults();
+        return new ConnectionPool.Settings(
+                Integer.getInteger("soundhub.db.pool.maxSize", defaults.maxSize()),
+                Integer.getInteger("soundhub.db.pool.minIdle", defaults.minIdle()),
+                Long.getLong("soundhub.db.pool.borrowTimeout", defaults.borrowTimeoutMillis()),
+                Long.getLong("soundhub.db.pool.idleTimeout", defaults.idleTimeoutMillis()),
+                Long.getLong("soundhub.db.pool.validationInterval", defaults.validationIntervalMillis()),
+                Integer.getInteger("soundhub.db.pool.validationTimeoutSeconds", defaults.validationTimeoutSeconds()),
+                Long.getLong("soundhub.db.pool.leakThreshold", defaults.leakThresholdMillis()),
+                Long.getLong("soundhub.db.pool.housekeepingInterval", defaults.housekeepingIntervalMillis()),
+                Boolean.getBoolean("soundhub.db.pool.leakStackTraces"));
     }
 }
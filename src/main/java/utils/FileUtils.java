@@ -8,14 +8,12 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
 import java.util.List;
-import java.util.UUID;
 
 public class FileUtils {
 
-    private static final String MEDIA_DIRECTORY = "media";
+    static final String MEDIA_DIRECTORY = "media";
     private static final List<String> SUPPORTED_AUDIO_EXTENSIONS = Arrays.asList(
         "*.mp3", "*.wav", "*.m4a", "*.aac", "*.ogg", "*.flac"
     );
@@ -48,32 +46,6 @@ public class FileUtils {
         return fileChooser.showOpenDialog(ownerWindow);
     }
 
-    /**
-     * Copie un fichier audio dans le dossier media et retourne le nouveau chemin
-     */
-    public static String copyAudioFileToMedia(File sourceFile) throws IOException {
-        if (sourceFile == null || !sourceFile.exists()) {
-            throw new IllegalArgumentException("Fichier source invalide");
-        }
-
-        // Vérifier l'extension du fichier
-        String fileName = sourceFile.getName();
-        String extension = getFileExtension(fileName);
-        if (!isAudioFile(fileName)) {
-            throw new IllegalArgumentException("Format de fichier non supporté: " + extension);
-        }
-
-        // Créer un nom unique pour éviter les conflits
-        String uniqueFileName = generateUniqueFileName(fileName);
-        Path targetPath = Paths.get(MEDIA_DIRECTORY, uniqueFileName);
-
-        // Copier le fichier
-        Files.copy(sourceFile.toPath(), targetPath, StandardCopyOption.REPLACE_EXISTING);
-
-        // Retourner le chemin relatif
-        return targetPath.toString().replace("\\", "/"); // Normaliser les séparateurs
-    }
-
     /**
      * Vérifie si un fichier est un fichier audio supporté
      */
@@ -82,6 +54,23 @@ public class FileUtils {
         return Arrays.asList("mp3", "wav", "m4a", "aac", "ogg", "flac").contains(extension);
     }
 
+    /**
+     * Vérifie que le contenu du fichier est bien du son au format annoncé par son extension
+     * (voir {@link AudioProbe}) et retourne ses caractéristiques.
+     */
+    public static AudioProbe.AudioInfo probeAudioFile(Path file) throws IOException {
+        String extension = getFileExtension(file.getFileName().toString());
+        if (!isAudioFile(file.getFileName().toString())) {
+            throw new IllegalArgumentException("Format de fichier non supporté: " + extension);
+        }
+        AudioProbe.AudioInfo info = AudioProbe.probe(file);
+        if (!info.format().hasExtension(extension)) {
+            throw new IllegalArgumentException("Le contenu du fichier (" + info.format()
+                    + ") ne correspond pas à son extension ." + extension);
+        }
+        return info;
+    }
+
     /**
      * Obtient l'extension d'un fichier
      */
@@ -93,26 +82,10 @@ public class FileUtils {
         return "";
     }
 
-    /**
-     * Génère un nom de fichier unique
-     */
-    private static String generateUniqueFileName(String originalFileName) {
-        String extension = getFileExtension(originalFileName);
-        String baseName = originalFileName.substring(0, originalFileName.lastIndexOf('.'));
-        
-        // Nettoyer le nom de base (supprimer les caractères spéciaux)
-        baseName = baseName.replaceAll("[^a-zA-Z0-9\\-_]", "_");
-        
-        // Ajouter un UUID pour garantir l'unicité
-        String uniqueId = UUID.randomUUID().toString().substring(0, 8);
-        
-        return baseName + "_" + uniqueId + "." + extension;
-    }
-
     /**
      * Crée le dossier media s'il n'existe pas
      */
-    private static void createMediaDirectory() {
+    public static void createMediaDirectory() {
         try {
             Path mediaPath = Paths.get(MEDIA_DIRECTORY);
             if (!Files.exists(mediaPath)) {
@@ -0,0 +1,131 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Ensemble d'entiers à adressage ouvert (sondage linéaire), sans boxing.
+ * contains/add/remove sont en temps constant amorti.
+ */
+public class IntHashSet {
+
+    private static final int FREE = 0;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    // 0 sert de marqueur de case libre : sa présence éventuelle est suivie à part
+    private int[] slots;
+    private int size;
+    private boolean containsFree;
+
+    public IntHashSet() {
+        this(16);
+    }
+
+    public IntHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        slots = new int[capacity];
+    }
+
+    public boolean contains(int value) {
+        if (value == FREE) {
+            return containsFree;
+        }
+        int mask = slots.length - 1;
+        for (int i = mix(value) & mask; slots[i] != FREE; i = (i + 1) & mask) {
+            if (slots[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean add(int value) {
+        if (value == FREE) {
+            if (containsFree) {
+                return false;
+            }
+            containsFree = true;
+            size++;
+            return true;
+        }
+        int mask = slots.length - 1;
+        int i = mix(value) & mask;
+        while (slots[i] != FREE) {
+            if (slots[i] == value) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[i] = value;
+        size++;
+        if (size > slots.length * LOAD_FACTOR) {
+            rehash(slots.length << 1);
+        }
+        return true;
+    }
+
+    public boolean remove(int value) {
+        if (value == FREE) {
+            if (!containsFree) {
+                return false;
+            }
+            containsFree = false;
+            size--;
+            return true;
+        }
+        int mask = slots.length - 1;
+        int i = mix(value) & mask;
+        while (slots[i] != value) {
+            if (slots[i] == FREE) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        // Suppression par décalage arrière : pas de pierre tombale, les sondages restent courts
+        int gap = i;
+        for (int j = (gap + 1) & mask; slots[j] != FREE; j = (j + 1) & mask) {
+            int home = mix(slots[j]) & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                slots[gap] = slots[j];
+                gap = j;
+            }
+        }
+        slots[gap] = FREE;
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, FREE);
+        size = 0;
+        containsFree = false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = slots;
+        slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int value : old) {
+            if (value != FREE) {
+                int i = mix(value) & mask;
+                while (slots[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                slots[i] = value;
+            }
+        }
+    }
+
+    // Les ids auto-incrémentés sont consécutifs : on les disperse avant de les masquer
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,217 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Fichiers audio rangés par contenu : un fichier est nommé d'après son empreinte SHA-256 et
+ * n'est stocké qu'une fois, quel que soit le nombre de tracks qui le référencent.
+ * <p>
+ * L'empreinte est calculée pendant la copie (une seule lecture de la source) vers un fichier
+ * temporaire, déplacé ensuite d'un coup sous {@code media/ab/cd/<empreinte>.<ext>}. Les deux
+ * niveaux de répertoires tirés du début de l'empreinte gardent quelques fichiers par dossier même
+ * avec des centaines de milliers de morceaux. Les références suivent les track.file_path du
+ * catalogue (voir TrackService) : un fichier du magasin qui n'est plus référencé est supprimé.
+ * Un fichier rangé porte en plus une référence provisoire jusqu'à l'enregistrement de son track :
+ * une copie retrouvée par déduplication ne peut pas disparaître entre {@link #store} et la soumission.
+ * Les anciens fichiers posés à plat dans {@code media/} sont comptés mais jamais supprimés.
+ */
+public class MediaStore {
+
+    private static final String TEMP_DIRECTORY = ".tmp";
+    private static final long CHUNK_SIZE = 4L * 1024 * 1024;
+    private static final Pattern STORED_NAME = Pattern.compile("[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.[a-z0-9]+");
+
+    private final Path root;
+    private final Map<String, Integer> references = new HashMap<>();
+
+    public MediaStore(Path root) {
+        this.root = root.normalize();
+    }
+
+    public static MediaStore defaultStore() {
+        return new MediaStore(Paths.get(FileUtils.MEDIA_DIRECTORY));
+    }
+
+    /**
+     * Comme {@link #store(Path, Progress)}, sans suivi de l'avancement.
+     */
+    public StoredMedia store(Path source) throws IOException {
+        return store(source, (copied, total) -> {
+        });
+    }
+
+    /**
+     * Range le fichier dans le magasin, ou retrouve la copie existante d'un contenu identique.
+     * Le fichier porte une référence provisoire, rendue par {@link #release} une fois le track
+     * enregistré (il détient alors la sienne) ou par {@link #discardIfUnreferenced} s'il ne l'est pas.
+     * <p>
+     * La source est projetée en mémoire par tranches : chaque tranche est hachée puis écrite sans
+     * passer par un tampon du tas, en une seule lecture du fichier. Un thread interrompu arrête la
+     * copie (ClosedByInterruptException) ; le fichier temporaire est alors supprimé et rien
+     * n'apparaît dans le magasin.
+     *
+     * @param progress appelé après chaque tranche, sur le thread de la copie
+     */
+    public StoredMedia store(Path source, Progress progress) throws IOException {
+        String fileName = source.getFileName().toString();
+        if (!Files.isRegularFile(source)) {
+            throw new IllegalArgumentException("Fichier source invalide");
+        }
+        // Extension et octets de tête : un fichier renommé n'entre pas dans le magasin
+        FileUtils.probeAudioFile(source);
+
+        Path tempDirectory = root.resolve(TEMP_DIRECTORY);
+        Files.createDirectories(tempDirectory);
+        Path temporary = Files.createTempFile(tempDirectory, "upload", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                size = in.size();
+                for (long position = 0; position < size; position += CHUNK_SIZE) {
+                    MappedByteBuffer chunk = in.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_SIZE, size - position));
+                    digest.update(chunk.duplicate());
+                    while (chunk.hasRemaining()) {
+                        out.write(chunk);
+                    }
+                    progress.copied(position + chunk.limit(), size);
+                }
+                // Contenu sur disque avant le déplacement : après une coupure, le magasin ne contient jamais de fichier tronqué
+                out.force(true);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String extension = FileUtils.getFileExtension(fileName).toLowerCase(Locale.ROOT);
+            Path target = root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash + "." + extension);
+            return new StoredMedia(relativePath(target), hash, size, moveIntoPlace(temporary, target));
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Ajoute une référence (un track dont file_path vaut {@code path}).
+     */
+    public synchronized void retain(String path) {
+        if (path != null && !path.isBlank()) {
+            references.merge(key(path), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Retire une référence ; le fichier du magasin est supprimé quand plus aucun track ne le référence.
+     */
+    public synchronized void release(String path) {
+        if (path == null || path.isBlank()) {
+            return;
+        }
+        String key = key(path);
+        Integer count = references.get(key);
+        if (count == null) {
+            // Chemin jamais compté (ou déjà libéré) : ce n'est pas à cet appel de supprimer le fichier
+            return;
+        }
+        if (count > 1) {
+            references.put(key, count - 1);
+        } else {
+            references.remove(key);
+            deleteIfManaged(key);
+        }
+    }
+
+    /**
+     * Rend la référence provisoire d'un fichier rangé qu'aucun track n'a finalement enregistré
+     * (dépôt abandonné ou en échec) ; le fichier est supprimé si rien d'autre ne le référence.
+     */
+    public void discardIfUnreferenced(String path) {
+        release(path);
+    }
+
+    public synchronized int referenceCount(String path) {
+        return path == null ? 0 : references.getOrDefault(key(path), 0);
+    }
+
+    /**
+     * true si {@code path} désigne un fichier rangé par contenu (et non un ancien fichier à plat).
+     */
+    public boolean isManaged(String path) {
+        Path normalized = Paths.get(path).normalize();
+        return normalized.startsWith(root)
+                && STORED_NAME.matcher(root.relativize(normalized).toString().replace('\\', '/')).matches();
+    }
+
+    // Le test d'existence, la référence provisoire et la suppression d'un fichier plus référencé se
+    // font sous le même verrou : une copie retrouvée ne peut plus être supprimée avant d'être soumise
+    private synchronized boolean moveIntoPlace(Path temporary, Path target) throws IOException {
+        boolean existing = Files.exists(target);
+        if (!existing) {
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target);
+            }
+        }
+        retain(relativePath(target));
+        return existing;
+    }
+
+    private void deleteIfManaged(String path) {
+        if (!isManaged(path)) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(Paths.get(path));
+        } catch (IOException e) {
+            System.err.println("Suppression impossible de " + path + ": " + e.getMessage());
+        }
+    }
+
+    private String relativePath(Path path) {
+        return path.toString().replace("\\", "/");
+    }
+
+    private String key(String path) {
+        return relativePath(Paths.get(path).normalize());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Avancement d'une copie.
+     */
+    @FunctionalInterface
+    public interface Progress {
+        void copied(long bytes, long totalBytes);
+    }
+
+    /**
+     * Fichier rangé.
+     *
+     * @param path         chemin relatif à enregistrer dans track.file_path
+     * @param deduplicated true si un contenu identique était déjà stocké (rien n'a été ajouté)
+     */
+    public record StoredMedia(String path, String sha256, long size, boolean deduplicated) {
+    }
+}
@@ -0,0 +1,128 @@
+package utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contrôle des plans d'exécution des requêtes des DAOs (activé par -Dsoundhub.db.explain=true).
+ * <p>
+ * La première exécution de chaque requête est rejouée avec ses paramètres sous EXPLAIN, sur un
+ * thread à part et une autre connexion du pool. Une requête filtrée (WHERE) qui parcourt toute une
+ * table, ou dont l'estimation dépasse le budget de lignes, est signalée. Les lectures complètes
+ * voulues (catalogue entier, sans WHERE) ne le sont pas.
+ */
+public class QueryPlanAudit implements ConnectionPool.StatementObserver, AutoCloseable {
+
+    private final ConnectionPool pool;
+    private final long maxRows;
+    private final Set<String> seen = ConcurrentHashMap.newKeySet();
+    private final List<Finding> findings = new ArrayList<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("soundhub-explain").factory());
+
+    /**
+     * @param maxRows estimation de lignes examinées au-delà de laquelle une requête est signalée
+     */
+    public QueryPlanAudit(ConnectionPool pool, long maxRows) {
+        this.pool = pool;
+        this.maxRows = maxRows;
+    }
+
+    @Override
+    public void executed(String sql, List<Object> parameters) {
+        if (explainable(sql) && seen.add(sql)) {
+            executor.execute(() -> explain(sql, parameters));
+        }
+    }
+
+    /**
+     * Requêtes signalées jusqu'ici.
+     */
+    public synchronized List<Finding> findings() {
+        return List.copyOf(findings);
+    }
+
+    /**
+     * Attend les EXPLAIN en cours puis affiche le bilan.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Finding> current = findings();
+        System.out.println("Plans contrôlés : " + seen.size() + " requêtes, " + current.size() + " signalée(s)");
+    }
+
+    private static boolean explainable(String sql) {
+        String head = sql.stripLeading().toUpperCase(Locale.ROOT);
+        return head.startsWith("SELECT") || head.startsWith("UPDATE") || head.startsWith("DELETE");
+    }
+
+    private void explain(String sql, List<Object> parameters) {
+        boolean filtered = sql.toUpperCase(Locale.ROOT).contains(" WHERE ");
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+
+            for (int i = 0; i < parameters.size(); i++) {
+                stmt.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String table = column(rs, "table");
+                    String type = column(rs, "type");
+                    String key = column(rs, "key");
+                    long rows = rs.getLong("rows");
+                    boolean fullScan = "ALL".equalsIgnoreCase(type) || "index".equalsIgnoreCase(type);
+                    if ((filtered && fullScan && rows > maxRows) || rows > maxRows * 100) {
+                        report(new Finding(sql, table, type, key, rows));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("EXPLAIN impossible pour \"" + sql + "\": " + e.getMessage());
+        }
+    }
+
+    private synchronized void report(Finding finding) {
+        findings.add(finding);
+        System.err.println("Plan à surveiller : " + finding);
+    }
+
+    // Les colonnes d'EXPLAIN diffèrent légèrement entre MySQL et MariaDB : lecture par libellé
+    private static String column(ResultSet rs, String label) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            if (label.equalsIgnoreCase(meta.getColumnLabel(i))) {
+                return rs.getString(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Une table d'une requête lue par parcours complet ou au-delà du budget de lignes.
+     */
+    public record Finding(String sql, String table, String accessType, String key, long estimatedRows) {
+
+        @Override
+        public String toString() {
+            return table + " (" + accessType + (key != null ? ", index " + key : ", sans index") + ", ~"
+                    + estimatedRows + " lignes) dans : " + sql;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package dao;
+
+import model.Album;
+import model.Track;
+import model.TrackStatus;
+import model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Les agrégats de la table album suivent les écritures de tracks, en ne recalculant que les
+ * albums quittés ou rejoints, et AlbumDAO les relit tels quels.
+ */
+class AlbumAggregatesTest {
+
+    private TestDatabase database;
+    private final TrackDAO trackDAO = new TrackDAO();
+
+    @BeforeEach
+    void setUp() {
+        database = TestDatabase.open();
+        // Un artiste, six tracks approuvés : deux par album ("Album 0" à "Album 2")
+        database.seed(1, 6);
+        database.migrate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    private int trackCount(String album) throws SQLException {
+        try (Connection conn = database.connect();
+             PreparedStatement stmt = conn.prepareStatement("SELECT track_count FROM album WHERE title = ?")) {
+            stmt.setString(1, album);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        }
+    }
+
+    private Track track(String album) {
+        return trackDAO.findAll().stream().filter(track -> album.equals(track.getAlbum())).findFirst().orElseThrow();
+    }
+
+    private static Track edited(Track track, String title, String album, TrackStatus status) {
+        return new Track(track.getId(), title, track.getArtist(), album, track.getDuration(), track.getFilePath(),
+                status, track.getUploadDate());
+    }
+
+    private static long albumUpdates(List<String> statements) {
+        return statements.stream().filter(sql -> sql.startsWith("UPDATE album")).count();
+    }
+
+    @Test
+    void migrationComputesTheAggregates() throws SQLException {
+        assertEquals(2, trackCount("Album 0"));
+        assertEquals(2, trackCount("Album 2"));
+    }
+
+    @Test
+    void insertRefreshesOnlyTheJoinedApprovedAlbum() throws SQLException {
+        User artist = track("Album 0").getArtist();
+
+        List<String> pending = TestDatabase.recordStatements(() -> trackDAO.save(new Track(0, "Démo", artist, "Album 0",
+                Duration.ofSeconds(200), "media/demo.mp3", TrackStatus.PENDING, LocalDateTime.now())));
+        assertEquals(0, albumUpdates(pending));
+        assertEquals(2, trackCount("Album 0"));
+
+        List<String> approved = TestDatabase.recordStatements(() -> trackDAO.save(new Track(0, "Live", artist, "Album 0",
+                Duration.ofSeconds(200), "media/live.mp3", TrackStatus.APPROVED, LocalDateTime.now())));
+        assertEquals(1, albumUpdates(approved));
+        assertEquals(3, trackCount("Album 0"));
+    }
+
+    @Test
+    void titleChangeLeavesTheAggregatesAlone() {
+        Track original = track("Album 1");
+        Track track = edited(original, "Nouveau titre", original.getAlbum(), original.getStatus());
+
+        assertEquals(0, albumUpdates(TestDatabase.recordStatements(() -> trackDAO.save(track))));
+    }
+
+    @Test
+    void statusChangeRefreshesItsAlbum() throws SQLException {
+        Track original = track("Album 1");
+        Track track = edited(original, original.getTitle(), original.getAlbum(), TrackStatus.REJECTED);
+
+        assertEquals(1, albumUpdates(TestDatabase.recordStatements(() -> trackDAO.save(track))));
+        assertEquals(1, trackCount("Album 1"));
+        assertEquals(2, trackCount("Album 0"));
+    }
+
+    @Test
+    void albumChangeRefreshesTheLeftAndJoinedAlbums() throws SQLException {
+        Track original = track("Album 1");
+        Track track = edited(original, original.getTitle(), "Album 2", original.getStatus());
+
+        assertEquals(2, albumUpdates(TestDatabase.recordStatements(() -> trackDAO.save(track))));
+        assertEquals(1, trackCount("Album 1"));
+        assertEquals(3, trackCount("Album 2"));
+    }
+
+    @Test
+    void deleteReadsTheAlbumsInOneQuery() throws SQLException {
+        List<Integer> ids = trackDAO.findAll().stream()
+                .filter(track -> !"Album 2".equals(track.getAlbum()))
+                .map(Track::getId)
+                .toList();
+
+        List<String> statements = TestDatabase.recordStatements(() -> trackDAO.deleteAll(ids));
+        assertEquals(1, statements.stream().filter(sql -> sql.startsWith("SELECT")).count());
+        assertTrue(statements.get(0).startsWith("SELECT DISTINCT album_id"));
+        assertEquals(0, trackCount("Album 0"));
+        assertEquals(0, trackCount("Album 1"));
+        assertEquals(2, trackCount("Album 2"));
+    }
+
+    @Test
+    void readsReturnTheStoredAggregates() {
+        Track original = track("Album 1");
+        User artist = original.getArtist();
+        trackDAO.save(edited(original, original.getTitle(), "Album 2", original.getStatus()));
+        AlbumDAO albumDAO = new AlbumDAO();
+
+        assertEquals(List.of("Album 2", "Album 0"), albumDAO.findMostPopular(2).stream().map(Album::getTitle).toList());
+        Album album = albumDAO.findByArtistAndTitle(artist, "Album 2").orElseThrow();
+        assertEquals(3, album.getTrackCount());
+        assertEquals(trackDAO.findAll().stream()
+                        .filter(track -> "Album 2".equals(track.getAlbum()))
+                        .map(Track::getDuration)
+                        .reduce(Duration.ZERO, Duration::plus),
+                album.getTotalDuration());
+        assertEquals(List.of("Album 0", "Album 1", "Album 2"),
+                albumDAO.findByArtist(artist).stream().map(Album::getTitle).toList());
+    }
+}
@@ -0,0 +1,139 @@
+package dao;
+
+import model.Role;
+import model.Track;
+import model.TrackStatus;
+import model.User;
+import model.UserStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntityCacheTest {
+
+    // Joue le rôle du thread JavaFX : les tâches attendent qu'on les exécute
+    private final Deque<Runnable> ownerThread = new ArrayDeque<>();
+
+    @BeforeEach
+    void setUp() {
+        EntityCache.invalidateAll();
+        EntityCache.setRefreshExecutor(ownerThread::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        EntityCache.setRefreshExecutor(Runnable::run);
+        EntityCache.invalidateAll();
+    }
+
+    private static Track track(User artist, String title, String album, long seconds, String path,
+                               TrackStatus status, LocalDateTime uploaded) {
+        return new Track(7, title, artist, album, Duration.ofSeconds(seconds), path, status, uploaded);
+    }
+
+    @Test
+    void differingRowIsCopiedOnTheOwnerThreadOnly() {
+        User artist = EntityCache.users().merge(1, new User(1, "marco", "marco@soundhub.local", "hash", Role.USER, UserStatus.ACTIVE));
+        LocalDateTime uploaded = LocalDateTime.of(2024, 5, 1, 10, 0);
+        Track canonical = EntityCache.tracks().merge(7, track(artist, "Orbit", "Space Walk", 187, "media/orbit.mp3",
+                TrackStatus.PENDING, uploaded));
+        List<Track> refreshed = new ArrayList<>();
+        EntityCache.tracks().addRefreshListener(refreshed::add);
+
+        Track fresh = track(artist, "Orbit (remaster)", "Space Walk II", 190, "media/ab/cd/orbit.flac",
+                TrackStatus.APPROVED, uploaded.plusDays(1));
+        assertSame(canonical, EntityCache.tracks().merge(7, fresh));
+
+        // Rien n'est modifié sur le thread du DAO
+        assertEquals("Orbit", canonical.getTitle());
+        assertEquals(TrackStatus.PENDING, canonical.getStatus());
+        assertTrue(refreshed.isEmpty());
+
+        ownerThread.forEach(Runnable::run);
+        assertEquals("Orbit (remaster)", canonical.getTitle());
+        assertEquals("Space Walk II", canonical.getAlbum());
+        assertEquals(Duration.ofSeconds(190), canonical.getDuration());
+        assertEquals("media/ab/cd/orbit.flac", canonical.getFilePath());
+        assertEquals(TrackStatus.APPROVED, canonical.getStatus());
+        assertEquals(uploaded.plusDays(1), canonical.getUploadDate());
+        assertEquals(List.of(canonical), refreshed);
+    }
+
+    @Test
+    void identicalRowSchedulesNothing() {
+        User artist = EntityCache.users().merge(1, new User(1, "marco", "marco@soundhub.local", "hash", Role.USER, UserStatus.ACTIVE));
+        LocalDateTime uploaded = LocalDateTime.of(2024, 5, 1, 10, 0);
+        Track canonical = EntityCache.tracks().merge(7, track(artist, "Orbit", null, 187, "media/orbit.mp3",
+                TrackStatus.APPROVED, uploaded));
+
+        assertSame(canonical, EntityCache.tracks().merge(7, track(artist, "Orbit", null, 187, "media/orbit.mp3",
+                TrackStatus.APPROVED, uploaded)));
+        assertSame(artist, EntityCache.users().merge(1,
+                new User(1, "marco", "marco@soundhub.local", "hash", Role.USER, UserStatus.ACTIVE)));
+        assertTrue(ownerThread.isEmpty());
+    }
+
+    @Test
+    void userRoleAndStatusFollowTheDatabase() {
+        User canonical = EntityCache.users().merge(1, new User(1, "marco", "marco@soundhub.local", "hash", Role.USER, UserStatus.PENDING));
+
+        assertSame(canonical, EntityCache.users().merge(1,
+                new User(1, "marco", "marco@soundhub.local", "hash", Role.ADMIN, UserStatus.ACTIVE)));
+        assertEquals(UserStatus.PENDING, canonical.getStatus());
+
+        ownerThread.forEach(Runnable::run);
+        assertEquals(Role.ADMIN, canonical.getRole());
+        assertEquals(UserStatus.ACTIVE, canonical.getStatus());
+    }
+
+    @Test
+    void snapshotUserIsCompletedInPlaceByTheDatabaseRow(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve(".soundhub").resolve("catalog.snapshot");
+        CatalogSnapshot.write(file, List.of(new User(1, "marco", "marco@soundhub.local", "hash", Role.USER, UserStatus.ACTIVE)), List.of());
+        assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(file));
+        assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(file.getParent()));
+        EntityCache.invalidateAll();
+
+        User provisional = CatalogSnapshot.read(file).orElseThrow().getUsers().get(0);
+        assertNull(provisional.getEmail());
+        assertNull(provisional.getPasswordHash());
+
+        assertSame(provisional, EntityCache.users().merge(1,
+                new User(1, "marco", "marco@soundhub.local", "hash", Role.USER, UserStatus.ACTIVE)));
+        // Une connexion peut vérifier le mot de passe sans attendre le thread JavaFX
+        assertEquals("hash", provisional.getPasswordHash());
+        // Utilisateur inchangé depuis l'instantané : complété sans recopie planifiée
+        assertEquals("marco@soundhub.local", provisional.getEmail());
+        assertTrue(ownerThread.isEmpty());
+    }
+
+    @Test
+    void capturedSnapshotIgnoresLaterChanges(@TempDir Path directory) {
+        Path file = directory.resolve("catalog.snapshot");
+        User user = new User(1, "marco", "marco@soundhub.local", "hash", Role.USER, UserStatus.ACTIVE);
+        CatalogSnapshot.Content content = CatalogSnapshot.Content.capture(List.of(user), List.of());
+
+        // Modifié par le thread JavaFX pendant que l'instantané s'écrit ailleurs
+        user.setStatus(UserStatus.BANNED);
+        CatalogSnapshot.write(file, content);
+        EntityCache.invalidateAll();
+
+        assertEquals(UserStatus.ACTIVE, CatalogSnapshot.read(file).orElseThrow().getUsers().get(0).getStatus());
+    }
+}
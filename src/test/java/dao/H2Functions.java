@@ -0,0 +1,19 @@
+package dao;
+
+/**
+ * Fonctions MySQL utilisées par les DAOs et absentes de H2, déclarées par {@link TestDatabase#migrate()}.
+ * Une base de test n'a qu'un client : le verrou nommé est toujours accordé.
+ */
+public final class H2Functions {
+
+    private H2Functions() {
+    }
+
+    public static int getLock(String name, int timeoutSeconds) {
+        return 1;
+    }
+
+    public static int releaseLock(String name) {
+        return 1;
+    }
+}
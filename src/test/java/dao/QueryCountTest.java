@@ -0,0 +1,115 @@
+package dao;
+
+import model.Playlist;
+import model.Track;
+import model.TrackStatus;
+import model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import utils.DBConnection;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Les chargements ramènent les artistes par jointure : le nombre de requêtes ne dépend pas du
+ * nombre de lignes (plus de findById par ligne).
+ */
+class QueryCountTest {
+
+    private TestDatabase database;
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    private TestDatabase.Seed seed(int artists) {
+        database = TestDatabase.open();
+        return database.seed(artists, 5);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 40})
+    void findAllRunsOneQuery(int artists) {
+        seed(artists);
+        TrackDAO trackDAO = new TrackDAO();
+        int[] loaded = new int[1];
+
+        assertEquals(1, TestDatabase.countStatements(() -> loaded[0] = trackDAO.findAll().size()));
+        assertEquals(artists * 5, loaded[0]);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 40})
+    void streamAllRunsOneQueryAndReturnsItsConnection(int artists) {
+        seed(artists);
+        TrackDAO trackDAO = new TrackDAO();
+        List<Integer> ids = new ArrayList<>();
+
+        assertEquals(1, TestDatabase.countStatements(() -> {
+            try (Stream<Track> tracks = trackDAO.streamAll()) {
+                tracks.forEach(track -> ids.add(track.getId()));
+            }
+        }));
+        assertEquals(artists * 5, ids.size());
+        assertEquals(artists * 5, new HashSet<>(ids).size());
+        assertEquals(0, DBConnection.getDataSource().stats().active());
+
+        int[] visited = new int[1];
+        trackDAO.forEach(track -> visited[0]++);
+        assertEquals(artists * 5, visited[0]);
+        assertEquals(0, DBConnection.getDataSource().stats().active());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 40})
+    void findByStatusRunsOneQuery(int artists) {
+        seed(artists);
+        TrackDAO trackDAO = new TrackDAO();
+        int[] loaded = new int[1];
+
+        assertEquals(1, TestDatabase.countStatements(() -> loaded[0] = trackDAO.findByStatus(TrackStatus.APPROVED).size()));
+        assertEquals(artists * 5, loaded[0]);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 40})
+    void getPlaylistTracksRunsOneQuery(int artists) {
+        TestDatabase.Seed seed = seed(artists);
+        PlaylistDAO playlistDAO = new PlaylistDAO();
+        int[] loaded = new int[1];
+
+        assertEquals(1, TestDatabase.countStatements(() -> loaded[0] = playlistDAO.getPlaylistTracks(seed.playlistId()).size()));
+        assertEquals(artists * 5, loaded[0]);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 40})
+    void playlistsByUserRunOneQuery(int artists) {
+        TestDatabase.Seed seed = seed(artists);
+        User owner = new UserDAO().findById(seed.userIds().get(0)).orElseThrow();
+        PlaylistDAO playlistDAO = new PlaylistDAO();
+        List<List<Playlist>> loaded = new ArrayList<>();
+
+        assertEquals(1, TestDatabase.countStatements(() -> loaded.add(playlistDAO.findByUser(owner))));
+        assertEquals(artists * 5, loaded.get(0).get(0).getTracks().size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 40})
+    void favoritesByUserRunOneQuery(int artists) {
+        TestDatabase.Seed seed = seed(artists);
+        User owner = new UserDAO().findById(seed.userIds().get(0)).orElseThrow();
+        FavoriteDAO favoriteDAO = new FavoriteDAO();
+        int[] loaded = new int[1];
+
+        assertEquals(1, TestDatabase.countStatements(() -> loaded[0] = favoriteDAO.findByUser(owner).size()));
+        assertEquals(artists * 5, loaded[0]);
+    }
+}
@@ -0,0 +1,199 @@
+package dao;
+
+import model.Playlist;
+import model.Role;
+import model.Track;
+import model.TrackStatus;
+import model.User;
+import model.UserStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import utils.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Chaque requête des DAOs de tracks, albums, utilisateurs, playlists et favoris, rejouée sous EXPLAIN sur
+ * une base migrée et remplie : une requête filtrée ne parcourt aucune table, et une lecture
+ * complète voulue (sans WHERE) ne parcourt que sa table principale, les jointures passant par un index.
+ */
+class QueryPlanTest {
+
+    // H2 note le chemin d'accès de chaque table : "/* public.track.tableScan */" pour un parcours complet
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* [\\w\"]+\\.([\\w\"]+)\\.tableScan");
+
+    private TestDatabase database;
+    private TestDatabase.Seed seed;
+    private final Map<String, List<Object>> statements = new LinkedHashMap<>();
+
+    private final UserDAO userDAO = new UserDAO();
+    private final TrackDAO trackDAO = new TrackDAO();
+    private final PlaylistDAO playlistDAO = new PlaylistDAO();
+    private final FavoriteDAO favoriteDAO = new FavoriteDAO();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = TestDatabase.open();
+        seed = database.seed(50, 20);
+        database.migrate();
+        try (Connection conn = database.connect(); Statement stmt = conn.createStatement()) {
+            stmt.execute("ANALYZE");
+        }
+        // Première exécution de chaque requête, avec ses paramètres
+        DBConnection.getDataSource().setStatementObserver((sql, parameters) -> statements.putIfAbsent(sql, parameters));
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    @Test
+    void everyDaoStatementUsesAnIndex() throws SQLException {
+        exerciseTracks();
+        exerciseUsers();
+        exercisePlaylists();
+        exerciseFavorites();
+        exerciseAlbums();
+        DBConnection.getDataSource().setStatementObserver(null);
+
+        List<String> findings = new ArrayList<>();
+        try (Connection conn = database.connect()) {
+            for (Entry<String, List<Object>> statement : statements.entrySet()) {
+                String sql = statement.getKey();
+                String plan = explain(conn, sql, statement.getValue());
+                List<String> scanned = scannedTables(plan);
+                boolean filtered = sql.toUpperCase(Locale.ROOT).contains(" WHERE ");
+                if (filtered ? !scanned.isEmpty() : scanned.size() > 1) {
+                    findings.add(scanned + " parcourue(s) dans : " + sql + "\n  plan : " + plan);
+                }
+            }
+        }
+        assertTrue(statements.size() > 30, "requêtes relevées : " + statements.size());
+        assertEquals(List.of(), findings);
+    }
+
+    @Test
+    void unindexedFilterIsDetected() throws SQLException {
+        try (Connection conn = database.connect()) {
+            assertEquals(List.of("track"), scannedTables(explain(conn, "SELECT * FROM track WHERE file_path = ?", List.of("media/x.mp3"))));
+        }
+    }
+
+    private void exerciseTracks() {
+        User artist = userDAO.findById(seed.userIds().get(1)).orElseThrow();
+        trackDAO.findAll();
+        trackDAO.findPage(seed.trackIds().get(10), 10);
+        Track existing = trackDAO.findById(seed.trackIds().get(25)).orElseThrow();
+        trackDAO.findByStatus(TrackStatus.PENDING);
+        trackDAO.findByArtist(artist);
+
+        Track created = trackDAO.save(new Track(0, "Nouveau", artist, "Album 0", Duration.ofSeconds(200),
+                "media/nouveau.mp3", TrackStatus.APPROVED, LocalDateTime.now()));
+        trackDAO.save(new Track(existing.getId(), existing.getTitle(), existing.getArtist(), "Album 9",
+                existing.getDuration(), existing.getFilePath(), TrackStatus.REJECTED, existing.getUploadDate()));
+        List<Track> batch = trackDAO.saveAll(List.of(
+                new Track(0, "Lot 1", artist, "Album 1", Duration.ofSeconds(120), "media/lot1.mp3", TrackStatus.PENDING, LocalDateTime.now()),
+                new Track(0, "Lot 2", artist, null, Duration.ofSeconds(130), "media/lot2.mp3", TrackStatus.APPROVED, LocalDateTime.now())));
+        trackDAO.deleteAll(batch.stream().map(Track::getId).toList());
+        trackDAO.delete(created.getId());
+    }
+
+    private void exerciseUsers() {
+        userDAO.findAll();
+        userDAO.findPage(seed.userIds().get(5), 10);
+        User user = userDAO.findById(seed.userIds().get(3)).orElseThrow();
+        userDAO.findByEmailOrUsername("artist7@soundhub.test");
+
+        User created = userDAO.save(new User(0, "plan", "plan@soundhub.test", "$2a$10$hash", Role.USER, UserStatus.PENDING));
+        user.setStatus(UserStatus.BANNED);
+        userDAO.save(user);
+        List<User> batch = userDAO.saveAll(List.of(
+                new User(0, "lot1", "lot1@soundhub.test", "$2a$10$hash", Role.USER, UserStatus.PENDING),
+                new User(0, "lot2", "lot2@soundhub.test", "$2a$10$hash", Role.USER, UserStatus.PENDING)));
+        userDAO.deleteAll(batch.stream().map(User::getId).toList());
+        userDAO.delete(created.getId());
+    }
+
+    private void exercisePlaylists() {
+        User owner = userDAO.findById(seed.userIds().get(0)).orElseThrow();
+        playlistDAO.findAll();
+        playlistDAO.findPage(0, 10);
+        playlistDAO.findById(seed.playlistId());
+        playlistDAO.findByUser(owner);
+        playlistDAO.getPlaylistTracks(seed.playlistId());
+
+        Playlist playlist = playlistDAO.save(new Playlist(0, "Plan", owner));
+        playlist.setName("Plan renommée");
+        playlistDAO.save(playlist);
+        playlistDAO.addTrackToPlaylist(playlist.getId(), seed.trackIds().get(0));
+        playlistDAO.addTracksToPlaylist(playlist.getId(), seed.trackIds().subList(1, 4));
+        playlistDAO.applyChanges(List.of(new PlaylistRepository.TrackChange(playlist.getId(), seed.trackIds().get(1), false),
+                        new PlaylistRepository.TrackChange(playlist.getId(), seed.trackIds().get(9), true)),
+                Map.of(playlist.getId(), "Plan finale"));
+        playlistDAO.removeTrackFromPlaylist(playlist.getId(), seed.trackIds().get(0));
+        playlistDAO.delete(playlist.getId());
+    }
+
+    private void exerciseFavorites() {
+        User owner = userDAO.findById(seed.userIds().get(0)).orElseThrow();
+        User other = userDAO.findById(seed.userIds().get(2)).orElseThrow();
+        Track track = trackDAO.findById(seed.trackIds().get(40)).orElseThrow();
+        favoriteDAO.findByUser(owner);
+        favoriteDAO.isFavorite(other, track);
+        favoriteDAO.addFavorite(other, track);
+        favoriteDAO.removeFavorite(other, track);
+        favoriteDAO.applyChanges(List.of(new FavoriteRepository.FavoriteChange(other.getId(), track.getId(), true),
+                new FavoriteRepository.FavoriteChange(owner.getId(), seed.trackIds().get(3), false)));
+    }
+
+    private void exerciseAlbums() {
+        AlbumDAO albumDAO = new AlbumDAO();
+        User artist = userDAO.findById(seed.userIds().get(4)).orElseThrow();
+        albumDAO.findMostPopular(10);
+        albumDAO.findByArtist(artist);
+        albumDAO.findByArtistAndTitle(artist, "Album 1");
+    }
+
+    private static String explain(Connection conn, String sql, List<Object> parameters) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                stmt.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+                return plan.toString();
+            }
+        }
+    }
+
+    private static List<String> scannedTables(String plan) {
+        List<String> tables = new ArrayList<>();
+        Matcher scan = TABLE_SCAN.matcher(plan);
+        while (scan.find()) {
+            tables.add(scan.group(1).replace("\"", ""));
+        }
+        return tables;
+    }
+}
@@ -0,0 +1,183 @@
+package dao;
+
+import model.Album;
+import model.Favorite;
+import model.Playlist;
+import model.Role;
+import model.Track;
+import model.TrackStatus;
+import model.User;
+import model.UserStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Le stockage en mémoire se comporte comme les DAOs sur le schéma MySQL : mêmes scénarios rejoués
+ * sur les deux (les DAOs sur une base H2 migrée), sans serveur MySQL.
+ */
+class RepositoryContractTest {
+
+    enum Backend { MEMORY, DAO }
+
+    private TestDatabase database;
+
+    private Repositories open(Backend backend) {
+        if (backend == Backend.MEMORY) {
+            return Repositories.memory(new InMemoryStore());
+        }
+        database = TestDatabase.open().migrate();
+        return Repositories.mysql();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    private static User newUser(String username) {
+        return new User(0, username, username + "@soundhub.test", "$2a$10$hash", Role.USER, UserStatus.ACTIVE);
+    }
+
+    private static Track newTrack(String title, User artist) {
+        return new Track(0, title, artist, "Album", Duration.ofSeconds(180), "media/" + title + ".mp3",
+                TrackStatus.APPROVED, LocalDateTime.of(2024, 1, 1, 12, 0));
+    }
+
+    private static Set<Integer> trackIds(List<Track> tracks) {
+        return tracks.stream().map(Track::getId).collect(Collectors.toSet());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void saveAllReturnsGeneratedIdsInInputOrder(Backend backend) {
+        Repositories repositories = open(backend);
+        List<User> users = repositories.users().saveAll(List.of(newUser("alpha"), newUser("beta"), newUser("gamma")));
+
+        assertEquals(List.of("alpha", "beta", "gamma"), users.stream().map(User::getUsername).toList());
+        assertTrue(users.get(0).getId() < users.get(1).getId() && users.get(1).getId() < users.get(2).getId());
+        assertEquals(List.of(users.get(1).getId(), users.get(2).getId()),
+                repositories.users().findPage(users.get(0).getId(), 10).stream().map(User::getId).toList());
+        assertEquals("beta", repositories.users().findByEmailOrUsername("beta@soundhub.test").orElseThrow().getUsername());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void duplicateInABatchWritesNothing(Backend backend) {
+        Repositories repositories = open(backend);
+        repositories.users().save(newUser("alpha"));
+
+        UserRepository.DuplicateUserException error = assertThrows(UserRepository.DuplicateUserException.class,
+                () -> repositories.users().saveAll(List.of(newUser("beta"),
+                        new User(0, "alpha", "autre@soundhub.test", "$2a$10$hash", Role.USER, UserStatus.ACTIVE))));
+
+        assertEquals(UserRepository.DuplicateUserException.Field.USERNAME, error.getField());
+        assertEquals(List.of("alpha"), repositories.users().findAll().stream().map(User::getUsername).toList());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void deletingAnArtistCascades(Backend backend) {
+        Repositories repositories = open(backend);
+        List<User> users = repositories.users().saveAll(List.of(newUser("artiste"), newUser("auditeur")));
+        User artist = users.get(0);
+        User listener = users.get(1);
+        List<Track> tracks = repositories.tracks().saveAll(List.of(
+                newTrack("un", artist), newTrack("deux", artist), newTrack("trois", listener)));
+        Playlist playlist = repositories.playlists().save(new Playlist(0, "Mix", listener));
+        repositories.playlists().addTracksToPlaylist(playlist.getId(), trackIds(tracks));
+        repositories.favorites().addFavorite(listener, tracks.get(0));
+        repositories.favorites().addFavorite(listener, tracks.get(2));
+
+        repositories.users().delete(artist.getId());
+
+        assertEquals(Set.of(tracks.get(2).getId()), trackIds(repositories.tracks().findAll()));
+        assertEquals(Set.of(tracks.get(2).getId()), trackIds(repositories.playlists().getPlaylistTracks(playlist.getId())));
+        assertEquals(List.of(tracks.get(2).getId()),
+                repositories.favorites().findByUser(listener).stream().map(Favorite::getTrack).map(Track::getId).toList());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void appliesPlaylistAndFavoriteChanges(Backend backend) {
+        Repositories repositories = open(backend);
+        User owner = repositories.users().save(newUser("proprio"));
+        List<Track> tracks = repositories.tracks().saveAll(List.of(
+                newTrack("un", owner), newTrack("deux", owner), newTrack("trois", owner)));
+        Playlist playlist = repositories.playlists().save(new Playlist(0, "Avant", owner));
+        repositories.playlists().addTrackToPlaylist(playlist.getId(), tracks.get(0).getId());
+
+        repositories.playlists().applyChanges(List.of(
+                        new PlaylistRepository.TrackChange(playlist.getId(), tracks.get(0).getId(), false),
+                        new PlaylistRepository.TrackChange(playlist.getId(), tracks.get(1).getId(), true),
+                        new PlaylistRepository.TrackChange(playlist.getId(), tracks.get(2).getId(), true)),
+                Map.of(playlist.getId(), "Après"));
+        repositories.favorites().applyChanges(List.of(
+                new FavoriteRepository.FavoriteChange(owner.getId(), tracks.get(1).getId(), true),
+                new FavoriteRepository.FavoriteChange(owner.getId(), tracks.get(2).getId(), false)));
+
+        assertEquals("Après", repositories.playlists().findById(playlist.getId()).orElseThrow().getName());
+        assertEquals(Set.of(tracks.get(1).getId(), tracks.get(2).getId()),
+                trackIds(repositories.playlists().getPlaylistTracks(playlist.getId())));
+        assertTrue(repositories.favorites().isFavorite(owner, tracks.get(1)));
+        assertEquals(1, repositories.favorites().findByUser(owner).size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void streamsTheWholeCatalog(Backend backend) {
+        Repositories repositories = open(backend);
+        User artist = repositories.users().save(newUser("artiste"));
+        List<Track> tracks = repositories.tracks().saveAll(List.of(
+                newTrack("un", artist), newTrack("deux", artist), newTrack("trois", artist)));
+
+        try (Stream<Track> stream = repositories.tracks().streamAll()) {
+            assertEquals(trackIds(tracks), stream.map(Track::getId).collect(Collectors.toSet()));
+        }
+        List<String> titles = new ArrayList<>();
+        repositories.tracks().forEach(track -> titles.add(track.getTitle()));
+        assertEquals(Set.of("un", "deux", "trois"), Set.copyOf(titles));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void albumsFollowTrackWrites(Backend backend) {
+        Repositories repositories = open(backend);
+        List<User> artists = repositories.users().saveAll(List.of(newUser("artiste"), newUser("autre")));
+        User artist = artists.get(0);
+        List<Track> tracks = repositories.tracks().saveAll(List.of(newTrack("un", artist), newTrack("deux", artist),
+                new Track(0, "trois", artists.get(1), "Démos", Duration.ofSeconds(60), "media/trois.mp3",
+                        TrackStatus.PENDING, LocalDateTime.of(2024, 1, 1, 12, 0))));
+
+        assertEquals(List.of("Album"), repositories.albums().findMostPopular(10).stream().map(Album::getTitle).toList());
+        Album album = repositories.albums().findByArtistAndTitle(artist, "Album").orElseThrow();
+        assertEquals(2, album.getTrackCount());
+        assertEquals(Duration.ofSeconds(360), album.getTotalDuration());
+        // Un album sans titre approuvé existe mais n'est pas populaire
+        assertEquals(0, repositories.albums().findByArtistAndTitle(artists.get(1), "Démos").orElseThrow().getTrackCount());
+
+        Track rejected = tracks.get(0);
+        rejected.setStatus(TrackStatus.REJECTED);
+        repositories.tracks().save(rejected);
+        assertEquals(1, repositories.albums().findByArtist(artist).get(0).getTrackCount());
+
+        repositories.users().delete(artist.getId());
+        assertEquals(List.of(), repositories.albums().findByArtist(artist));
+        assertEquals(List.of(), repositories.albums().findMostPopular(10));
+    }
+}
@@ -0,0 +1,205 @@
+package dao;
+
+import utils.DBConnection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base H2 en mémoire, en mode MySQL, derrière DBConnection : les DAOs s'y connectent par le pool
+ * comme à MySQL. Le schéma de départ est celui de soundhub.sql (ressource schema.sql).
+ */
+final class TestDatabase implements AutoCloseable {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private final String url;
+
+    private TestDatabase(String url) {
+        this.url = url;
+    }
+
+    /**
+     * Ouvre une base vide au schéma de soundhub.sql et y branche DBConnection.
+     */
+    static TestDatabase open() {
+        DBConnection.shutdown();
+        EntityCache.invalidateAll();
+        String url = "jdbc:h2:mem:soundhub" + SEQUENCE.incrementAndGet()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1";
+        System.setProperty("soundhub.db.url", url);
+        System.setProperty("soundhub.db.user", "sa");
+        System.setProperty("soundhub.db.password", "");
+        TestDatabase database = new TestDatabase(url);
+        database.executeScript("schema.sql");
+        return database;
+    }
+
+    @Override
+    public void close() {
+        DBConnection.shutdown();
+        EntityCache.invalidateAll();
+        try (Connection conn = connect(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        System.clearProperty("soundhub.db.url");
+        System.clearProperty("soundhub.db.user");
+        System.clearProperty("soundhub.db.password");
+    }
+
+    /**
+     * Applique les migrations de SchemaMigrations, comme au démarrage de l'application.
+     */
+    TestDatabase migrate() {
+        try (Connection conn = connect(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE ALIAS IF NOT EXISTS GET_LOCK FOR 'dao.H2Functions.getLock'");
+            stmt.execute("CREATE ALIAS IF NOT EXISTS RELEASE_LOCK FOR 'dao.H2Functions.releaseLock'");
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        new SchemaMigrations().migrate();
+        return this;
+    }
+
+    Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, "sa", "");
+    }
+
+    void executeScript(String resource) {
+        try (InputStream in = TestDatabase.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Ressource introuvable : " + resource);
+            }
+            String script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            try (Connection conn = connect(); Statement stmt = conn.createStatement()) {
+                for (String sql : script.replaceAll("(?m)^--.*$", "").split(";")) {
+                    if (!sql.isBlank()) {
+                        stmt.execute(sql);
+                    }
+                }
+            }
+        } catch (IOException | SQLException e) {
+            throw new IllegalStateException("Échec du script " + resource, e);
+        }
+    }
+
+    /**
+     * Nombre de requêtes exécutées par les DAOs pendant {@code work} (un addBatch compte pour une).
+     */
+    static int countStatements(Runnable work) {
+        AtomicInteger count = new AtomicInteger();
+        DBConnection.getDataSource().setStatementObserver((sql, parameters) -> count.incrementAndGet());
+        try {
+            work.run();
+        } finally {
+            DBConnection.getDataSource().setStatementObserver(null);
+        }
+        return count.get();
+    }
+
+    /**
+     * Requêtes exécutées par les DAOs pendant {@code work}, dans l'ordre.
+     */
+    static List<String> recordStatements(Runnable work) {
+        List<String> statements = new ArrayList<>();
+        DBConnection.getDataSource().setStatementObserver((sql, parameters) -> statements.add(sql));
+        try {
+            work.run();
+        } finally {
+            DBConnection.getDataSource().setStatementObserver(null);
+        }
+        return statements;
+    }
+
+    /**
+     * Jeu de données : {@code artists} artistes de {@code tracksPerArtist} tracks approuvés chacun,
+     * une playlist et tous les tracks en favoris pour le premier utilisateur.
+     */
+    Seed seed(int artists, int tracksPerArtist) {
+        try (Connection conn = connect()) {
+            conn.setAutoCommit(false);
+            List<Integer> userIds = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO user (username, email, password_hash, role, status) VALUES (?, ?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < artists; i++) {
+                    stmt.setString(1, "artist" + i);
+                    stmt.setString(2, "artist" + i + "@soundhub.test");
+                    stmt.setString(3, "$2a$10$hash");
+                    stmt.setString(4, "USER");
+                    stmt.setString(5, "ACTIVE");
+                    stmt.executeUpdate();
+                    userIds.add(generatedKey(stmt));
+                }
+            }
+            List<Integer> trackIds = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO track (title, artist_id, album, duration, file_path, status, upload_date) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                LocalDateTime uploaded = LocalDateTime.of(2024, 1, 1, 12, 0);
+                for (int artistId : userIds) {
+                    for (int i = 0; i < tracksPerArtist; i++) {
+                        stmt.setString(1, "Titre " + artistId + "-" + i);
+                        stmt.setInt(2, artistId);
+                        stmt.setString(3, "Album " + (i % 3));
+                        stmt.setDouble(4, 180 + i);
+                        stmt.setString(5, "media/" + artistId + "-" + i + ".mp3");
+                        stmt.setString(6, "APPROVED");
+                        stmt.setTimestamp(7, Timestamp.valueOf(uploaded.plusMinutes(trackIds.size())));
+                        stmt.executeUpdate();
+                        trackIds.add(generatedKey(stmt));
+                    }
+                }
+            }
+            int owner = userIds.get(0);
+            int playlistId;
+            try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO playlist (name, user_id) VALUES (?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setString(1, "Tout");
+                stmt.setInt(2, owner);
+                stmt.executeUpdate();
+                playlistId = generatedKey(stmt);
+            }
+            try (PreparedStatement playlist = conn.prepareStatement("INSERT INTO playlisttrack (playlist_id, track_id) VALUES (?, ?)");
+                 PreparedStatement favorite = conn.prepareStatement("INSERT INTO favorite (user_id, track_id) VALUES (?, ?)")) {
+                for (int trackId : trackIds) {
+                    playlist.setInt(1, playlistId);
+                    playlist.setInt(2, trackId);
+                    playlist.addBatch();
+                    favorite.setInt(1, owner);
+                    favorite.setInt(2, trackId);
+                    favorite.addBatch();
+                }
+                playlist.executeBatch();
+                favorite.executeBatch();
+            }
+            conn.commit();
+            return new Seed(userIds, trackIds, playlistId);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Échec du jeu de données", e);
+        }
+    }
+
+    private static int generatedKey(Statement stmt) throws SQLException {
+        try (var keys = stmt.getGeneratedKeys()) {
+            keys.next();
+            return keys.getInt(1);
+        }
+    }
+
+    record Seed(List<Integer> userIds, List<Integer> trackIds, int playlistId) {
+    }
+}
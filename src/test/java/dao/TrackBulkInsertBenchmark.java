@@ -0,0 +1,84 @@
+package dao;
+
+import model.Track;
+import model.TrackStatus;
+import model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insertion de {@code rows} tracks : un {@link TrackDAO#save} par track (une transaction et un
+ * aller-retour par ligne) contre un seul {@link TrackDAO#saveAll} (lots JDBC, une transaction).
+ * Chaque mesure part d'une base H2 migrée vide, hors réseau : l'écart réel sur MySQL est plus grand.
+ * <p>
+ * {@code mvn -Pbench test-compile exec:exec -Dbench=TrackBulkInsertBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TrackBulkInsertBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    private TestDatabase database;
+    private List<Track> tracks;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        database = TestDatabase.open();
+        TestDatabase.Seed seed = database.seed(10, 0);
+        database.migrate();
+        UserDAO userDAO = new UserDAO();
+        List<User> artists = new ArrayList<>();
+        for (int id : seed.userIds()) {
+            artists.add(userDAO.findById(id).orElseThrow());
+        }
+        LocalDateTime uploaded = LocalDateTime.of(2024, 1, 1, 12, 0);
+        tracks = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            tracks.add(new Track(0, "Titre " + i, artists.get(i % artists.size()), "Album " + (i % 50),
+                    Duration.ofSeconds(180 + i % 60), "media/" + i + ".mp3", TrackStatus.APPROVED, uploaded.plusSeconds(i)));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public int perRow() {
+        TrackDAO trackDAO = new TrackDAO();
+        int saved = 0;
+        for (Track track : tracks) {
+            saved += trackDAO.save(track).getId() > 0 ? 1 : 0;
+        }
+        return saved;
+    }
+
+    @Benchmark
+    public int batched() {
+        return new TrackDAO().saveAll(tracks).size();
+    }
+}
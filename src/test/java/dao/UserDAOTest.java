@@ -0,0 +1,80 @@
+package dao;
+
+import model.Role;
+import model.User;
+import model.UserStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unicité des comptes portée par les index de la base, après migrations.
+ */
+class UserDAOTest {
+
+    private TestDatabase database;
+    private final UserDAO userDAO = new UserDAO();
+
+    @BeforeEach
+    void setUp() {
+        database = TestDatabase.open();
+        database.seed(2, 1);
+        database.migrate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    private static User newUser(String username, String email) {
+        return new User(0, username, email, "$2a$10$hash", Role.USER, UserStatus.PENDING);
+    }
+
+    @Test
+    void duplicateEmailIsReportedAsEmail() {
+        UserRepository.DuplicateUserException error = assertThrows(UserRepository.DuplicateUserException.class,
+                () -> userDAO.save(newUser("nouveau", "artist0@soundhub.test")));
+        assertEquals(UserRepository.DuplicateUserException.Field.EMAIL, error.getField());
+    }
+
+    @Test
+    void duplicateUsernameIsReportedAsUsername() {
+        UserRepository.DuplicateUserException error = assertThrows(UserRepository.DuplicateUserException.class,
+                () -> userDAO.save(newUser("artist0", "nouveau@soundhub.test")));
+        assertEquals(UserRepository.DuplicateUserException.Field.USERNAME, error.getField());
+    }
+
+    @Test
+    void mysqlDuplicateEntriesAreMappedByKeyName() {
+        SQLException email = new SQLIntegrityConstraintViolationException(
+                "Duplicate entry 'a@soundhub.local' for key 'user.email'", "23000", 1062);
+        SQLException username = new SQLIntegrityConstraintViolationException(
+                "Duplicate entry 'email' for key 'uk_user_username'", "23000", 1062);
+        SQLException other = new SQLIntegrityConstraintViolationException(
+                "Cannot add or update a child row", "23000", 1452);
+
+        assertEquals(UserRepository.DuplicateUserException.Field.EMAIL,
+                ((UserRepository.DuplicateUserException) UserDAO.duplicateOr(email, "")).getField());
+        assertEquals(UserRepository.DuplicateUserException.Field.USERNAME,
+                ((UserRepository.DuplicateUserException) UserDAO.duplicateOr(username, "")).getField());
+        assertFalse(UserDAO.duplicateOr(other, "") instanceof UserRepository.DuplicateUserException);
+    }
+
+    @Test
+    void findsByEmailOrUsername() {
+        User byEmail = userDAO.findByEmailOrUsername("artist1@soundhub.test").orElseThrow();
+        User byUsername = userDAO.findByEmailOrUsername("artist1").orElseThrow();
+
+        assertEquals(byEmail.getId(), byUsername.getId());
+        assertTrue(userDAO.findByEmailOrUsername("inconnu").isEmpty());
+    }
+}
@@ -0,0 +1,75 @@
+package service;
+
+import model.Album;
+import model.Role;
+import model.Track;
+import model.TrackStatus;
+import model.User;
+import model.UserStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AlbumIndexTest {
+
+    private final User artist = new User(1, "marco", "marco@soundhub.local", "hash", Role.USER, UserStatus.ACTIVE);
+
+    private Track track(int id, String album) {
+        return track(id, album, TrackStatus.APPROVED);
+    }
+
+    private Track track(int id, String album, TrackStatus status) {
+        return new Track(id, "Titre " + id, artist, album, Duration.ofSeconds(60), "media/" + id + ".mp3",
+                status, LocalDateTime.of(2024, 5, 1, 10, 0));
+    }
+
+    private Album album(String title) {
+        return new Album(1, title, artist, 0, Duration.ZERO);
+    }
+
+    private static List<Integer> ids(List<Track> tracks) {
+        return tracks.stream().map(Track::getId).toList();
+    }
+
+    @Test
+    void keepsApprovedTracksOfEachAlbumInInsertionOrder() {
+        AlbumIndex index = new AlbumIndex();
+        index.add(track(1, "Space Walk"));
+        index.add(track(2, "Neon Dreams"));
+        index.add(track(3, "Space Walk"));
+        index.add(track(4, "Space Walk", TrackStatus.PENDING));
+        index.add(track(5, null));
+
+        assertEquals(List.of(1, 3), ids(index.tracksOf(album("Space Walk"))));
+        assertEquals(2, index.size());
+
+        index.remove(2);
+        assertEquals(List.of(), index.tracksOf(album("Neon Dreams")));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void albumTitlesIgnoreCaseLikeTheAlbumTable() {
+        AlbumIndex index = new AlbumIndex();
+        index.add(track(1, "Space Walk"));
+        index.add(track(2, "space walk"));
+
+        assertEquals(List.of(1, 2), ids(index.tracksOf(album("SPACE WALK"))));
+    }
+
+    @Test
+    void movingOrRejectingATrackReindexesIt() {
+        AlbumIndex index = new AlbumIndex();
+        index.add(track(1, "Space Walk"));
+        index.add(track(1, "Neon Dreams"));
+        assertEquals(List.of(), index.tracksOf(album("Space Walk")));
+        assertEquals(List.of(1), ids(index.tracksOf(album("Neon Dreams"))));
+
+        index.add(track(1, "Neon Dreams", TrackStatus.REJECTED));
+        assertEquals(0, index.size());
+    }
+}
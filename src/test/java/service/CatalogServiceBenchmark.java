@@ -0,0 +1,97 @@
+package service;
+
+import dao.InMemoryStore;
+import dao.Repositories;
+import model.Role;
+import model.Track;
+import model.TrackStatus;
+import model.User;
+import model.UserStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.MediaStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chemins des services sur le stockage en mémoire, sans serveur MySQL : lecture paginée du
+ * catalogue, rechargement complet du cache (index compris) et action de modération.
+ * Mesure le coût propre aux services, hors aller-retours réseau.
+ * <p>
+ * {@code mvn -Pbench test-compile exec:exec -Dbench=CatalogServiceBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CatalogServiceBenchmark {
+
+    private static final int ARTIST_COUNT = 100;
+
+    @Param({"10000", "100000"})
+    public int catalogSize;
+
+    private TrackService trackService;
+    private List<Track> catalog;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Repositories memory = Repositories.memory(new InMemoryStore());
+        List<User> artists = new ArrayList<>(ARTIST_COUNT);
+        for (int i = 0; i < ARTIST_COUNT; i++) {
+            artists.add(new User(0, "artist" + i, "artist" + i + "@soundhub.test", "hash", Role.USER, UserStatus.ACTIVE));
+        }
+        artists = memory.users().saveAll(artists);
+        List<Track> tracks = new ArrayList<>(catalogSize);
+        LocalDateTime uploaded = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < catalogSize; i++) {
+            tracks.add(new Track(0, "Titre " + i, artists.get(i % ARTIST_COUNT), "Album " + (i % 500),
+                    Duration.ofSeconds(180 + i % 60), "media/" + i + ".mp3", TrackStatus.APPROVED, uploaded.plusSeconds(i)));
+        }
+        memory.tracks().saveAll(tracks);
+
+        UserService userService = new UserService(memory.users());
+        userService.initialize(List.of());
+        trackService = new TrackService(memory.tracks(), memory.albums(), userService,
+                new MediaStore(Files.createTempDirectory("soundhub-bench")));
+        trackService.initialize(List.of());
+        catalog = new ArrayList<>(trackService.getTracks());
+    }
+
+    @Benchmark
+    public int fetchCatalog() {
+        return trackService.fetchTracks().size();
+    }
+
+    @Benchmark
+    public int resync() {
+        trackService.resync();
+        return trackService.getTracks().size();
+    }
+
+    @Benchmark
+    public Track changeStatus() {
+        Track track = catalog.get(next++ % catalog.size());
+        trackService.changeStatus(track, track.getStatus() == TrackStatus.APPROVED ? TrackStatus.PENDING : TrackStatus.APPROVED);
+        return track;
+    }
+}
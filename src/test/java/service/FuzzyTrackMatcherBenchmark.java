@@ -0,0 +1,125 @@
+package service;
+
+import model.Role;
+import model.Track;
+import model.TrackStatus;
+import model.User;
+import model.UserStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latence d'une recherche tolérante aux fautes (FuzzyTrackMatcher) sur un catalogue synthétique de
+ * 100 000 et 1 000 000 de tracks, comparée à la recherche exacte par préfixes (TrackSearchIndex).
+ * Les requêtes sont des mots du catalogue avec une faute de frappe (substitution, omission ou
+ * inversion), tirées dans le même ordre à chaque exécution.
+ * <p>
+ * {@code mvn -Pbench test-compile exec:exec -Dbench=FuzzyTrackMatcherBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FuzzyTrackMatcherBenchmark {
+
+    private static final int VOCABULARY_SIZE = 20_000;
+    private static final int ARTIST_COUNT = 10_000;
+    private static final int QUERY_COUNT = 1_024;
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ne", "ru", "sa", "te", "vo", "zi", "bra",
+            "cho", "dre", "fla", "gni", "qua", "ster", "tran", "vel", "xor", "yen"};
+
+    @Param({"100000", "1000000"})
+    public int catalogSize;
+
+    private FuzzyTrackMatcher fuzzyMatcher;
+    private TrackSearchIndex exactIndex;
+    private String[] typoQueries;
+    private String[] prefixQueries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        String[] vocabulary = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < vocabulary.length; i++) {
+            StringBuilder word = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            vocabulary[i] = word.toString();
+        }
+        List<User> artists = new ArrayList<>(ARTIST_COUNT);
+        for (int i = 0; i < ARTIST_COUNT; i++) {
+            artists.add(new User(i + 1, vocabulary[random.nextInt(vocabulary.length)] + i, "a" + i + "@soundhub.test",
+                    "hash", Role.USER, UserStatus.ACTIVE));
+        }
+
+        fuzzyMatcher = new FuzzyTrackMatcher();
+        exactIndex = new TrackSearchIndex();
+        LocalDateTime uploaded = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int id = 1; id <= catalogSize; id++) {
+            String title = vocabulary[random.nextInt(vocabulary.length)] + " " + vocabulary[random.nextInt(vocabulary.length)];
+            String album = vocabulary[random.nextInt(vocabulary.length)];
+            Track track = new Track(id, title, artists.get(random.nextInt(ARTIST_COUNT)), album,
+                    Duration.ofSeconds(180), "media/" + id + ".mp3", TrackStatus.APPROVED, uploaded);
+            fuzzyMatcher.add(track);
+            exactIndex.add(track);
+        }
+
+        typoQueries = new String[QUERY_COUNT];
+        prefixQueries = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            String word = vocabulary[random.nextInt(vocabulary.length)];
+            typoQueries[i] = typo(word, random);
+            prefixQueries[i] = word.substring(0, Math.min(word.length(), 3 + random.nextInt(4)));
+        }
+    }
+
+    private static String typo(String word, Random random) {
+        int position = 1 + random.nextInt(word.length() - 2);
+        char[] chars = word.toCharArray();
+        return switch (random.nextInt(3)) {
+            case 0 -> {
+                chars[position] = (char) ('a' + random.nextInt(26));
+                yield new String(chars);
+            }
+            case 1 -> word.substring(0, position) + word.substring(position + 1);
+            default -> {
+                char swap = chars[position];
+                chars[position] = chars[position + 1];
+                chars[position + 1] = swap;
+                yield new String(chars);
+            }
+        };
+    }
+
+    @Benchmark
+    public List<Integer> fuzzySearch() {
+        return fuzzyMatcher.search(typoQueries[next++ & (QUERY_COUNT - 1)], 20);
+    }
+
+    @Benchmark
+    public int[] exactPrefixSearch() {
+        return exactIndex.search(prefixQueries[next++ & (QUERY_COUNT - 1)], 200);
+    }
+}
@@ -0,0 +1,53 @@
+package service;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ListPositionsTest {
+
+    private final ObservableList<Integer> ids = FXCollections.observableArrayList();
+    private final ListPositions<Integer> positions = new ListPositions<>(ids, Integer::intValue);
+
+    private void assertConsistent() {
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i, positions.indexOf(ids.get(i)));
+        }
+    }
+
+    @Test
+    void followsAppendsReplacementsAndReloads() {
+        ids.setAll(10, 20, 30);
+        ids.add(40);
+        ids.set(1, 20);
+        assertConsistent();
+
+        ids.setAll(30, 10);
+        assertConsistent();
+        assertEquals(-1, positions.indexOf(20));
+        assertEquals(-1, positions.indexOf(40));
+    }
+
+    @Test
+    void removalInTheMiddleShiftsTheFollowingPositions() {
+        ids.setAll(10, 20, 30, 40);
+        ids.remove(Integer.valueOf(20));
+        assertEquals(-1, positions.indexOf(20));
+        assertConsistent();
+
+        ids.add(0, 5);
+        assertConsistent();
+    }
+
+    @Test
+    void sortingMovesEveryPosition() {
+        ids.setAll(30, 10, 20);
+        FXCollections.sort(ids);
+        assertEquals(List.of(10, 20, 30), ids);
+        assertConsistent();
+    }
+}
@@ -0,0 +1,123 @@
+package service;
+
+import dao.InMemoryStore;
+import dao.Repositories;
+import dao.TrackRepository;
+import dao.UserRepository;
+import model.Role;
+import model.Track;
+import model.TrackStatus;
+import model.User;
+import model.UserStatus;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import utils.MediaStore;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Une action de modération coûte une seule écriture, sans relecture des listes, quelle que soit
+ * la taille du catalogue. Stockage en mémoire, dépôts enveloppés pour compter les appels.
+ */
+class ModerationRoundTripTest {
+
+    @TempDir
+    Path mediaRoot;
+
+    private final RepositoryCalls calls = new RepositoryCalls();
+    private UserService userService;
+    private TrackService trackService;
+
+    private void start(int catalogSize) {
+        Repositories memory = Repositories.memory(new InMemoryStore());
+        UserRepository users = calls.wrap(UserRepository.class, memory.users());
+        TrackRepository tracks = calls.wrap(TrackRepository.class, memory.tracks());
+
+        List<User> artists = new ArrayList<>();
+        for (int i = 0; i < catalogSize / 10; i++) {
+            artists.add(new User(0, "artist" + i, "artist" + i + "@soundhub.test", "hash", Role.USER, UserStatus.PENDING));
+        }
+        artists = memory.users().saveAll(artists);
+        List<Track> catalog = new ArrayList<>();
+        for (int i = 0; i < catalogSize; i++) {
+            catalog.add(new Track(0, "Titre " + i, artists.get(i % artists.size()), "Album " + (i % 7),
+                    Duration.ofSeconds(200), "media/" + i + ".mp3", TrackStatus.PENDING, LocalDateTime.now()));
+        }
+        memory.tracks().saveAll(catalog);
+
+        userService = new UserService(users);
+        trackService = new TrackService(tracks, memory.albums(), userService, new MediaStore(mediaRoot));
+        userService.initialize(List.of());
+        trackService.initialize(List.of());
+        calls.reset();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 2_000})
+    void changeStatusWritesOnce(int catalogSize) {
+        start(catalogSize);
+        Track track = trackService.getTracks().get(catalogSize / 2);
+
+        trackService.changeStatus(track, TrackStatus.APPROVED);
+
+        assertEquals(Map.of("save", 1), calls.snapshot());
+        assertSame(track, trackService.getTracks().get(catalogSize / 2));
+        assertEquals(catalogSize - 1, trackService.getPendingTracks().size());
+        // Compteurs de la cloche de modération, tenus à jour sans parcourir le catalogue
+        assertEquals(catalogSize - 1, trackService.countByStatus(TrackStatus.PENDING));
+        assertEquals(1, trackService.countByStatus(TrackStatus.APPROVED));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 2_000})
+    void updateStatusWritesOnce(int catalogSize) {
+        start(catalogSize);
+        User user = userService.getUsers().getFirst();
+
+        userService.updateStatus(user, UserStatus.ACTIVE);
+
+        assertEquals(Map.of("save", 1), calls.snapshot());
+        assertEquals(UserStatus.ACTIVE, userService.getUsers().getFirst().getStatus());
+        assertEquals(catalogSize / 10 - 1, userService.countByStatus(UserStatus.PENDING));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 2_000})
+    void updateRoleWritesOnce(int catalogSize) {
+        start(catalogSize);
+        User user = userService.getUsers().getLast();
+
+        userService.updateRole(user, Role.ADMIN);
+
+        assertEquals(Map.of("save", 1), calls.snapshot());
+        assertEquals(List.of(user), userService.getAdmins());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 2_000})
+    void failedSaveLeavesTheCacheUnchanged(int catalogSize) {
+        start(catalogSize);
+        Track track = trackService.getTracks().get(catalogSize / 2);
+        User user = userService.getUsers().getFirst();
+        calls.fail("save");
+
+        assertThrows(RuntimeException.class, () -> trackService.changeStatus(track, TrackStatus.APPROVED));
+        assertThrows(RuntimeException.class, () -> userService.updateStatus(user, UserStatus.ACTIVE));
+        assertThrows(RuntimeException.class, () -> userService.updateRole(user, Role.ADMIN));
+
+        assertEquals(TrackStatus.PENDING, track.getStatus());
+        assertEquals(catalogSize, trackService.countByStatus(TrackStatus.PENDING));
+        assertEquals(UserStatus.PENDING, user.getStatus());
+        assertEquals(Role.USER, user.getRole());
+    }
+}
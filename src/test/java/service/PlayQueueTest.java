@@ -0,0 +1,181 @@
+package service;
+
+import model.Role;
+import model.Track;
+import model.TrackStatus;
+import model.User;
+import model.UserStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlayQueueTest {
+
+    private final User artist = new User(1, "marco", "marco@soundhub.local", "hash", Role.USER, UserStatus.ACTIVE);
+
+    private List<Track> tracks(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Track(i, "Titre " + i, artist, "Album", Duration.ofSeconds(60), "media/" + i + ".mp3",
+                        TrackStatus.APPROVED, LocalDateTime.of(2024, 5, 1, 10, 0)))
+                .toList();
+    }
+
+    private Track track(int id) {
+        return new Track(id, "Inséré " + id, artist, null, Duration.ofSeconds(60), "media/x" + id + ".mp3",
+                TrackStatus.APPROVED, LocalDateTime.of(2024, 5, 1, 10, 0));
+    }
+
+    private static int id(Optional<Track> track) {
+        return track.orElseThrow().getId();
+    }
+
+    private static List<Integer> ids(List<Track> tracks) {
+        return tracks.stream().map(Track::getId).toList();
+    }
+
+    @Test
+    void shufflePlaysEachTrackOnceThenStops() {
+        PlayQueue queue = new PlayQueue(new Random(42));
+        queue.setShuffle(true);
+        queue.load(tracks(50), 7);
+
+        Set<Integer> played = new HashSet<>(List.of(queue.getCurrent().getId()));
+        for (int i = 1; i < 50; i++) {
+            assertTrue(played.add(id(queue.next())));
+        }
+        assertEquals(50, played.size());
+        assertEquals(0, queue.remaining());
+        assertTrue(queue.next().isEmpty());
+    }
+
+    @Test
+    void upNextTracksPlayBeforeTheBaseOrder() {
+        PlayQueue queue = new PlayQueue(new Random(42));
+        queue.load(tracks(5), 0);
+        queue.playNext(track(100));
+        queue.playNext(track(101));
+
+        assertEquals(List.of(101, 100, 1), ids(queue.upcoming(3)));
+        assertEquals(101, id(queue.next()));
+        assertEquals(100, id(queue.next()));
+        assertEquals(1, id(queue.next()));
+    }
+
+    @Test
+    void previousFromAnUpNextTrackQueuesItAgain() {
+        PlayQueue queue = new PlayQueue(new Random(42));
+        queue.load(tracks(5), 0);
+        queue.next();
+        queue.playNext(track(100));
+        assertEquals(100, id(queue.next()));
+
+        assertEquals(1, id(queue.previous()));
+        assertEquals(100, id(queue.next()));
+        assertEquals(2, id(queue.next()));
+        assertEquals(100, id(queue.previous()));
+        assertEquals(2, id(queue.next()));
+    }
+
+    @Test
+    void repeatOneReplaysOnlyAtTheEndOfPlayback() {
+        PlayQueue queue = new PlayQueue(new Random(42));
+        queue.load(tracks(3), 1);
+        queue.setRepeat(PlayQueue.Repeat.ONE);
+
+        assertEquals(1, id(queue.advance()));
+        assertEquals(2, id(queue.next()));
+    }
+
+    @Test
+    void repeatAllStartsOverInOrder() {
+        PlayQueue queue = new PlayQueue(new Random(42));
+        queue.load(tracks(3), 2);
+        queue.setRepeat(PlayQueue.Repeat.ALL);
+
+        assertEquals(0, id(queue.advance()));
+        assertEquals(1, id(queue.next()));
+    }
+
+    @Test
+    void newShuffledRoundNeverStartsWithTheTrackThatEnded() {
+        for (int seed = 0; seed < 50; seed++) {
+            PlayQueue queue = new PlayQueue(new Random(seed));
+            queue.setShuffle(true);
+            queue.setRepeat(PlayQueue.Repeat.ALL);
+            queue.load(tracks(3), 0);
+            queue.next();
+            int ended = id(queue.next());
+
+            int first = id(queue.next());
+            assertNotEquals(ended, first);
+            // Le nouveau tour reste une permutation complète
+            Set<Integer> round = new HashSet<>(List.of(first, id(queue.next()), id(queue.next())));
+            assertEquals(Set.of(0, 1, 2), round);
+        }
+    }
+
+    @Test
+    void previousAcrossAReshuffleResumesFromTheRestoredTrack() {
+        PlayQueue queue = new PlayQueue(new Random(7));
+        queue.setShuffle(true);
+        queue.setRepeat(PlayQueue.Repeat.ALL);
+        queue.load(tracks(6), 0);
+        for (int i = 1; i < 6; i++) {
+            queue.next();
+        }
+        int ended = queue.getCurrent().getId();
+        queue.next(); // nouveau tour, nouvel ordre
+
+        assertEquals(ended, id(queue.previous()));
+        List<Integer> upcoming = ids(queue.upcoming(10));
+        assertEquals(5, upcoming.size());
+        assertFalse(upcoming.contains(ended));
+    }
+
+    @Test
+    void previousAfterTogglingShuffleKeepsTheOrderConsistent() {
+        PlayQueue queue = new PlayQueue(new Random(3));
+        queue.load(tracks(5), 0);
+        queue.next();
+        queue.next();
+        queue.setShuffle(true);
+
+        assertEquals(1, id(queue.previous()));
+        List<Integer> upcoming = ids(queue.upcoming(10));
+        assertEquals(4, upcoming.size());
+        assertFalse(upcoming.contains(1));
+        assertEquals(4, queue.remaining());
+
+        queue.setShuffle(false);
+        assertEquals(0, id(queue.previous()));
+        assertEquals(List.of(1, 2, 3, 4), ids(queue.upcoming(10)));
+    }
+
+    @Test
+    void historyIsBounded() {
+        PlayQueue queue = new PlayQueue(new Random(42));
+        queue.load(tracks(600), 0);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 1; i < 600; i++) {
+            queue.next();
+        }
+        for (int i = 598; i > 98; i--) {
+            expected.add(i);
+        }
+
+        assertEquals(expected, ids(queue.history()));
+    }
+}
@@ -0,0 +1,59 @@
+package service;
+
+import dao.InMemoryStore;
+import dao.PlaylistRepository;
+import dao.Repositories;
+import model.Playlist;
+import model.Role;
+import model.Track;
+import model.TrackStatus;
+import model.User;
+import model.UserStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Les playlists et leurs morceaux sont lus d'un coup à la connexion (hors du thread JavaFX) :
+ * sélectionner ou modifier une playlist ne fait plus d'appel au dépôt sur le thread JavaFX.
+ */
+class PlaylistServiceTest {
+
+    @Test
+    void selectingAndEditingAHydratedPlaylistDoesNotReadTheRepository() {
+        Repositories memory = Repositories.memory(new InMemoryStore());
+        User owner = memory.users().save(new User(0, "proprio", "proprio@soundhub.test", "hash", Role.USER, UserStatus.ACTIVE));
+        List<Track> tracks = memory.tracks().saveAll(List.of(track("un", owner), track("deux", owner), track("trois", owner)));
+        Playlist stored = memory.playlists().save(new Playlist(0, "Mix", owner));
+        memory.playlists().addTracksToPlaylist(stored.getId(), List.of(tracks.get(0).getId(), tracks.get(1).getId()));
+
+        RepositoryCalls calls = new RepositoryCalls();
+        try (PlaylistService service = new PlaylistService(calls.wrap(PlaylistRepository.class, memory.playlists()))) {
+            List<Playlist> fetched = service.fetchPlaylists(owner);
+            assertEquals(Map.of("findByUser", 1), calls.snapshot());
+            calls.reset();
+
+            Playlist playlist = service.cachePlaylists(owner, fetched).getFirst();
+            assertEquals(2, playlist.getTracks().size());
+            service.addTrack(playlist, tracks.get(2));
+            service.removeTrack(playlist, tracks.get(0));
+
+            assertEquals(List.of(tracks.get(1), tracks.get(2)), playlist.getTracks());
+            assertEquals(Map.of(), calls.snapshot());
+
+            // Les écritures différées partent ensuite en un seul lot
+            service.flushPendingWrites();
+            assertEquals(Map.of("applyChanges", 1), calls.snapshot());
+        }
+    }
+
+    private static Track track(String title, User artist) {
+        return new Track(0, title, artist, "Album", Duration.ofSeconds(180), "media/" + title + ".mp3",
+                TrackStatus.APPROVED, LocalDateTime.of(2024, 1, 1, 12, 0));
+    }
+}
@@ -0,0 +1,57 @@
+package service;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compte les appels faits à un dépôt : avec le stockage MySQL, chaque appel est au moins un
+ * aller-retour avec la base.
+ */
+final class RepositoryCalls {
+
+    private final Map<String, Integer> calls = new TreeMap<>();
+    private volatile String failing;
+
+    <T> T wrap(Class<T> repositoryType, T target) {
+        return repositoryType.cast(Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() != Object.class) {
+                        synchronized (calls) {
+                            calls.merge(method.getName(), 1, Integer::sum);
+                        }
+                    }
+                    if (method.getName().equals(failing)) {
+                        throw new RuntimeException("Panne simulée: " + failing);
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }));
+    }
+
+    /**
+     * Appels relevés depuis le dernier {@link #reset()}, par nom de méthode.
+     */
+    Map<String, Integer> snapshot() {
+        synchronized (calls) {
+            return new TreeMap<>(calls);
+        }
+    }
+
+    /**
+     * Les appels suivants à {@code methodName} échouent comme une base injoignable (null : plus d'échec).
+     */
+    void fail(String methodName) {
+        failing = methodName;
+    }
+
+    void reset() {
+        synchronized (calls) {
+            calls.clear();
+        }
+    }
+}
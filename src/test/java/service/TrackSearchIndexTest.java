@@ -0,0 +1,77 @@
+package service;
+
+import model.Role;
+import model.Track;
+import model.TrackStatus;
+import model.User;
+import model.UserStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TrackSearchIndexTest {
+
+    private final User artist = new User(1, "Zoé", "zoe@soundhub.test", "hash", Role.USER, UserStatus.ACTIVE);
+    private final TrackSearchIndex index = new TrackSearchIndex();
+
+    private Track track(int id, String title, String album) {
+        return new Track(id, title, artist, album, Duration.ofSeconds(200), "media/" + id + ".mp3",
+                TrackStatus.APPROVED, LocalDateTime.now());
+    }
+
+    @Test
+    void matchesWordPrefixesWithoutCaseOrAccents() {
+        index.add(track(1, "Été indien", "Saisons"));
+        index.add(track(2, "Hiver", "Saisons"));
+
+        assertArrayEquals(new int[]{1}, index.search("ete", 10));
+        assertArrayEquals(new int[]{1, 2}, index.search("SAIS", 10));
+        assertArrayEquals(new int[]{1, 2}, index.search("zoe", 10));
+        assertArrayEquals(new int[0], index.search("automne", 10));
+    }
+
+    @Test
+    void everyTermMustMatch() {
+        index.add(track(1, "City Lights", "Neon Dreams"));
+        index.add(track(2, "City Walk", "Space Walk"));
+        index.add(track(3, "Neon Rain", null));
+
+        assertArrayEquals(new int[]{1}, index.search("city neon", 10));
+        assertArrayEquals(new int[]{2}, index.search("walk ci", 10));
+    }
+
+    @Test
+    void resultsAreCappedAndSortedEvenWhenAddedOutOfOrder() {
+        for (int id : new int[]{50, 3, 40, 7, 1, 20}) {
+            index.add(track(id, "Orbit " + id, null));
+        }
+
+        assertArrayEquals(new int[]{1, 3, 7, 20, 40, 50}, index.search("orbit", 100));
+        assertArrayEquals(new int[]{1, 3, 7}, index.search("orbit", 3));
+    }
+
+    @Test
+    void removedAndReindexedTracksFollowTheirNewText() {
+        index.add(track(1, "Slow Dive", null));
+        index.add(track(2, "Slow Motion", null));
+        index.remove(1);
+        index.add(track(2, "Fast Motion", null));
+
+        assertArrayEquals(new int[0], index.search("slow", 10));
+        assertArrayEquals(new int[]{2}, index.search("fast", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void termsLongerThanIndexedPrefixesAreVerified() {
+        index.add(track(1, "Extraordinairement", null));
+        index.add(track(2, "Extraordinaire", null));
+
+        assertArrayEquals(new int[]{1, 2}, index.search("extraordinai", 10));
+        assertArrayEquals(new int[]{1}, index.search("extraordinairem", 10));
+    }
+}
@@ -0,0 +1,68 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WriteBehindQueueTest {
+
+    @Test
+    void stopsRetryingAfterMaxAttemptsAndReportsTheError() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        IllegalStateException failure = new IllegalStateException("base indisponible");
+        CompletableFuture<RuntimeException> reported = new CompletableFuture<>();
+        try (WriteBehindQueue<Integer, Boolean> queue = new WriteBehindQueue<>("test", 1, 100, writes -> {
+            attempts.incrementAndGet();
+            throw failure;
+        })) {
+            queue.setFailureListener(reported::complete);
+            queue.put(1, false, true);
+
+            assertSame(failure, reported.get(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            assertEquals(WriteBehindQueue.MAX_ATTEMPTS, attempts.get());
+            assertEquals(1, queue.pendingCount());
+        }
+    }
+
+    @Test
+    void flushAsyncFailsAndKeepsTheChangesPending() {
+        AtomicInteger attempts = new AtomicInteger();
+        try (WriteBehindQueue<Integer, Boolean> queue = new WriteBehindQueue<>("test", 60_000, 100, writes -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("base indisponible");
+            }
+        })) {
+            queue.put(1, false, true);
+
+            ExecutionException error = assertThrows(ExecutionException.class, () -> queue.flushAsync().get(5, TimeUnit.SECONDS));
+            assertEquals("base indisponible", error.getCause().getMessage());
+            assertEquals(1, queue.pendingCount());
+
+            queue.flushAsync().join();
+            assertEquals(0, queue.pendingCount());
+        }
+    }
+
+    @Test
+    void mergesChangesOnTheSameKey() {
+        AtomicReference<Map<Integer, Boolean>> written = new AtomicReference<>();
+        try (WriteBehindQueue<Integer, Boolean> queue = new WriteBehindQueue<>("test", 60_000, 100, written::set)) {
+            queue.put(1, false, true);
+            queue.put(1, true, false);
+            queue.put(2, false, true);
+
+            queue.flushAsync().join();
+            assertEquals(Map.of(2, true), written.get());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ui;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.MediaStore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * L'avancement est publié sur le thread de copie : le test peut l'y bloquer au milieu de la
+ * copie (le fichier fait plus d'une tranche du magasin) pour annuler à coup sûr.
+ */
+class MediaIngestionTest {
+
+    @TempDir
+    Path directory;
+
+    private final CountDownLatch firstChunk = new CountDownLatch(1);
+    private final CountDownLatch resume = new CountDownLatch(1);
+
+    private MediaStore store;
+    private MediaIngestion ingestion;
+
+    @BeforeEach
+    void setUp() {
+        store = new MediaStore(directory.resolve("media"));
+        ingestion = new MediaIngestion(store, Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ingestion.close();
+    }
+
+    private Path wav(String name, int dataSize, int seed) throws IOException {
+        ByteBuffer file = ByteBuffer.allocate(44 + dataSize).order(ByteOrder.LITTLE_ENDIAN);
+        file.put("RIFF".getBytes()).putInt(36 + dataSize).put("WAVE".getBytes());
+        file.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) 1)
+                .putInt(8_000).putInt(16_000).putShort((short) 2).putShort((short) 16);
+        file.put("data".getBytes()).putInt(dataSize);
+        while (file.hasRemaining()) {
+            file.put((byte) seed);
+        }
+        return Files.write(directory.resolve(name), file.array());
+    }
+
+    // Bloque la copie après la première tranche, jusqu'à l'annulation
+    private void pauseAfterFirstChunk(MediaIngestion.Progress progress) {
+        firstChunk.countDown();
+        try {
+            resume.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Les copies passent l'une après l'autre : une fois celle-ci rangée, la précédente est terminée
+    private MediaStore.StoredMedia storeAfterwards() throws IOException {
+        return ingestion.ingest(wav("suivant.wav", 1_000, 9), progress -> {
+        }).result().join();
+    }
+
+    private List<Path> filesUnder(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    @Test
+    void cancellingMidCopyLeavesNoFile() throws Exception {
+        MediaIngestion.Ingestion copy = ingestion.ingest(wav("gros.wav", 9_000_000, 1), this::pauseAfterFirstChunk);
+        assertTrue(firstChunk.await(10, TimeUnit.SECONDS));
+
+        copy.cancel();
+
+        assertThrows(CancellationException.class, () -> copy.result().join());
+        MediaStore.StoredMedia next = storeAfterwards();
+        assertEquals(List.of(Path.of(next.path())), filesUnder(directory.resolve("media")));
+        assertEquals(List.of(), filesUnder(directory.resolve("media").resolve(".tmp")));
+    }
+
+    @Test
+    void copyFinishedAfterCancellationReleasesItsProvisionalReference() throws Exception {
+        MediaIngestion.Ingestion copy = ingestion.ingest(wav("gros.wav", 9_000_000, 1), this::pauseAfterFirstChunk);
+        assertTrue(firstChunk.await(10, TimeUnit.SECONDS));
+
+        // Annulation tranchée sans interrompre la copie, comme pendant le déplacement final
+        copy.result().cancel(false);
+        resume.countDown();
+
+        MediaStore.StoredMedia next = storeAfterwards();
+        assertEquals(List.of(Path.of(next.path())), filesUnder(directory.resolve("media")));
+        assertEquals(1, store.referenceCount(next.path()));
+    }
+}
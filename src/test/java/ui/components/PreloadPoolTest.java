@@ -0,0 +1,87 @@
+package ui.components;
+
+import model.Role;
+import model.Track;
+import model.TrackStatus;
+import model.User;
+import model.UserStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Un lecteur par morceau à venir, libéré dès qu'il n'est plus attendu (lecteurs simulés par des ids).
+ */
+class PreloadPoolTest {
+
+    private final User artist = new User(1, "marco", "marco@soundhub.local", "hash", Role.USER, UserStatus.ACTIVE);
+    private final List<Integer> opened = new ArrayList<>();
+    private final List<Integer> disposed = new ArrayList<>();
+
+    private PreloadPool<Integer> pool(int capacity) {
+        return new PreloadPool<>(capacity, track -> {
+            opened.add(track.getId());
+            return track.getId();
+        }, disposed::add);
+    }
+
+    private List<Track> tracks(int... ids) {
+        return IntStream.of(ids)
+                .mapToObj(id -> new Track(id, "Titre " + id, artist, null, Duration.ofSeconds(60), "media/" + id + ".mp3",
+                        TrackStatus.APPROVED, LocalDateTime.of(2024, 5, 1, 10, 0)))
+                .toList();
+    }
+
+    @Test
+    void opensOnePlayerPerUpcomingTrackWithinCapacity() {
+        PreloadPool<Integer> pool = pool(2);
+
+        pool.retain(tracks(1, 2, 3), null);
+        pool.retain(tracks(1, 2, 3), null);
+
+        assertEquals(List.of(1, 2), opened);
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    void disposesPlayersThatAreNoLongerWanted() {
+        PreloadPool<Integer> pool = pool(2);
+        pool.retain(tracks(1, 2), null);
+
+        pool.retain(tracks(2, 3), null);
+
+        assertEquals(List.of(1), disposed);
+        assertEquals(List.of(1, 2, 3), opened);
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    void takenPlayerIsHandedOverAndNotDisposed() {
+        PreloadPool<Integer> pool = pool(1);
+        pool.retain(tracks(1), null);
+
+        assertEquals(1, pool.take(1));
+        assertNull(pool.take(1));
+        pool.retain(tracks(2), tracks(1).getFirst());
+        pool.clear();
+
+        assertEquals(List.of(2), disposed);
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    void currentTrackIsNotOpenedTwice() {
+        PreloadPool<Integer> pool = pool(2);
+
+        pool.retain(tracks(5, 6), tracks(5).getFirst());
+
+        assertEquals(List.of(6), opened);
+    }
+}
@@ -0,0 +1,327 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * En-têtes construits à la main, format par format : seuls les octets que la sonde lit sont remplis.
+ */
+class AudioProbeTest {
+
+    // MPEG-1 couche III, 128 kbit/s, 44,1 kHz, stéréo : trames de 417 octets
+    private static final int MP3_HEADER = 0xFFFB9000;
+    private static final int MP3_FRAME_LENGTH = 417;
+
+    @TempDir
+    Path directory;
+
+    private int files;
+
+    private Path write(byte[]... parts) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part);
+        }
+        return Files.write(directory.resolve("audio" + files++ + ".bin"), out.toByteArray());
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static Duration ofSamples(long samples, long sampleRate) {
+        return Duration.ofNanos(samples * 1_000_000_000L / sampleRate);
+    }
+
+    // ----- MP3 -----
+
+    private static ByteBuffer mp3Frame() {
+        return ByteBuffer.allocate(MP3_FRAME_LENGTH).putInt(0, MP3_HEADER);
+    }
+
+    private static byte[] mp3Frames(int count) {
+        ByteBuffer frames = ByteBuffer.allocate(count * MP3_FRAME_LENGTH);
+        for (int i = 0; i < count; i++) {
+            frames.putInt(i * MP3_FRAME_LENGTH, MP3_HEADER);
+        }
+        return frames.array();
+    }
+
+    private static byte[] xingFrame(long frames, int delay, int padding) {
+        ByteBuffer frame = mp3Frame();
+        // En-tête Xing après l'en-tête de trame (4) et les informations annexes (32 en stéréo)
+        frame.position(36);
+        frame.put(ascii("Info")).putInt(3).putInt((int) frames).putInt(123_456);
+        frame.put(ascii("LAME"));
+        frame.put(52 + 21, (byte) (delay >>> 4));
+        frame.put(52 + 22, (byte) (((delay & 0xF) << 4) | (padding >>> 8)));
+        frame.put(52 + 23, (byte) padding);
+        return frame.array();
+    }
+
+    private static byte[] id3v2(int size) {
+        byte[] tag = new byte[10 + size];
+        System.arraycopy(ascii("ID3"), 0, tag, 0, 3);
+        tag[3] = 4;
+        tag[6] = (byte) ((size >>> 21) & 0x7F);
+        tag[7] = (byte) ((size >>> 14) & 0x7F);
+        tag[8] = (byte) ((size >>> 7) & 0x7F);
+        tag[9] = (byte) (size & 0x7F);
+        return tag;
+    }
+
+    @Test
+    void xingHeaderGivesTheDurationWithoutLameDelayAndPadding() throws IOException {
+        AudioProbe.AudioInfo info = AudioProbe.probe(write(xingFrame(1_000, 576, 1_000), mp3Frames(2)));
+
+        assertEquals(AudioProbe.Format.MP3, info.format());
+        assertEquals("MPEG-1 couche III", info.codec());
+        assertEquals(44_100, info.sampleRate());
+        assertEquals(2, info.channels());
+        assertEquals(ofSamples(1_000 * 1152 - 576 - 1_000, 44_100), info.duration());
+    }
+
+    @Test
+    void id3v2TagIsSkipped() throws IOException {
+        // Étiquette plus grande que le premier bloc lu : la trame est relue après elle
+        AudioProbe.AudioInfo info = AudioProbe.probe(write(id3v2(5_000), xingFrame(1_000, 0, 0), mp3Frames(2)));
+
+        assertEquals(AudioProbe.Format.MP3, info.format());
+        assertEquals(ofSamples(1_000 * 1152, 44_100), info.duration());
+    }
+
+    @Test
+    void vbriHeaderGivesTheFrameCount() throws IOException {
+        ByteBuffer frame = mp3Frame();
+        frame.position(36);
+        frame.put(ascii("VBRI"));
+        frame.putInt(36 + 10, 1_000_000).putInt(36 + 14, 500);
+
+        AudioProbe.AudioInfo info = AudioProbe.probe(write(frame.array(), mp3Frames(2)));
+
+        assertEquals(ofSamples(500 * 1152, 44_100), info.duration());
+    }
+
+    @Test
+    void constantBitrateDurationIgnoresTheId3v1Tag() throws IOException {
+        byte[] id3v1 = new byte[128];
+        System.arraycopy(ascii("TAG"), 0, id3v1, 0, 3);
+
+        AudioProbe.AudioInfo info = AudioProbe.probe(write(mp3Frames(20), id3v1));
+
+        assertEquals(128_000, info.bitrate());
+        assertEquals(Duration.ofNanos(Math.round(20 * MP3_FRAME_LENGTH * 8 * 1_000_000_000d / 128_000)), info.duration());
+    }
+
+    // ----- WAV -----
+
+    private static byte[] wav(int dataSize, boolean listChunk) {
+        ByteBuffer file = ByteBuffer.allocate(44 + (listChunk ? 8 + 6 : 0) + dataSize).order(ByteOrder.LITTLE_ENDIAN);
+        file.put(ascii("RIFF")).putInt(file.capacity() - 8).put(ascii("WAVE"));
+        file.put(ascii("fmt ")).putInt(16).putShort((short) 1).putShort((short) 1)
+                .putInt(8_000).putInt(16_000).putShort((short) 2).putShort((short) 16);
+        if (listChunk) {
+            // Chunk de taille impaire : suivi d'un octet d'alignement
+            file.put(ascii("LIST")).putInt(5).put(new byte[6]);
+        }
+        file.put(ascii("data")).putInt(dataSize);
+        return file.array();
+    }
+
+    @Test
+    void wavChunksAreWalkedWithTheirPadding() throws IOException {
+        AudioProbe.AudioInfo info = AudioProbe.probe(write(wav(16_000, true)));
+
+        assertEquals(AudioProbe.Format.WAV, info.format());
+        assertEquals("PCM 16 bits", info.codec());
+        assertEquals(1, info.channels());
+        assertEquals(128_000, info.bitrate());
+        assertEquals(Duration.ofSeconds(1), info.duration());
+    }
+
+    @Test
+    void wavDataSizeIsCappedByTheFileSize() throws IOException {
+        byte[] file = wav(16_000, false);
+        // Écriture en flux : taille de données inconnue
+        ByteBuffer.wrap(file).order(ByteOrder.LITTLE_ENDIAN).putInt(40, 0xFFFFFFFF);
+
+        assertEquals(Duration.ofSeconds(1), AudioProbe.probe(write(file)).duration());
+    }
+
+    // ----- FLAC -----
+
+    private static byte[] flac(int sampleRate, long totalSamples) {
+        ByteBuffer file = ByteBuffer.allocate(4 + 4 + 34);
+        file.put(ascii("fLaC")).putInt(0x80_000022); // dernier bloc, STREAMINFO, 34 octets
+        file.position(8 + 10);
+        file.putLong(((long) sampleRate << 44) | (1L << 41) | (15L << 36) | totalSamples);
+        return file.array();
+    }
+
+    @Test
+    void flacStreamInfoGivesTheSampleCount() throws IOException {
+        AudioProbe.AudioInfo info = AudioProbe.probe(write(id3v2(20), flac(44_100, 441_000)));
+
+        assertEquals(AudioProbe.Format.FLAC, info.format());
+        assertEquals("FLAC 16 bits", info.codec());
+        assertEquals(2, info.channels());
+        assertEquals(Duration.ofSeconds(10), info.duration());
+    }
+
+    // ----- M4A -----
+
+    private static byte[] box(String type, byte[]... children) {
+        int size = 8 + Arrays.stream(children).mapToInt(child -> child.length).sum();
+        ByteBuffer box = ByteBuffer.allocate(size).putInt(size).put(ascii(type));
+        for (byte[] child : children) {
+            box.put(child);
+        }
+        return box.array();
+    }
+
+    private static byte[] handler(String type) {
+        return box("hdlr", ByteBuffer.allocate(24).put(8, ascii(type)).array());
+    }
+
+    private static byte[] mp4(String handler, int timescale, int units) {
+        byte[] mdhd = box("mdhd", ByteBuffer.allocate(24).putInt(12, timescale).putInt(16, units).array());
+        ByteBuffer entry = ByteBuffer.allocate(36).putInt(0, 36).put(4, ascii("mp4a"));
+        entry.putShort(24, (short) 2).putInt(32, 44_100 << 16);
+        byte[] stsd = box("stsd", ByteBuffer.allocate(8).putInt(4, 1).array(), entry.array());
+        byte[] mdia = box("mdia", mdhd, handler(handler), box("minf", box("stbl", stsd)));
+        return box("trak", box("tkhd", new byte[84]), mdia);
+    }
+
+    @Test
+    void mp4BoxesAreWalkedToTheSoundTrack() throws IOException {
+        byte[] ftyp = box("ftyp", ascii("M4A "), new byte[4]);
+        byte[] moov = box("moov", box("mvhd", new byte[100]), mp4("vide", 600, 6_000), mp4("soun", 44_100, 441_000));
+        // mdat sur 64 bits : taille 1 puis taille réelle
+        ByteBuffer mdat = ByteBuffer.allocate(16 + 1_000).putInt(1).put(ascii("mdat")).putLong(16 + 1_000);
+
+        AudioProbe.AudioInfo info = AudioProbe.probe(write(ftyp, mdat.array(), moov));
+
+        assertEquals(AudioProbe.Format.M4A, info.format());
+        assertEquals("AAC", info.codec());
+        assertEquals(2, info.channels());
+        assertEquals(44_100, info.sampleRate());
+        assertEquals(Duration.ofSeconds(10), info.duration());
+        assertEquals(800, info.bitrate());
+    }
+
+    // ----- Ogg -----
+
+    private static byte[] oggPage(int serial, long granule, byte[] packet) {
+        ByteBuffer page = ByteBuffer.allocate(28 + packet.length).order(ByteOrder.LITTLE_ENDIAN);
+        page.put(ascii("OggS")).put((byte) 0).put((byte) 0).putLong(granule).putInt(serial).putInt(0).putInt(0);
+        page.put((byte) 1).put((byte) packet.length).put(packet);
+        return page.array();
+    }
+
+    @Test
+    void oggDurationComesFromTheLastPageOfTheStream() throws IOException {
+        ByteBuffer vorbis = ByteBuffer.allocate(30).order(ByteOrder.LITTLE_ENDIAN);
+        vorbis.put((byte) 1).put(ascii("vorbis")).putInt(0).put((byte) 2).putInt(44_100);
+        byte[] otherStream = oggPage(99, 9_999_999, new byte[10]);
+
+        AudioProbe.AudioInfo info = AudioProbe.probe(write(oggPage(7, 0, vorbis.array()),
+                new byte[100_000], oggPage(7, 441_000, new byte[50]), otherStream));
+
+        assertEquals(AudioProbe.Format.OGG, info.format());
+        assertEquals("Vorbis", info.codec());
+        assertEquals(2, info.channels());
+        assertEquals(Duration.ofSeconds(10), info.duration());
+    }
+
+    @Test
+    void opusPreSkipIsRemoved() throws IOException {
+        ByteBuffer opus = ByteBuffer.allocate(19).order(ByteOrder.LITTLE_ENDIAN);
+        opus.put(ascii("OpusHead")).put((byte) 1).put((byte) 2).putShort((short) 312);
+
+        AudioProbe.AudioInfo info = AudioProbe.probe(write(oggPage(3, 0, opus.array()), oggPage(3, 480_312, new byte[20])));
+
+        assertEquals("Opus", info.codec());
+        assertEquals(48_000, info.sampleRate());
+        assertEquals(Duration.ofSeconds(10), info.duration());
+    }
+
+    // ----- AAC (ADTS) -----
+
+    private static byte[] adtsFrames(int count, int frameLength) {
+        ByteBuffer frames = ByteBuffer.allocate(count * frameLength);
+        for (int i = 0; i < count; i++) {
+            int at = i * frameLength;
+            // AAC LC, 44,1 kHz (index 4), stéréo, une trame brute par trame ADTS
+            frames.put(at, (byte) 0xFF).put(at + 1, (byte) 0xF1).put(at + 2, (byte) 0x50)
+                    .put(at + 3, (byte) (0x80 | (frameLength >>> 11)))
+                    .put(at + 4, (byte) (frameLength >>> 3))
+                    .put(at + 5, (byte) (((frameLength & 7) << 5) | 0x1F))
+                    .put(at + 6, (byte) 0xFC);
+        }
+        return frames.array();
+    }
+
+    @Test
+    void adtsDurationIsEstimatedFromTheFrames() throws IOException {
+        AudioProbe.AudioInfo info = AudioProbe.probe(write(adtsFrames(10, 200)));
+
+        assertEquals(AudioProbe.Format.AAC, info.format());
+        assertEquals(2, info.channels());
+        assertEquals(44_100, info.sampleRate());
+        assertEquals(ofSamples(10 * 1024, 44_100), info.duration());
+    }
+
+    // ----- Contenus refusés -----
+
+    private void assertRejected(byte[]... parts) throws IOException {
+        Path file = write(parts);
+        assertThrows(IllegalArgumentException.class, () -> AudioProbe.probe(file));
+    }
+
+    @Test
+    void truncatedHeadersAreRejected() throws IOException {
+        assertRejected();
+        assertRejected(Arrays.copyOf(wav(16_000, false), 20));
+        assertRejected(Arrays.copyOf(flac(44_100, 441_000), 12));
+        assertRejected(Arrays.copyOf(oggPage(7, 0, new byte[30]), 16));
+        assertRejected(Arrays.copyOf(xingFrame(1_000, 576, 1_000), 44));
+        assertRejected(Arrays.copyOf(adtsFrames(1, 200), 5));
+        assertRejected(box("ftyp", ascii("M4A ")), ascii("moov"));
+        // Étiquette ID3 annonçant plus d'octets que le fichier n'en contient
+        assertRejected(Arrays.copyOf(id3v2(100_000), 200));
+    }
+
+    @Test
+    void mismatchedMagicIsRejected() throws IOException {
+        byte[] avi = wav(16_000, false);
+        System.arraycopy(ascii("AVI "), 0, avi, 8, 4);
+        assertRejected(avi);
+        assertRejected(ascii("fLaX"), new byte[60]);
+        assertRejected(oggPage(7, 0, ascii("theora-header-bytes")), oggPage(7, 100, new byte[10]));
+        // Ogg sans dernière page du même flux
+        ByteBuffer vorbis = ByteBuffer.allocate(30).order(ByteOrder.LITTLE_ENDIAN);
+        vorbis.put((byte) 1).put(ascii("vorbis")).putInt(0).put((byte) 2).putInt(44_100);
+        assertRejected(oggPage(7, -1, vorbis.array()));
+        // M4A sans piste audio
+        assertRejected(box("ftyp", ascii("M4A "), new byte[4]), box("moov", mp4("vide", 600, 6_000)));
+        // FLAC dont le premier bloc n'est pas STREAMINFO
+        byte[] flac = flac(44_100, 441_000);
+        flac[4] = (byte) 0x84;
+        assertRejected(flac);
+        assertRejected(flac(0, 441_000));
+        assertRejected(new byte[4_096]);
+    }
+}
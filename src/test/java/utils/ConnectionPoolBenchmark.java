@@ -0,0 +1,83 @@
+package utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latence d'une requête DAO avant (une connexion ouverte par requête, comme l'ancien
+ * DBConnection) et après le pool. La base est simulée par {@link StandInDriver} : ouverture de
+ * connexion et requête coûtent chacune un aller-retour réseau réglable.
+ * <p>
+ * {@code mvn -Pbench test-compile exec:exec -Dbench=ConnectionPoolBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConnectionPoolBenchmark {
+
+    // Ouverture MySQL locale typique : TCP + poignée de main + authentification
+    @Param({"2000"})
+    public long connectLatencyMicros;
+
+    @Param({"100"})
+    public long queryLatencyMicros;
+
+    private StandInDriver driver;
+    private ConnectionPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        driver = StandInDriver.register().connectLatency(connectLatencyMicros).queryLatency(queryLatencyMicros);
+        pool = new ConnectionPool(driver.url(), "user", "secret", ConnectionPool.Settings.defaults());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+        driver.deregister();
+    }
+
+    @Benchmark
+    public boolean connectionPerQuery() throws SQLException {
+        try (Connection conn = DriverManager.getConnection(driver.url(), "user", "secret")) {
+            return query(conn);
+        }
+    }
+
+    @Benchmark
+    public boolean pooled() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            return query(conn);
+        }
+    }
+
+    private static boolean query(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM track WHERE id = ?")) {
+            stmt.setInt(1, 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+}
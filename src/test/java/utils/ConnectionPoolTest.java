@@ -0,0 +1,152 @@
+package utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolTest {
+
+    private StandInDriver driver;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        driver = StandInDriver.register();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+        driver.deregister();
+    }
+
+    private ConnectionPool pool(int maxSize, long borrowTimeoutMillis, long validationIntervalMillis, long leakThresholdMillis) {
+        pool = new ConnectionPool(driver.url(), "user", "secret", new ConnectionPool.Settings(
+                maxSize, 0, borrowTimeoutMillis, 300_000, validationIntervalMillis, 1, leakThresholdMillis, 1_000, false));
+        return pool;
+    }
+
+    @Test
+    void sequentialBorrowsReuseOnePhysicalConnection() throws SQLException {
+        ConnectionPool pool = pool(4, 1_000, 5_000, 0);
+
+        for (int i = 0; i < 100; i++) {
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("SELECT 1")) {
+                stmt.executeQuery();
+            }
+        }
+
+        assertEquals(1, driver.connects());
+        assertEquals(100, driver.statements());
+        assertEquals(0, driver.closes());
+        ConnectionPool.PoolStats stats = pool.stats();
+        assertEquals(100, stats.borrowed());
+        assertEquals(0, stats.active());
+        assertEquals(1, stats.idle());
+    }
+
+    @Test
+    void borrowWaitsForAFreeConnectionThenTimesOut() throws SQLException {
+        ConnectionPool pool = pool(2, 50, 5_000, 0);
+        Connection first = pool.getConnection();
+        Connection second = pool.getConnection();
+
+        SQLException timeout = assertThrows(SQLException.class, pool::getConnection);
+        assertTrue(timeout.getMessage().contains("Aucune connexion disponible"));
+        assertEquals(1, pool.stats().timeouts());
+
+        first.close();
+        try (Connection third = pool.getConnection()) {
+            assertFalse(third.isClosed());
+        }
+        second.close();
+        assertEquals(2, driver.connects());
+    }
+
+    @Test
+    void returnedHandleCannotTouchThePhysicalConnection() throws SQLException {
+        ConnectionPool pool = pool(1, 1_000, 5_000, 0);
+        Connection handle = pool.getConnection();
+        handle.close();
+        handle.close(); // un double close ne rend pas la connexion deux fois
+
+        assertTrue(handle.isClosed());
+        assertThrows(SQLException.class, () -> handle.prepareStatement("SELECT 1"));
+        try (Connection next = pool.getConnection()) {
+            assertFalse(next.isClosed());
+        }
+        assertEquals(1, driver.connects());
+    }
+
+    @Test
+    void releaseRestoresAutoCommit() throws SQLException {
+        ConnectionPool pool = pool(1, 1_000, 5_000, 0);
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+        }
+        try (Connection conn = pool.getConnection()) {
+            assertTrue(conn.getAutoCommit());
+        }
+    }
+
+    @Test
+    void invalidIdleConnectionIsReplaced() throws SQLException {
+        // Intervalle de validation nul : chaque connexion reprise du pool est validée
+        ConnectionPool pool = pool(1, 1_000, 0, 0);
+        pool.getConnection().close();
+
+        driver.setValid(false);
+        try (Connection conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+
+        assertEquals(1, driver.validations());
+        assertEquals(2, driver.connects());
+        assertEquals(1, driver.closes());
+        assertEquals(1, pool.stats().destroyed());
+    }
+
+    @Test
+    void recentlyReturnedConnectionIsNotValidated() throws SQLException {
+        ConnectionPool pool = pool(1, 1_000, 60_000, 0);
+        for (int i = 0; i < 10; i++) {
+            pool.getConnection().close();
+        }
+        assertEquals(0, driver.validations());
+    }
+
+    @Test
+    void longBorrowIsReportedAsLeakWithoutStackCapture() throws Exception {
+        ConnectionPool pool = pool(1, 1_000, 5_000, 10);
+        try (Connection ignored = pool.getConnection()) {
+            // Le ménage passe au plus toutes les secondes
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (pool.stats().leaks() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+        }
+        assertEquals(1, pool.stats().leaks());
+    }
+
+    @Test
+    void closedPoolRefusesBorrowsAndClosesIdleConnections() throws SQLException {
+        ConnectionPool pool = pool(2, 1_000, 5_000, 0);
+        pool.getConnection().close();
+        pool.close();
+
+        assertThrows(SQLException.class, pool::getConnection);
+        assertEquals(1, driver.closes());
+    }
+}
@@ -0,0 +1,151 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Les valeurs en collision sont choisies d'après la même dispersion que {@link IntHashSet},
+ * sur une table de 16 cases (capacité initiale pour 8 éléments).
+ */
+class IntHashSetTest {
+
+    private static final int CAPACITY = 16;
+
+    private static int home(int value) {
+        int h = value * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (CAPACITY - 1);
+    }
+
+    // Les premières valeurs positives dont la case de départ est {@code slot}
+    private static List<Integer> homedAt(int slot, int count) {
+        List<Integer> values = new ArrayList<>();
+        for (int value = 1; values.size() < count; value++) {
+            if (home(value) == slot) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    private static void assertContainsExactly(IntHashSet set, List<Integer> values) {
+        for (int value : values) {
+            assertTrue(set.contains(value), "absent : " + value);
+        }
+        assertEquals(values.size(), set.size());
+    }
+
+    @Test
+    void collidingValuesShareAProbeChain() {
+        IntHashSet set = new IntHashSet(8);
+        List<Integer> colliding = homedAt(3, 4);
+        for (int value : colliding) {
+            assertTrue(set.add(value));
+        }
+        for (int value : colliding) {
+            assertFalse(set.add(value));
+        }
+
+        assertContainsExactly(set, colliding);
+        assertFalse(set.contains(homedAt(3, 5).get(4)));
+    }
+
+    @Test
+    void removalInsideAProbeChainKeepsTheFollowingValuesReachable() {
+        IntHashSet set = new IntHashSet(8);
+        List<Integer> colliding = homedAt(5, 3);
+        int neighbour = homedAt(6, 1).get(0);
+        colliding.forEach(set::add);
+        // Repoussée en case 8 par la chaîne : le retrait la ramène en case 7
+        set.add(neighbour);
+
+        assertTrue(set.remove(colliding.get(1)));
+        assertFalse(set.remove(colliding.get(1)));
+
+        assertContainsExactly(set, List.of(colliding.get(0), colliding.get(2), neighbour));
+        assertTrue(set.remove(colliding.get(0)));
+        assertContainsExactly(set, List.of(colliding.get(2), neighbour));
+    }
+
+    @Test
+    void probeChainsWrapAroundTheEndOfTheTable() {
+        IntHashSet set = new IntHashSet(8);
+        List<Integer> last = homedAt(CAPACITY - 1, 3);
+        int first = homedAt(0, 1).get(0);
+        last.forEach(set::add);
+        set.add(first);
+
+        assertContainsExactly(set, List.of(last.get(0), last.get(1), last.get(2), first));
+
+        // Le décalage arrière repasse de la case 0 à la dernière case
+        assertTrue(set.remove(last.get(0)));
+        assertContainsExactly(set, List.of(last.get(1), last.get(2), first));
+        assertTrue(set.remove(last.get(1)));
+        assertTrue(set.remove(last.get(2)));
+        assertContainsExactly(set, List.of(first));
+    }
+
+    @Test
+    void zeroIsStoredOutsideTheTable() {
+        IntHashSet set = new IntHashSet();
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(0));
+        assertEquals(1, set.size());
+
+        assertTrue(set.remove(0));
+        assertFalse(set.remove(0));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        IntHashSet set = new IntHashSet(4);
+        List<Integer> values = new ArrayList<>();
+        for (int i = -500; i < 5_000; i++) {
+            values.add(i);
+            assertTrue(set.add(i));
+        }
+        assertContainsExactly(set, values);
+
+        for (int i = -500; i < 5_000; i += 2) {
+            assertTrue(set.remove(i));
+        }
+        values.removeIf(value -> value % 2 == 0);
+        assertContainsExactly(set, values);
+        assertFalse(set.contains(4_998));
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(1));
+    }
+
+    @Test
+    void behavesLikeAHashSetUnderRandomOperations() {
+        Random random = new Random(42);
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            // Petit domaine : beaucoup de collisions, de suppressions et de réinsertions
+            int value = random.nextInt(2_000) - 100;
+            switch (random.nextInt(3)) {
+                case 0 -> assertEquals(expected.add(value), set.add(value));
+                case 1 -> assertEquals(expected.remove(value), set.remove(value));
+                default -> assertEquals(expected.contains(value), set.contains(value));
+            }
+        }
+        assertEquals(expected.size(), set.size());
+        for (int value = -100; value < 1_900; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+    }
+}
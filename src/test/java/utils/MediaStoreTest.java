@@ -0,0 +1,96 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Références des fichiers rangés : un fichier n'est supprimé que lorsque sa dernière référence,
+ * provisoire (dépôt en cours) ou d'un track, est rendue.
+ */
+class MediaStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private Path wav(String name, int seed) throws IOException {
+        int dataSize = 4_000;
+        ByteBuffer file = ByteBuffer.allocate(44 + dataSize).order(ByteOrder.LITTLE_ENDIAN);
+        file.put("RIFF".getBytes()).putInt(36 + dataSize).put("WAVE".getBytes());
+        file.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) 1)
+                .putInt(8_000).putInt(16_000).putShort((short) 2).putShort((short) 16);
+        file.put("data".getBytes()).putInt(dataSize);
+        while (file.hasRemaining()) {
+            file.put((byte) seed);
+        }
+        return Files.write(directory.resolve(name), file.array());
+    }
+
+    private MediaStore store() {
+        return new MediaStore(directory.resolve("media"));
+    }
+
+    @Test
+    void discardingAnUnsubmittedFileDeletesIt() throws IOException {
+        MediaStore store = store();
+        MediaStore.StoredMedia stored = store.store(wav("a.wav", 1));
+        assertEquals(1, store.referenceCount(stored.path()));
+
+        store.discardIfUnreferenced(stored.path());
+
+        assertFalse(Files.exists(Paths.get(stored.path())));
+    }
+
+    @Test
+    void submittedFileOutlivesTheProvisionalReference() throws IOException {
+        MediaStore store = store();
+        MediaStore.StoredMedia stored = store.store(wav("a.wav", 1));
+        store.retain(stored.path()); // track enregistré
+        store.release(stored.path()); // référence provisoire rendue
+
+        assertEquals(1, store.referenceCount(stored.path()));
+        assertTrue(Files.exists(Paths.get(stored.path())));
+    }
+
+    @Test
+    void deduplicatedFileSurvivesItsLastTrackBeforeSubmission() throws IOException {
+        MediaStore store = store();
+        MediaStore.StoredMedia first = store.store(wav("a.wav", 1));
+        store.retain(first.path());
+        store.release(first.path());
+
+        MediaStore.StoredMedia again = store.store(wav("b.wav", 1));
+        assertTrue(again.deduplicated());
+        // Le seul track qui utilisait le fichier est supprimé avant la soumission du nouveau
+        store.release(first.path());
+        assertTrue(Files.exists(Paths.get(again.path())));
+
+        store.retain(again.path());
+        store.release(again.path());
+        assertEquals(1, store.referenceCount(again.path()));
+        assertTrue(Files.exists(Paths.get(again.path())));
+    }
+
+    @Test
+    void releasingAnUncountedPathKeepsTheFile() throws IOException {
+        MediaStore.StoredMedia stored = store().store(wav("a.wav", 1));
+
+        // Autre instance (compteurs vides), comme avant le chargement du catalogue
+        MediaStore fresh = store();
+        fresh.release(stored.path());
+        fresh.release(stored.path());
+
+        assertEquals(0, fresh.referenceCount(stored.path()));
+        assertTrue(Files.exists(Paths.get(stored.path())));
+    }
+}
@@ -0,0 +1,206 @@
+package utils;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Driver JDBC de substitution pour les tests du pool : aucune base, des connexions factices qui
+ * comptent les ouvertures, fermetures et requêtes, avec une latence simulée réglable.
+ * <p>
+ * Répond aux URL {@code jdbc:standin:<nom>} ; chaque instance enregistrée a son propre nom.
+ */
+final class StandInDriver implements Driver {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private final String url = "jdbc:standin:" + SEQUENCE.incrementAndGet();
+    private final AtomicInteger connects = new AtomicInteger();
+    private final AtomicInteger closes = new AtomicInteger();
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicInteger validations = new AtomicInteger();
+
+    private volatile long connectLatencyMicros;
+    private volatile long queryLatencyMicros;
+    private volatile boolean valid = true;
+
+    static StandInDriver register() {
+        StandInDriver driver = new StandInDriver();
+        try {
+            DriverManager.registerDriver(driver);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return driver;
+    }
+
+    void deregister() {
+        try {
+            DriverManager.deregisterDriver(this);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    String url() {
+        return url;
+    }
+
+    /**
+     * Aller-retour simulé à l'ouverture d'une connexion (poignée de main, authentification).
+     */
+    StandInDriver connectLatency(long micros) {
+        connectLatencyMicros = micros;
+        return this;
+    }
+
+    /**
+     * Aller-retour simulé à chaque exécution de requête.
+     */
+    StandInDriver queryLatency(long micros) {
+        queryLatencyMicros = micros;
+        return this;
+    }
+
+    /**
+     * Réponse de isValid() pour les connexions déjà ouvertes et à venir.
+     */
+    void setValid(boolean valid) {
+        this.valid = valid;
+    }
+
+    int connects() {
+        return connects.get();
+    }
+
+    int closes() {
+        return closes.get();
+    }
+
+    int statements() {
+        return statements.get();
+    }
+
+    int validations() {
+        return validations.get();
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        pause(connectLatencyMicros);
+        connects.incrementAndGet();
+        return newConnection();
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return this.url.equals(url);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    private Connection newConnection() {
+        boolean[] state = {false, true}; // fermée, autocommit
+        return (Connection) Proxy.newProxyInstance(StandInDriver.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        if (!state[0]) {
+                            state[0] = true;
+                            closes.incrementAndGet();
+                        }
+                        yield null;
+                    }
+                    case "isClosed" -> state[0];
+                    case "isValid" -> {
+                        validations.incrementAndGet();
+                        yield valid && !state[0];
+                    }
+                    case "getAutoCommit" -> state[1];
+                    case "setAutoCommit" -> {
+                        state[1] = (Boolean) args[0];
+                        yield null;
+                    }
+                    case "prepareStatement" -> newStatement();
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "StandInConnection@" + Integer.toHexString(System.identityHashCode(proxy));
+                    default -> null; // commit, rollback, clearWarnings...
+                });
+    }
+
+    private PreparedStatement newStatement() {
+        return (PreparedStatement) Proxy.newProxyInstance(StandInDriver.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "executeQuery" -> {
+                        executed();
+                        yield emptyResultSet();
+                    }
+                    case "executeUpdate" -> {
+                        executed();
+                        yield 1;
+                    }
+                    case "execute" -> {
+                        executed();
+                        yield false;
+                    }
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> null;
+                });
+    }
+
+    private void executed() {
+        pause(queryLatencyMicros);
+        statements.incrementAndGet();
+    }
+
+    private static ResultSet emptyResultSet() {
+        return (ResultSet) Proxy.newProxyInstance(StandInDriver.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> method.getName().equals("next") ? Boolean.FALSE : null);
+    }
+
+    private static void pause(long micros) {
+        if (micros > 0) {
+            long end = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(micros);
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
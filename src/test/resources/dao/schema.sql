@@ -0,0 +1,56 @@
+-- Schéma de base de soundhub.sql (avant migrations) pour H2 en mode MySQL.
+-- Les noms d'index sont uniques par schéma dans H2 : ceux en double dans le dump sont préfixés par la table.
+
+CREATE TABLE `user` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `username` varchar(50) NOT NULL,
+  `email` varchar(100) NOT NULL,
+  `password_hash` varchar(255) NOT NULL,
+  `role` enum('SUPER_ADMIN','ADMIN','USER') NOT NULL,
+  `status` enum('PENDING','ACTIVE','BANNED') DEFAULT 'PENDING',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `email` (`email`),
+  UNIQUE KEY `uk_user_username` (`username`),
+  KEY `idx_user_status` (`status`)
+);
+
+CREATE TABLE `track` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `title` varchar(100) NOT NULL,
+  `artist_id` int(11) NOT NULL,
+  `album` varchar(100) DEFAULT NULL,
+  `duration` float DEFAULT NULL,
+  `file_path` varchar(255) NOT NULL,
+  `status` enum('PENDING','APPROVED','REJECTED') DEFAULT 'PENDING',
+  `upload_date` datetime DEFAULT current_timestamp(),
+  PRIMARY KEY (`id`),
+  KEY `artist_id` (`artist_id`),
+  CONSTRAINT `track_ibfk_1` FOREIGN KEY (`artist_id`) REFERENCES `user` (`id`) ON DELETE CASCADE
+);
+
+CREATE TABLE `playlist` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `name` varchar(100) NOT NULL,
+  `user_id` int(11) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `user_id` (`user_id`),
+  CONSTRAINT `playlist_ibfk_1` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE CASCADE
+);
+
+CREATE TABLE `playlisttrack` (
+  `playlist_id` int(11) NOT NULL,
+  `track_id` int(11) NOT NULL,
+  PRIMARY KEY (`playlist_id`,`track_id`),
+  KEY `playlisttrack_track_id` (`track_id`),
+  CONSTRAINT `playlisttrack_ibfk_1` FOREIGN KEY (`playlist_id`) REFERENCES `playlist` (`id`) ON DELETE CASCADE,
+  CONSTRAINT `playlisttrack_ibfk_2` FOREIGN KEY (`track_id`) REFERENCES `track` (`id`) ON DELETE CASCADE
+);
+
+CREATE TABLE `favorite` (
+  `user_id` int(11) NOT NULL,
+  `track_id` int(11) NOT NULL,
+  PRIMARY KEY (`user_id`,`track_id`),
+  KEY `favorite_track_id` (`track_id`),
+  CONSTRAINT `favorite_ibfk_1` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE CASCADE,
+  CONSTRAINT `favorite_ibfk_2` FOREIGN KEY (`track_id`) REFERENCES `track` (`id`) ON DELETE CASCADE
+);